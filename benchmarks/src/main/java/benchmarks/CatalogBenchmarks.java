@@ -0,0 +1,90 @@
+package benchmarks;
+
+import model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import repository.RepositoryProduct;
+import service.CatalogSnapshot;
+import service.InvalidDataException;
+import service.ServiceProduct;
+
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cititori ai catalogului de produse (snapshot imutabil, fara lock-uri).
+ * Scalarea cu numarul de fire se masoara cu -t 1,2,4,8 pe findById/iterate;
+ * grupul readWhileWriting ruleaza 3 cititori alaturi de un fir care modifica produse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogBenchmarks {
+
+    @Param({"10000"})
+    public int scale;
+
+    private Path dataDirectory;
+    private ServiceProduct serviceProduct;
+    private int productCount;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataDirectory = Dataset.workingCopy(scale);
+        serviceProduct = new ServiceProduct(new RepositoryProduct());
+        productCount = Dataset.productCount(scale);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Dataset.delete(dataDirectory);
+    }
+
+    @Benchmark
+    public Product findById() {
+        return serviceProduct.getCatalog().findById(1 + ThreadLocalRandom.current().nextInt(productCount));
+    }
+
+    @Benchmark
+    public long iterate() {
+        long stock = 0;
+        for (Product product : serviceProduct.getCatalog().getProducts()) {
+            stock += product.getStockQuantity();
+        }
+        return stock;
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(3)
+    public Product reader() {
+        CatalogSnapshot catalog = serviceProduct.getCatalog();
+        return catalog.findById(1 + ThreadLocalRandom.current().nextInt(productCount));
+    }
+
+    // Fiecare salvare publica o noua versiune a catalogului
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public void writer() throws InvalidDataException {
+        Product product = serviceProduct.findProductById(1 + ThreadLocalRandom.current().nextInt(productCount));
+        serviceProduct.saveOrUpdateProduct(product);
+    }
+}
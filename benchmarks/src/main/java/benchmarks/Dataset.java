@@ -0,0 +1,122 @@
+package benchmarks;
+
+import repository.DataDirectory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Seturi de date generate pentru benchmark-uri (cu {@link DatasetGenerator}), in formatul fisierelor din directorul 'data'.
+ * Scara este numarul de comenzi; produsele si clientii sunt proportionali (scale/100, respectiv scale/10).
+ * Setul de baza se genereaza o singura data per scara (in target/datasets, configurabil cu
+ * -Dbenchmarks.datasets) si este copiat intr-un director temporar pentru fiecare rulare,
+ * deoarece Repository-urile scriu jurnale si snapshot-uri in directorul de date.
+ */
+public final class Dataset {
+
+    /** Stocul initial al fiecarui produs: suficient ca placeOrder sa nu esueze niciodata. */
+    public static final int INITIAL_STOCK = 1_000_000_000;
+
+    private static final String[] FILES = {"products.txt", "clients.txt", "orders.txt"};
+    private static final String COMPLETE_MARKER = ".complete";
+    private static final long SEED = 42;
+    private static final double PRODUCT_SKEW = 1.0;
+    private static final int MAX_LINES = 10;
+
+    private Dataset() {
+    }
+
+    /**
+     * Numarul de produse pentru o scara data.
+     * @param scale Numarul de comenzi.
+     * @return Numarul de produse (ID-uri 1..N).
+     */
+    public static int productCount(int scale) {
+        return Math.max(100, scale / 100);
+    }
+
+    /**
+     * Numarul de clienti pentru o scara data.
+     * @param scale Numarul de comenzi.
+     * @return Numarul de clienti (ID-uri 1..N).
+     */
+    public static int clientCount(int scale) {
+        return Math.max(100, scale / 10);
+    }
+
+    /**
+     * Email-ul generat pentru un client.
+     * @param clientId ID-ul clientului.
+     * @return Email-ul.
+     */
+    public static String email(int clientId) {
+        return "client" + clientId + "@example.com";
+    }
+
+    /**
+     * Parola generata pentru un client.
+     * @param clientId ID-ul clientului.
+     * @return Parola.
+     */
+    public static String password(int clientId) {
+        return "secret" + clientId;
+    }
+
+    /**
+     * Copiaza setul de date de baza (generat la nevoie) intr-un director temporar nou
+     * si il seteaza ca director de date pentru Repository-urile construite ulterior.
+     * @param scale Numarul de comenzi.
+     * @return Directorul temporar (de sters cu {@link #delete(Path)}).
+     */
+    public static Path workingCopy(int scale) {
+        try {
+            Path base = generate(scale);
+            Path copy = Files.createTempDirectory("store-bench-" + scale + "-");
+            for (String file : FILES) {
+                Files.copy(base.resolve(file), copy.resolve(file), StandardCopyOption.REPLACE_EXISTING);
+            }
+            System.setProperty(DataDirectory.PROPERTY, copy.toString());
+            return copy;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sterge un director de lucru creat de {@link #workingCopy(int)}.
+     * @param directory Directorul de sters.
+     */
+    public static void delete(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Genereaza setul de baza pentru o scara, daca nu exista deja.
+     * @param scale Numarul de comenzi.
+     * @return Directorul setului de baza.
+     * @throws IOException Daca scrierea esueaza.
+     */
+    public static synchronized Path generate(int scale) throws IOException {
+        Path directory = Paths.get(System.getProperty("benchmarks.datasets", "target/datasets"), String.valueOf(scale));
+        if (Files.exists(directory.resolve(COMPLETE_MARKER))) {
+            return directory;
+        }
+        new DatasetGenerator(productCount(scale), clientCount(scale), scale, SEED,
+                PRODUCT_SKEW, MAX_LINES, INITIAL_STOCK).generate(directory);
+        Files.createFile(directory.resolve(COMPLETE_MARKER));
+        return directory;
+    }
+}
@@ -0,0 +1,350 @@
+package benchmarks;
+
+import model.OrderStatus;
+import model.ProductType;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Generator de seturi de date sintetice (products.txt, clients.txt, orders.txt) in formatul
+ * citit de RepositoryProduct, RepositoryClient si RepositoryOrder.
+ * Popularitatea produselor urmeaza o distributie Zipf (rangurile sunt amestecate peste ID-uri),
+ * numarul de linii pe comanda si cantitatile urmeaza distributii geometrice trunchiate,
+ * iar datele comenzilor sunt crescatoare. Iesirea este scrisa in flux, rand cu rand:
+ * memoria folosita depinde doar de numarul de produse, nu de numarul de comenzi.
+ * Acelasi seed produce exact aceleasi fisiere.
+ *
+ * <p>Linie de comanda: {@code java -cp benchmarks/target/benchmarks.jar benchmarks.DatasetGenerator
+ * --out=data --orders=10000000 --products=100000 --clients=1000000 --seed=42 --skew=1.0 --maxLines=10 --stock=1000}</p>
+ * Un director care contine deja date ale aplicatiei este inlocuit doar cu --force=true.
+ */
+public final class DatasetGenerator {
+
+    private static final LocalDateTime FIRST_ORDER = LocalDateTime.of(2020, 1, 1, 8, 0);
+    // Intervalul mediu dintre doua comenzi consecutive
+    private static final int MEAN_ORDER_GAP_SECONDS = 30;
+    // Probabilitatea de a se opri dupa fiecare linie (in medie ~2.2 linii pe comanda)
+    private static final double LINE_STOP_PROBABILITY = 0.45;
+    // Probabilitatea de a se opri dupa fiecare unitate (majoritatea liniilor au cantitatea 1)
+    private static final double QUANTITY_STOP_PROBABILITY = 0.7;
+    private static final int MAX_QUANTITY = 10;
+    private static final ProductType[] PRODUCT_TYPES = ProductType.values();
+    private static final OrderStatus[] ORDER_STATUSES = {
+            OrderStatus.DELIVERED, OrderStatus.SHIPPED, OrderStatus.PROCESSING, OrderStatus.PENDING, OrderStatus.CANCELLED};
+    private static final int[] ORDER_STATUS_WEIGHTS = {70, 10, 8, 7, 5};
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    private static final String[] DATA_FILES = {"products.txt", "clients.txt", "orders.txt"};
+    // Fisiere care descriu datele anterioare: jurnalele ar fi reaplicate peste randurile noi, antetul lenes
+    // si secventele de ID-uri ar fi gresite, iar snapshot-ul binar si stocul pe disc ar inlocui fisierele noi
+    private static final String[] DERIVED_FILES = {
+            "products.journal", "products.journal.old", "clients.journal", "clients.journal.old",
+            "orders.journal", "orders.journal.old", "orders.meta",
+            "products.seq", "clients.seq", "orders.seq",
+            "products.bin", "orders.heap", "orders.idx"};
+
+    private final int products;
+    private final int clients;
+    private final int orders;
+    private final long seed;
+    private final double productSkew;
+    private final int maxLines;
+    private final int initialStock;
+
+    /**
+     * Constructor.
+     * @param products Numarul de produse (ID-uri 1..N).
+     * @param clients Numarul de clienti (ID-uri 1..N).
+     * @param orders Numarul de comenzi (ID-uri 1..N).
+     * @param seed Seed-ul generatorului pseudo-aleator.
+     * @param productSkew Exponentul distributiei Zipf a popularitatii produselor (0 = uniform).
+     * @param maxLines Numarul maxim de linii (produse distincte) pe comanda.
+     * @param initialStock Stocul fiecarui produs.
+     * @throws IllegalArgumentException Daca un parametru este in afara domeniului.
+     */
+    public DatasetGenerator(int products, int clients, int orders, long seed, double productSkew, int maxLines, int initialStock) {
+        if (products < 1 || clients < 1 || orders < 0) {
+            throw new IllegalArgumentException("Products and clients must be positive and orders non-negative.");
+        }
+        if (productSkew < 0 || Double.isNaN(productSkew)) {
+            throw new IllegalArgumentException("Product skew must be non-negative.");
+        }
+        if (maxLines < 1 || initialStock < 0) {
+            throw new IllegalArgumentException("Max lines must be positive and initial stock non-negative.");
+        }
+        this.products = products;
+        this.clients = clients;
+        this.orders = orders;
+        this.seed = seed;
+        this.productSkew = productSkew;
+        this.maxLines = Math.min(maxLines, products);
+        this.initialStock = initialStock;
+    }
+
+    /**
+     * Scrie cele trei fisiere in directorul dat (creat daca nu exista), suprascriind fisierele existente.
+     * Fisierele derivate din datele anterioare (jurnale, secvente de ID-uri, orders.meta, products.bin,
+     * orders.heap/orders.idx) sunt sterse inainte, altfel aplicatia le-ar folosi peste setul nou.
+     * @param directory Directorul de date.
+     * @throws IOException Daca stergerea sau scrierea esueaza.
+     */
+    public void generate(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        int removed = 0;
+        for (String name : DERIVED_FILES) {
+            if (Files.deleteIfExists(directory.resolve(name))) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            System.out.println("INFO: Removed " + removed + " files derived from the previous data in '" + directory + "'.");
+        }
+        // Fiecare fisier are propriul flux pseudo-aleator, derivat din seed
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom productRandom = root.split();
+        SplittableRandom orderRandom = root.split();
+
+        float[] prices = writeProducts(directory.resolve("products.txt"), productRandom);
+        writeClients(directory.resolve("clients.txt"));
+        writeOrders(directory.resolve("orders.txt"), orderRandom, prices);
+    }
+
+    private float[] writeProducts(Path path, SplittableRandom random) throws IOException {
+        // Index 0 nefolosit: pretul produsului cu ID-ul i este prices[i]
+        float[] prices = new float[products + 1];
+        try (Writer out = writer(path)) {
+            StringBuilder row = new StringBuilder(128);
+            for (int id = 1; id <= products; id++) {
+                ProductType type = PRODUCT_TYPES[random.nextInt(PRODUCT_TYPES.length)];
+                prices[id] = price(random);
+                row.setLength(0);
+                row.append(id).append(";Product ").append(id).append(';').append(prices[id]).append(';')
+                        .append(initialStock).append(';').append(type).append(";Generated ")
+                        .append(type.name().toLowerCase()).append(" product ").append(id).append('\n');
+                out.append(row);
+            }
+        }
+        return prices;
+    }
+
+    private void writeClients(Path path) throws IOException {
+        try (Writer out = writer(path)) {
+            StringBuilder row = new StringBuilder(128);
+            for (int id = 1; id <= clients; id++) {
+                row.setLength(0);
+                row.append(id).append(";Client ").append(id).append(';').append(Dataset.email(id)).append(';')
+                        .append(Dataset.password(id)).append(';').append(id).append(" Main St;07");
+                String phone = Integer.toString(id % 100_000_000);
+                for (int i = phone.length(); i < 8; i++) {
+                    row.append('0');
+                }
+                row.append(phone).append('\n');
+                out.append(row);
+            }
+        }
+    }
+
+    private void writeOrders(Path path, SplittableRandom random, float[] prices) throws IOException {
+        ZipfSampler popularity = new ZipfSampler(products, productSkew);
+        int[] productByRank = shuffledIds(products, new Random(seed));
+        int[] lineProducts = new int[maxLines];
+        LocalDateTime date = FIRST_ORDER;
+
+        try (Writer out = writer(path)) {
+            StringBuilder row = new StringBuilder(256);
+            for (int id = 1; id <= orders; id++) {
+                int lines = geometric(random, LINE_STOP_PROBABILITY, maxLines);
+                float total = 0;
+                row.setLength(0);
+                row.append(id).append(';').append(1 + random.nextInt(clients)).append(';');
+                for (int i = 0; i < lines; i++) {
+                    int productId = distinctProduct(random, popularity, productByRank, lineProducts, i);
+                    lineProducts[i] = productId;
+                    int quantity = geometric(random, QUANTITY_STOP_PROBABILITY, MAX_QUANTITY);
+                    total += prices[productId] * quantity;
+                    if (i > 0) {
+                        row.append('|');
+                    }
+                    row.append(productId).append(':').append(quantity);
+                }
+                date = date.plusSeconds(random.nextInt(2 * MEAN_ORDER_GAP_SECONDS + 1));
+                row.append(';').append(date.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                        .append(';').append(status(random))
+                        .append(';').append(total).append('\n');
+                out.append(row);
+            }
+        }
+    }
+
+    // Un produs diferit de cele deja alese pentru comanda curenta (mapa de produse a comenzii nu permite duplicate)
+    private int distinctProduct(SplittableRandom random, ZipfSampler popularity, int[] productByRank, int[] chosen, int count) {
+        while (true) {
+            int productId = productByRank[popularity.sample(random)];
+            boolean duplicate = false;
+            for (int i = 0; i < count; i++) {
+                if (chosen[i] == productId) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                return productId;
+            }
+        }
+    }
+
+    /**
+     * Pret cu 2 zecimale, distribuit log-normal (multe produse ieftine, putine scumpe), intre 0.99 si 9999.99.
+     */
+    private static float price(SplittableRandom random) {
+        double gaussian = gaussian(random);
+        double value = Math.exp(3.5 + gaussian);
+        long cents = Math.round(Math.min(Math.max(value, 0.99), 9999.99) * 100);
+        return (float) (cents / 100.0);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; 1 - nextDouble() evita log(0)
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    // Valoare intre 1 si max: la fiecare pas continua cu probabilitatea 1 - stopProbability
+    private static int geometric(SplittableRandom random, double stopProbability, int max) {
+        int value = 1;
+        while (value < max && random.nextDouble() >= stopProbability) {
+            value++;
+        }
+        return value;
+    }
+
+    private static OrderStatus status(SplittableRandom random) {
+        int pick = random.nextInt(100);
+        for (int i = 0; i < ORDER_STATUSES.length; i++) {
+            pick -= ORDER_STATUS_WEIGHTS[i];
+            if (pick < 0) {
+                return ORDER_STATUSES[i];
+            }
+        }
+        return ORDER_STATUSES[0];
+    }
+
+    // Permutare Fisher-Yates a ID-urilor 1..n: produsele populare nu sunt doar cele cu ID-uri mici
+    private static int[] shuffledIds(int n, Random random) {
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+        return ids;
+    }
+
+    private static Writer writer(Path path) throws IOException {
+        return new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * Esantionare Zipf prin inversarea functiei de repartitie cumulate (cautare binara).
+     * Rangul k (0-based) are probabilitatea proportionala cu 1 / (k + 1)^s.
+     */
+    private static final class ZipfSampler {
+
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1.0 / Math.pow(k + 1, exponent);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+            cumulative[n - 1] = 1.0;
+        }
+
+        int sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+
+    /**
+     * Punct de intrare in linie de comanda; argumentele sunt de forma --nume=valoare.
+     * Implicit: 10000 de comenzi, produse = comenzi/100 si clienti = comenzi/10 (minim 100), in directorul 'data'.
+     * @param args Argumentele (--out, --orders, --products, --clients, --seed, --skew, --maxLines, --stock).
+     * @throws IOException Daca scrierea esueaza.
+     */
+    public static void main(String[] args) throws IOException {
+        String out = "data";
+        int orders = 10_000;
+        Integer products = null;
+        Integer clients = null;
+        long seed = 42;
+        double skew = 1.0;
+        int maxLines = 10;
+        int stock = 1000;
+        boolean force = false;
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "out": out = value; break;
+                case "orders": orders = Integer.parseInt(value); break;
+                case "products": products = Integer.parseInt(value); break;
+                case "clients": clients = Integer.parseInt(value); break;
+                case "seed": seed = Long.parseLong(value); break;
+                case "skew": skew = Double.parseDouble(value); break;
+                case "maxLines": maxLines = Integer.parseInt(value); break;
+                case "stock": stock = Integer.parseInt(value); break;
+                case "force": force = Boolean.parseBoolean(value); break;
+                default: throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+
+        // Implicit se scrie in directorul de date al aplicatiei: datele existente nu se pierd din greseala
+        if (!force && containsStoreData(Paths.get(out))) {
+            throw new IllegalArgumentException("Directory '" + out + "' already contains store data; pass --force=true to replace it.");
+        }
+
+        DatasetGenerator generator = new DatasetGenerator(
+                products != null ? products : Dataset.productCount(orders),
+                clients != null ? clients : Dataset.clientCount(orders),
+                orders, seed, skew, maxLines, stock);
+        long start = System.nanoTime();
+        generator.generate(Paths.get(out));
+        System.out.printf("INFO: Generated %d products, %d clients and %d orders in '%s' (%d ms).%n",
+                generator.products, generator.clients, generator.orders, out, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static boolean containsStoreData(Path directory) {
+        for (String[] names : new String[][]{DATA_FILES, DERIVED_FILES}) {
+            for (String name : names) {
+                if (Files.exists(directory.resolve(name))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,85 @@
+package benchmarks;
+
+import model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import repository.RepositoryOrder;
+import repository.RepositoryOrderDisk;
+import repository.RepositoryProduct;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Citiri din Repository-ul de comenzi pe disc (arbore B+ cu cache LRU de pagini), fata de cel din memorie.
+ * Cache-ul se alege cu -p cachePages; setul de date se importa la pornire (o salvare sincronizata per comanda,
+ * deci pregatirea dureaza proportional cu scara).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiskOrderStoreBenchmarks {
+
+    @Param({"10000"})
+    public int scale;
+
+    @Param({"64", "4096"})
+    public int cachePages;
+
+    private Path dataDirectory;
+    private RepositoryOrder memoryRepository;
+    private RepositoryOrderDisk diskRepository;
+    private int clientCount;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataDirectory = Dataset.workingCopy(scale);
+        RepositoryProduct productRepository = new RepositoryProduct();
+        memoryRepository = new RepositoryOrder(productRepository);
+        diskRepository = new RepositoryOrderDisk(productRepository, cachePages);
+        memoryRepository.forEach(diskRepository::save);
+        diskRepository.saveAllData();
+        clientCount = Dataset.clientCount(scale);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Dataset.delete(dataDirectory);
+    }
+
+    @Benchmark
+    public Order findByIdDisk() {
+        return diskRepository.findById(1 + ThreadLocalRandom.current().nextInt(scale));
+    }
+
+    @Benchmark
+    public Order findByIdMemory() {
+        return memoryRepository.findById(1 + ThreadLocalRandom.current().nextInt(scale));
+    }
+
+    @Benchmark
+    public List<Order> findByClientIdDisk() {
+        return diskRepository.findByClientId(1 + ThreadLocalRandom.current().nextInt(clientCount), 0, 20);
+    }
+
+    @Benchmark
+    public List<Order> findByClientIdMemory() {
+        return memoryRepository.findByClientId(1 + ThreadLocalRandom.current().nextInt(clientCount), 0, 20);
+    }
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import repository.RepositoryOrder;
+import repository.RepositoryProduct;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parcurgerea tuturor comenzilor: prin copia returnata de findAll() fata de forEach/stream
+ * direct peste colectia din memorie. Cu -prof gc se vede si alocarea copiei.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IterationBenchmarks {
+
+    @Param({"10000"})
+    public int scale;
+
+    private Path dataDirectory;
+    private RepositoryOrder orderRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataDirectory = Dataset.workingCopy(scale);
+        orderRepository = new RepositoryOrder(new RepositoryProduct());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Dataset.delete(dataDirectory);
+    }
+
+    @Benchmark
+    public double findAll() {
+        double total = 0;
+        for (Order order : orderRepository.findAll()) {
+            total += order.getTotalAmount();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double forEach() {
+        double[] total = {0};
+        orderRepository.forEach(order -> total[0] += order.getTotalAmount());
+        return total[0];
+    }
+
+    @Benchmark
+    public double stream() {
+        return orderRepository.stream().mapToDouble(Order::getTotalAmount).sum();
+    }
+}
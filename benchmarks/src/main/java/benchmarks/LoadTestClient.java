@@ -0,0 +1,294 @@
+package benchmarks;
+
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import web.Json;
+import web.StoreHttpServer;
+import web.VirtualThreads;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client de test de incarcare pentru {@link StoreHttpServer}: un numar fix de utilizatori simulati
+ * (fire virtuale pe Java 21+), fiecare autentificat o data, trimit cereri una dupa alta pe durata data,
+ * cu un amestec de navigare in catalog, plasare de comenzi si rapoarte. La final afiseaza debitul
+ * si percentilele latentei pe fiecare tip de operatie, plus numarul de raspunsuri pe status.
+ *
+ * <p>Linie de comanda: {@code java -cp benchmarks/target/benchmarks.jar benchmarks.LoadTestClient
+ * --url=http://127.0.0.1:8080 --users=200 --duration=30 --browse=70 --checkout=25 --clients=1000}</p>
+ * Cu --clients=N, utilizatorii se autentifica drept client1..clientN@example.com / secret1..N
+ * (conturile generate de {@link DatasetGenerator}); altfel toti folosesc --email si --password.
+ */
+public final class LoadTestClient {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    // Status folosit pentru erorile de conexiune (cererea nu a primit raspuns)
+    private static final int IO_ERROR = -1;
+
+    private enum Operation { BROWSE, PRODUCT, CHECKOUT, REPORT }
+
+    private final URI baseUrl;
+    private final HttpClient http;
+    private volatile MetricsRegistry metrics = new MetricsRegistry();
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final int browsePercent;
+    private final int checkoutPercent;
+    private final int maxLines;
+    private List<Integer> productIds = new ArrayList<>();
+    private int productCount;
+
+    private LoadTestClient(URI baseUrl, int browsePercent, int checkoutPercent, int maxLines) {
+        this.baseUrl = baseUrl;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        this.browsePercent = browsePercent;
+        this.checkoutPercent = checkoutPercent;
+        this.maxLines = maxLines;
+    }
+
+    /**
+     * Punct de intrare in linie de comanda; argumentele sunt de forma --nume=valoare.
+     * Implicit: 64 de utilizatori, 30 de secunde, 70% navigare, 25% comenzi si 5% rapoarte,
+     * autentificati cu contul implicit john.s@example.com.
+     * @param args Argumentele (--url, --users, --duration, --warmup, --browse, --checkout, --maxLines, --clients, --email, --password).
+     * @throws Exception Daca serverul nu raspunde la pregatirea testului.
+     */
+    public static void main(String[] args) throws Exception {
+        String url = "http://127.0.0.1:8080";
+        int users = 64;
+        int durationSeconds = 30;
+        int warmupSeconds = 0;
+        int browse = 70;
+        int checkout = 25;
+        int maxLines = 3;
+        int clients = 0;
+        String email = "john.s@example.com";
+        String password = "pass123";
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "url": url = value; break;
+                case "users": users = Integer.parseInt(value); break;
+                case "duration": durationSeconds = Integer.parseInt(value); break;
+                case "warmup": warmupSeconds = Integer.parseInt(value); break;
+                case "browse": browse = Integer.parseInt(value); break;
+                case "checkout": checkout = Integer.parseInt(value); break;
+                case "maxLines": maxLines = Integer.parseInt(value); break;
+                case "clients": clients = Integer.parseInt(value); break;
+                case "email": email = value; break;
+                case "password": password = value; break;
+                default: throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        if (users <= 0 || durationSeconds <= 0 || maxLines <= 0 || browse < 0 || checkout < 0 || browse + checkout > 100) {
+            throw new IllegalArgumentException("Invalid load test options.");
+        }
+
+        // Fara fire virtuale, fiecare utilizator are propriul fir de platforma (nu un pool limitat)
+        ExecutorService executor = VirtualThreads.isAvailable()
+                ? VirtualThreads.newPerTaskExecutor("load-test") : Executors.newCachedThreadPool();
+        try {
+            LoadTestClient client = new LoadTestClient(URI.create(url.endsWith("/") ? url : url + "/"), browse, checkout, maxLines);
+            client.loadCatalog();
+            System.out.printf("INFO: %d users against %s for %d s (%d products, %s threads).%n", users, url, durationSeconds,
+                    client.productCount, VirtualThreads.isAvailable() ? "virtual" : "platform");
+            if (warmupSeconds > 0) {
+                client.run(executor, users, warmupSeconds, clients, email, password);
+                client.reset();
+            }
+            long elapsedNanos = client.run(executor, users, durationSeconds, clients, email, password);
+            client.printReport(elapsedNanos);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Citeste ID-urile produselor (prima pagina, pana la 1000) si numarul total de produse
+    @SuppressWarnings("unchecked")
+    private void loadCatalog() throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request("products?limit=1000").GET().build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET /products returned " + response.statusCode() + ".");
+        }
+        Map<String, Object> body = (Map<String, Object>) Json.parse(response.body());
+        productCount = ((Double) body.get("total")).intValue();
+        List<Integer> ids = new ArrayList<>();
+        for (Object product : (List<Object>) body.get("products")) {
+            ids.add(((Double) ((Map<String, Object>) product).get("id")).intValue());
+        }
+        if (ids.isEmpty()) {
+            throw new IOException("The catalog is empty.");
+        }
+        productIds = ids;
+    }
+
+    // Ruleaza utilizatorii pana la expirarea duratei si returneaza durata efectiva, in nanosecunde
+    private long run(ExecutorService executor, int users, int durationSeconds, int clients, String email, String password)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<Future<?>> workers = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            int clientId = clients > 0 ? 1 + i % clients : 0;
+            String userEmail = clients > 0 ? "client" + clientId + "@example.com" : email;
+            String userPassword = clients > 0 ? "secret" + clientId : password;
+            workers.add(executor.submit(() -> simulateUser(userEmail, userPassword, deadline)));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                System.err.println("LOAD TEST ERROR: User failed: " + e.getCause());
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void simulateUser(String email, String password, long deadline) {
+        String token = login(email, password);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean unitsSold = false;
+        while (System.nanoTime() < deadline) {
+            int roll = random.nextInt(100);
+            if (roll < browsePercent) {
+                // Jumatate liste de produse, jumatate detaliile unui produs
+                if (random.nextBoolean()) {
+                    int offset = productCount <= 20 ? 0 : random.nextInt(productCount - 20);
+                    timed(Operation.BROWSE, request("products?limit=20&offset=" + offset).GET());
+                } else {
+                    timed(Operation.PRODUCT, request("products/" + randomProduct(random)).GET());
+                }
+            } else if (roll < browsePercent + checkoutPercent && token != null) {
+                HttpResponse<String> placed = timed(Operation.CHECKOUT, request("orders")
+                        .header("Authorization", "Bearer " + token)
+                        .POST(HttpRequest.BodyPublishers.ofString(randomCart(random))));
+                // Tokenul a expirat sau a fost inlocuit (utilizatorii impart contul, iar serverul limiteaza sesiunile)
+                if (placed != null && placed.statusCode() == 401) {
+                    token = login(email, password);
+                }
+            } else {
+                unitsSold = !unitsSold;
+                timed(Operation.REPORT, request(unitsSold ? "reports/units-sold" : "reports/stock-value").GET());
+            }
+        }
+    }
+
+    // Autentifica utilizatorul; returneaza tokenul sau null daca autentificarea esueaza
+    @SuppressWarnings("unchecked")
+    private String login(String email, String password) {
+        StringBuilder login = new StringBuilder("{\"email\":");
+        Json.quote(login, email).append(",\"password\":");
+        Json.quote(login, password).append('}');
+        HttpResponse<String> loggedIn = send("login", request("login").POST(HttpRequest.BodyPublishers.ofString(login.toString())));
+        if (loggedIn == null || loggedIn.statusCode() != 200) {
+            return null;
+        }
+        return (String) ((Map<String, Object>) Json.parse(loggedIn.body())).get("token");
+    }
+
+    private String randomCart(ThreadLocalRandom random) {
+        int lines = 1 + random.nextInt(maxLines);
+        StringBuilder cart = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < lines; i++) {
+            if (i > 0) {
+                cart.append(',');
+            }
+            cart.append("{\"productId\":").append(randomProduct(random)).append(",\"quantity\":1}");
+        }
+        return cart.append("]}").toString();
+    }
+
+    private int randomProduct(ThreadLocalRandom random) {
+        return productIds.get(random.nextInt(productIds.size()));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json");
+    }
+
+    private HttpResponse<String> timed(Operation operation, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        HttpResponse<String> response = send(operation.name(), request);
+        latency(operation).recordSince(start);
+        return response;
+    }
+
+    // Trimite cererea si numara statusul raspunsului; returneaza null la eroare de conexiune
+    private HttpResponse<String> send(String name, HttpRequest.Builder request) {
+        try {
+            HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            statusCounts.computeIfAbsent(response.statusCode(), s -> new LongAdder()).increment();
+            return response;
+        } catch (IOException e) {
+            statusCounts.computeIfAbsent(IO_ERROR, s -> new LongAdder()).increment();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Load test interrupted during " + name + ".", e);
+        }
+    }
+
+    private LatencyHistogram latency(Operation operation) {
+        return metrics.histogram("load_test_request_seconds", "Client-side request latency.", "operation", operation.name().toLowerCase());
+    }
+
+    // Dupa incalzire, masuratorile incep de la zero
+    private void reset() {
+        metrics = new MetricsRegistry();
+        statusCounts.clear();
+    }
+
+    private void printReport(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long total = 0;
+        System.out.printf("%-10s %10s %10s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = latency(operation);
+            long count = histogram.getCount();
+            if (count == 0) {
+                continue;
+            }
+            total += count;
+            long[] values = histogram.valuesAtQuantiles(QUANTILES);
+            System.out.printf("%-10s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.name().toLowerCase(), count, count / seconds, histogram.getMeanMillis(),
+                    values[0] / 1e6, values[1] / 1e6, values[2] / 1e6, values[3] / 1e6, histogram.getMaxMillis());
+        }
+        System.out.printf("TOTAL: %d requests in %.1f s = %.1f req/s%n", total, seconds, total / seconds);
+        Map<Integer, Long> statuses = new TreeMap<>();
+        statusCounts.forEach((status, count) -> statuses.put(status, count.sum()));
+        StringBuilder line = new StringBuilder("STATUS:");
+        statuses.forEach((status, count) -> line.append(' ').append(status == IO_ERROR ? "io_error" : status.toString()).append('=').append(count));
+        System.out.println(line);
+    }
+}
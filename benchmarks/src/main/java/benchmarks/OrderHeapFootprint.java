@@ -0,0 +1,42 @@
+package benchmarks;
+
+import repository.RepositoryOrder;
+import repository.RepositoryProduct;
+
+import java.nio.file.Path;
+
+/**
+ * Masoara memoria ocupata de comenzile incarcate (heap dupa GC, inainte si dupa incarcare).
+ * Nu este un benchmark JMH: ruleaza cu
+ * {@code java -cp benchmarks/target/benchmarks.jar benchmarks.OrderHeapFootprint [scale]}.
+ */
+public final class OrderHeapFootprint {
+
+    private OrderHeapFootprint() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int scale = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dataDirectory = Dataset.workingCopy(scale);
+        try {
+            RepositoryProduct productRepository = new RepositoryProduct();
+            long before = usedHeap();
+            RepositoryOrder orderRepository = new RepositoryOrder(productRepository);
+            long after = usedHeap();
+            long bytes = after - before;
+            System.out.printf("%d orders: %.1f MB retained, %d bytes/order%n",
+                    orderRepository.count(), bytes / (1024.0 * 1024.0), bytes / Math.max(1, orderRepository.count()));
+        } finally {
+            Dataset.delete(dataDirectory);
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
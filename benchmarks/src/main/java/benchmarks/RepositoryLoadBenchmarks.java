@@ -0,0 +1,84 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import repository.DataDirectory;
+import repository.ProductBinaryFile;
+import repository.RepositoryClient;
+import repository.RepositoryOrder;
+import repository.RepositoryProduct;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timpul de incarcare (loadAllData, apelat din constructor) al fiecarui Repository:
+ * produse din products.txt si din products.bin, clienti, comenzi (incarcare completa, paralela)
+ * si comenzi in modul lenes (doar antetul orders.meta).
+ * Pentru numarul de nuclee folosit la incarcarea paralela: -jvmArgs -XX:ActiveProcessorCount=N.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RepositoryLoadBenchmarks {
+
+    @Param({"10000"})
+    public int scale;
+
+    private Path dataDirectory;
+    private RepositoryProduct productRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataDirectory = Dataset.workingCopy(scale);
+        ProductBinaryFile.convertFromText(Paths.get(DataDirectory.file("products.txt")), Paths.get(DataDirectory.file("products.bin")));
+        productRepository = new RepositoryProduct();
+        // Antetul pentru incarcarea lenesa se scrie la prima salvare a unui Repository incarcat complet
+        new RepositoryOrder(productRepository).saveAllData();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Dataset.delete(dataDirectory);
+    }
+
+    @Benchmark
+    public RepositoryProduct loadProductsText() {
+        return new RepositoryProduct(false);
+    }
+
+    @Benchmark
+    public RepositoryProduct loadProductsBinary() {
+        return new RepositoryProduct(true);
+    }
+
+    @Benchmark
+    public RepositoryClient loadClients() {
+        return new RepositoryClient();
+    }
+
+    @Benchmark
+    public RepositoryOrder loadOrders() {
+        return new RepositoryOrder(productRepository);
+    }
+
+    @Benchmark
+    public RepositoryOrder loadOrdersLazy() {
+        return new RepositoryOrder(productRepository, true);
+    }
+}
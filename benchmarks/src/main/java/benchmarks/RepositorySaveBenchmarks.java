@@ -0,0 +1,103 @@
+package benchmarks;
+
+import model.Client;
+import model.Order;
+import model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import repository.RepositoryClient;
+import repository.RepositoryOrder;
+import repository.RepositoryProduct;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costul persistentei pentru fiecare Repository, dupa o singura modificare:
+ * saveAllData (sincronizarea jurnalului, la inchiderea aplicatiei) si checkpoint
+ * (rescrierea completa a snapshot-ului, ca la compactare sau la checkpoint-ul periodic).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RepositorySaveBenchmarks {
+
+    @Param({"10000"})
+    public int scale;
+
+    private Path dataDirectory;
+    private RepositoryProduct productRepository;
+    private RepositoryClient clientRepository;
+    private RepositoryOrder orderRepository;
+    private Product product;
+    private Client client;
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataDirectory = Dataset.workingCopy(scale);
+        productRepository = new RepositoryProduct();
+        clientRepository = new RepositoryClient();
+        orderRepository = new RepositoryOrder(productRepository);
+        product = productRepository.findById(1);
+        client = clientRepository.findById(1);
+        order = orderRepository.findById(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Dataset.delete(dataDirectory);
+    }
+
+    // Fiecare masuratoare porneste de la o singura modificare nepersistata in fiecare Repository
+    @Setup(Level.Invocation)
+    public void modify() {
+        productRepository.save(product);
+        clientRepository.save(client);
+        orderRepository.save(order);
+    }
+
+    @Benchmark
+    public void saveAllDataProducts() {
+        productRepository.saveAllData();
+    }
+
+    @Benchmark
+    public void saveAllDataClients() {
+        clientRepository.saveAllData();
+    }
+
+    @Benchmark
+    public void saveAllDataOrders() {
+        orderRepository.saveAllData();
+    }
+
+    @Benchmark
+    public long checkpointProducts() {
+        return productRepository.checkpoint();
+    }
+
+    @Benchmark
+    public long checkpointClients() {
+        return clientRepository.checkpoint();
+    }
+
+    @Benchmark
+    public long checkpointOrders() {
+        return orderRepository.checkpoint();
+    }
+}
@@ -0,0 +1,143 @@
+package benchmarks;
+
+import model.Client;
+import model.Order;
+import model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import repository.RepositoryClient;
+import repository.RepositoryOrder;
+import repository.RepositoryProduct;
+import service.BatchResult;
+import service.InvalidDataException;
+import service.OrderRequest;
+import service.ServiceClient;
+import service.ServiceOrder;
+import service.ServiceProduct;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark-uri pentru operatiile de business din service-uri, pe un set de date generat.
+ * Scara (numarul de comenzi existente) se alege cu -p scale=10000,1000000,10000000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmarks {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"10000"})
+    public int scale;
+
+    private Path dataDirectory;
+    private ServiceProduct serviceProduct;
+    private ServiceClient serviceClient;
+    private ServiceOrder serviceOrder;
+    private Product[] products;
+    private int clientCount;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataDirectory = Dataset.workingCopy(scale);
+        RepositoryProduct productRepository = new RepositoryProduct();
+        RepositoryOrder orderRepository = new RepositoryOrder(productRepository);
+        serviceProduct = new ServiceProduct(productRepository);
+        serviceClient = new ServiceClient(new RepositoryClient());
+        serviceOrder = new ServiceOrder(orderRepository, serviceProduct);
+        ServiceOrder.setInitialId(orderRepository.findMaxId());
+
+        products = serviceProduct.getCatalog().getProducts().toArray(new Product[0]);
+        clientCount = Dataset.clientCount(scale);
+        // Agregatul de vanzari se construieste la primul raport, nu in masuratori
+        serviceOrder.getUnitsSoldPerProduct();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Dataset.delete(dataDirectory);
+    }
+
+    /**
+     * Plasarea unei comenzi cu 1-3 produse (rezervare de stoc, salvare in jurnal cu fsync, agregat de vanzari).
+     */
+    @Benchmark
+    public Order placeOrder() throws InvalidDataException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<Product, Integer> cart = new HashMap<>();
+        int lines = 1 + random.nextInt(3);
+        for (int i = 0; i < lines; i++) {
+            cart.merge(products[random.nextInt(products.length)], 1 + random.nextInt(3), Integer::sum);
+        }
+        return serviceOrder.placeOrder(1 + random.nextInt(clientCount), cart);
+    }
+
+    /**
+     * Plasarea unui lot de comenzi cu 1-3 produse (o rezervare de stoc, un interval de ID-uri si o sincronizare a jurnalului per lot).
+     * Scorul este in comenzi pe secunda, comparabil direct cu placeOrder.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchResult placeOrders() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<OrderRequest> requests = new ArrayList<>(BATCH_SIZE);
+        for (int n = 0; n < BATCH_SIZE; n++) {
+            Map<Integer, Integer> quantities = new HashMap<>();
+            int lines = 1 + random.nextInt(3);
+            for (int i = 0; i < lines; i++) {
+                quantities.merge(products[random.nextInt(products.length)].getId(), 1 + random.nextInt(3), Integer::sum);
+            }
+            requests.add(new OrderRequest(1 + random.nextInt(clientCount), quantities));
+        }
+        return serviceOrder.placeOrders(requests);
+    }
+
+    /**
+     * Autentificarea unui client existent (index pe email).
+     */
+    @Benchmark
+    public Optional<Client> authenticate() {
+        int clientId = 1 + ThreadLocalRandom.current().nextInt(clientCount);
+        return serviceClient.authenticate(Dataset.email(clientId), Dataset.password(clientId));
+    }
+
+    /**
+     * Raportul de unitati vandute per produs (agregat incremental).
+     */
+    @Benchmark
+    public Map<String, Integer> getUnitsSoldPerProduct() {
+        return serviceOrder.getUnitsSoldPerProduct();
+    }
+
+    /**
+     * Valoarea totala a stocului (total mentinut incremental).
+     */
+    @Benchmark
+    public BigDecimal calculateTotalStockValue() {
+        return serviceProduct.calculateTotalStockValue();
+    }
+}
@@ -0,0 +1,99 @@
+package benchmarks;
+
+import model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import repository.RepositoryProduct;
+import service.InvalidDataException;
+import service.ServiceProduct;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Test de stres pentru rezervarea de stoc: 8 fire rezerva concurent cate o unitate din 1-3 produse
+ * dintr-un set mic, cu stoc limitat. Dupa fiecare iteratie se verifica faptul ca nu s-a vandut
+ * mai mult decat stocul initial (stoc ramas + unitati rezervate == stoc initial, pentru fiecare produs);
+ * o incalcare opreste rularea cu IllegalStateException.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class StockReservationStress {
+
+    private static final int PRODUCTS = 5;
+    private static final int INITIAL_STOCK = 2_000;
+
+    private Path dataDirectory;
+    private ServiceProduct serviceProduct;
+    private final AtomicLongArray reserved = new AtomicLongArray(PRODUCTS);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataDirectory = Dataset.workingCopy(10_000);
+        serviceProduct = new ServiceProduct(new RepositoryProduct());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Dataset.delete(dataDirectory);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStock() throws InvalidDataException {
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = serviceProduct.findProductById(i + 1);
+            serviceProduct.adjustStock(product.getId(), INITIAL_STOCK - product.getStockQuantity());
+            reserved.set(i, 0);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void verifyNoOversell() {
+        for (int i = 0; i < PRODUCTS; i++) {
+            long stock = serviceProduct.findProductById(i + 1).getStockQuantity();
+            if (stock < 0 || stock + reserved.get(i) != INITIAL_STOCK) {
+                throw new IllegalStateException("Stock invariant violated for product " + (i + 1)
+                        + ": stock " + stock + ", reserved " + reserved.get(i) + ", initial " + INITIAL_STOCK + ".");
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean reserve() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<Integer, Integer> quantities = new HashMap<>();
+        int lines = 1 + random.nextInt(3);
+        for (int i = 0; i < lines; i++) {
+            quantities.put(1 + random.nextInt(PRODUCTS), 1);
+        }
+        try {
+            serviceProduct.reserveStock(quantities);
+        } catch (InvalidDataException e) {
+            return false;
+        }
+        for (Integer productId : quantities.keySet()) {
+            reserved.incrementAndGet(productId - 1);
+        }
+        return true;
+    }
+}
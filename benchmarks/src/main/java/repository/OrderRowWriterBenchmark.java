@@ -0,0 +1,96 @@
+package repository;
+
+import benchmarks.Dataset;
+import model.Order;
+import model.OrderLines;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comenzi serializate pe secunda la scrierea snapshot-ului orders.txt: OrderRowWriter (bytes, buffer refolosit)
+ * fata de serializarea anterioara prin concatenare de String-uri si BufferedWriter.
+ * Iesirea este un flux nul, deci se masoara doar codificarea. In pachetul repository, pentru acces la OrderRowWriter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderRowWriterBenchmark {
+
+    private static final int ORDERS = 10_000;
+
+    private Path dataDirectory;
+    private List<Order> orders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataDirectory = Dataset.workingCopy(ORDERS);
+        orders = new ArrayList<>(new RepositoryOrder(new RepositoryProduct()).findAll());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Dataset.delete(dataDirectory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void rowWriter() throws IOException {
+        OrderRowWriter writer = new OrderRowWriter(OutputStream.nullOutputStream());
+        for (Order order : orders) {
+            writer.write(order);
+        }
+        writer.flush();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void stringConcatenation() throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8));
+        for (Order order : orders) {
+            writer.write(serialize(order));
+            writer.write(System.lineSeparator());
+        }
+        writer.flush();
+    }
+
+    // Serializarea text folosita inainte de OrderRowWriter
+    private static String serialize(Order order) {
+        OrderLines lines = order.getLines();
+        StringBuilder products = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+            products.append(lines.productIdAt(i)).append(":").append(lines.quantityAt(i)).append("|");
+        }
+        if (products.length() > 0) {
+            products.deleteCharAt(products.length() - 1);
+        }
+        return order.getId() + ";" + order.getClientId() + ";" + products + ";"
+                + order.getOrderDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + ";"
+                + order.getStatus() + ";" + order.getTotalAmount();
+    }
+}
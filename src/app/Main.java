@@ -1,13 +1,21 @@
 package app;
 
+import metrics.MetricsRegistry;
+import metrics.PrometheusExporter;
 import model.Client;
-import model.Order;
 import model.Product;
 import repository.*;
 import service.*;
 import ui.StoreGUI;
+import web.StoreHttpServer;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.swing.SwingUtilities;
 
 /**
@@ -19,18 +27,88 @@ public class Main {
 
     /**
      * Metoda ajutatoare generica pentru a gasi cel mai mare ID existent in colectia de entitati.
-     * Este folosita pentru a seta punctul de start al generatorului de ID-uri (AtomicInteger).
+     * Este folosita pentru a initializa o secventa de ID-uri al carei fisier lipseste.
      * * @param <T> Tipul entitatii (Product, Client, Order).
-     * @param entities Lista de entitati incarcate din fisier.
+     * @param repository Repository-ul ale carui entitati sunt parcurse (fara copiere).
      * @param idExtractor Functie care extrage ID-ul din entitate (ex: Product::getId).
-     * @return ID-ul maxim gasit sau 0 daca lista este goala.
+     * @return ID-ul maxim gasit sau 0 daca Repository-ul este gol.
      */
-    private static <T> int findMaxId(List<T> entities, java.util.function.ToIntFunction<T> idExtractor) {
-        return entities.stream()
+    private static <T> int findMaxId(IRepository<T, ?> repository, java.util.function.ToIntFunction<T> idExtractor) {
+        return repository.stream()
                 .mapToInt(idExtractor)
                 .max().orElse(0);
     }
 
+    /**
+     * Expune metricile Checkpointer-ului in registrul de metrici.
+     * @param checkpointer Checkpointer-ul aplicatiei.
+     */
+    private static void registerCheckpointerMetrics(Checkpointer checkpointer) {
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        metrics.gauge("store_checkpoints", "Checkpoints that wrote data.", checkpointer::getCheckpointCount);
+        metrics.gauge("store_checkpoint_failures", "Failed repository checkpoints.", checkpointer::getFailureCount);
+        metrics.gauge("store_checkpoint_written_bytes", "Total bytes written by checkpoints.", checkpointer::getTotalBytesWritten);
+        metrics.gauge("store_checkpoint_last_bytes", "Bytes written by the last checkpoint.", checkpointer::getLastBytesWritten);
+        metrics.gauge("store_checkpoint_last_duration_seconds", "Duration of the last checkpoint.",
+                () -> checkpointer.getLastDurationMillis() / 1000.0);
+        metrics.gauge("store_checkpoint_max_duration_seconds", "Longest checkpoint duration.",
+                () -> checkpointer.getMaxDurationMillis() / 1000.0);
+    }
+
+    /**
+     * Porneste exporturile de metrici configurate prin proprietati de sistem.
+     * O eroare la export este raportata si nu opreste aplicatia.
+     */
+    private static void startMetricsExport() {
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        if (!"false".equalsIgnoreCase(System.getProperty("store.metrics.jmx"))) {
+            metrics.registerMBeans(ManagementFactory.getPlatformMBeanServer());
+        }
+        String file = System.getProperty("store.metrics.file");
+        Integer port = Integer.getInteger("store.metrics.port");
+        if (file == null && port == null) {
+            return;
+        }
+        PrometheusExporter exporter = new PrometheusExporter(metrics);
+        if (file != null) {
+            exporter.startFile(Paths.get(file), TimeUnit.SECONDS.toMillis(Long.getLong("store.metrics.intervalSeconds", 15)));
+        }
+        if (port != null) {
+            try {
+                exporter.startHttp(port);
+                System.out.println("INFO: Metrics available at http://127.0.0.1:" + exporter.getHttpPort() + "/metrics");
+            } catch (IOException e) {
+                System.err.println("METRICS ERROR: Cannot listen on port " + port + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Porneste front-end-ul HTTP/JSON, daca portul este configurat prin proprietati de sistem.
+     * @param productService Service-ul de produse.
+     * @param clientService Service-ul de clienti.
+     * @param orderService Service-ul de comenzi.
+     * @return Serverul pornit sau null daca nu este configurat ori portul nu poate fi deschis.
+     */
+    private static StoreHttpServer startHttpServer(ServiceProduct productService, ServiceClient clientService, ServiceOrder orderService) {
+        Integer port = Integer.getInteger("store.http.port");
+        if (port == null) {
+            return null;
+        }
+        String host = System.getProperty("store.http.host", "127.0.0.1");
+        StoreHttpServer server = new StoreHttpServer(productService, clientService, orderService,
+                TimeUnit.MINUTES.toMillis(Long.getLong("store.http.sessionIdleMinutes", 30)),
+                Integer.getInteger("store.http.maxSessionsPerClient", 32));
+        try {
+            server.start(host, port);
+            System.out.println("INFO: HTTP front end available at http://" + host + ":" + server.getPort() + "/");
+            return server;
+        } catch (IOException e) {
+            System.err.println("HTTP ERROR: Cannot listen on " + host + ":" + port + ": " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Metoda principala de executie a aplicatiei.
      * * @param args Argumente din linia de comanda (neutilizate).
@@ -40,24 +118,75 @@ public class Main {
 
         System.out.println("--- Online Store Application Starting GUI ---");
 
+        // Serverele HTTP din JDK (front-end-ul si exportul de metrici) scriu antetele si corpul separat: fara
+        // TCP_NODELAY, pe o conexiune refolosita, Nagle si ACK-ul intarziat al clientului adauga ~40 ms fiecarui
+        // raspuns. Proprietatea este globala si se citeste la primul server creat, deci se seteaza aici, inaintea lor.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
         // 1. INITIALIZAREA REPOSITORIES SI SERVICE-URILOR
-        IRepository<Product, Integer> productRepo = new RepositoryProduct();
-        IRepository<Client, Integer> clientRepo = new RepositoryClient();
-        IRepository<Order, Integer> orderRepo = new RepositoryOrder();
+        // -Dstore.products.format=binary: snapshot-ul catalogului in format binar (data/products.bin)
+        IRepository<Product, Integer> productRepo = new RepositoryProduct("binary".equalsIgnoreCase(System.getProperty("store.products.format")));
+        IClientRepository clientRepo = new RepositoryClient();
+        // -Dstore.orders.backend=disk: istoricul comenzilor pe disc (arbore B+), pentru volume mai mari decat heap-ul;
+        // -Dstore.orders.cachePages=N: numarul de pagini de index de 4 KB tinute in memorie
+        // -Dstore.orders.lazy=true: comenzile din orders.txt se incarca la primul acces, nu la pornire
+        IOrderRepository orderRepo = "disk".equalsIgnoreCase(System.getProperty("store.orders.backend"))
+                ? new RepositoryOrderDisk(productRepo, Integer.getInteger("store.orders.cachePages", 4096))
+                : new RepositoryOrder(productRepo, Boolean.getBoolean("store.orders.lazy"));
 
         ServiceProduct productService = new ServiceProduct(productRepo);
         ServiceClient clientService = new ServiceClient(clientRepo);
         ServiceOrder orderService = new ServiceOrder(orderRepo, productService);
 
         // 2. GESTIUNEA ID-urilor la pornire
+        // Secvente persistente, rezervate in blocuri (-Dstore.ids.blockSize); ID-ul maxim se cauta
+        // in Repository doar daca fisierul de secventa lipseste (prima pornire)
+        int idBlockSize = Integer.getInteger("store.ids.blockSize", 1000);
+        ServiceProduct.setIdSequence(new IdSequence(DataDirectory.file("products.seq"), idBlockSize, () -> findMaxId(productRepo, Product::getId)));
+        ServiceClient.setIdSequence(new IdSequence(DataDirectory.file("clients.seq"), idBlockSize, () -> findMaxId(clientRepo, Client::getId)));
+        ServiceOrder.setIdSequence(new IdSequence(DataDirectory.file("orders.seq"), idBlockSize, orderRepo::findMaxId));
+
+        // 3. CHECKPOINT PERIODIC (-Dstore.checkpoint.intervalSeconds, 0 = dezactivat)
+        // Snapshot-urile Repository-urilor modificate sunt rescrise in fundal, fara a bloca scrierile
+        long checkpointSeconds = Long.getLong("store.checkpoint.intervalSeconds", 60);
+        if (checkpointSeconds > 0) {
+            List<Checkpointable> checkpointables = Stream.of(productRepo, clientRepo, orderRepo)
+                    .filter(Checkpointable.class::isInstance)
+                    .map(Checkpointable.class::cast)
+                    .collect(Collectors.toList());
+            Checkpointer checkpointer = new Checkpointer(checkpointables, TimeUnit.SECONDS.toMillis(checkpointSeconds));
+            registerCheckpointerMetrics(checkpointer);
+        }
 
-        ServiceProduct.setInitialId(findMaxId(productService.findAllProducts(), Product::getId));
-        ServiceClient.setInitialId(findMaxId(clientService.findAllClients(), Client::getId));
-        ServiceOrder.setInitialId(findMaxId(orderService.findAllOrders(), Order::getId));
+        // 4. METRICI (latente si contoare pentru placeOrder, stoc, autentificare, incarcare/salvare)
+        // -Dstore.metrics.jmx=false: fara MBean-uri JMX; -Dstore.metrics.file=cale: export Prometheus periodic in fisier
+        // (-Dstore.metrics.intervalSeconds); -Dstore.metrics.port=N: export Prometheus pe http://127.0.0.1:N/metrics
+        startMetricsExport();
 
         System.out.println("Initialization complete. Data loaded and IDs set.");
 
-        // 3. PORNIREA INTERFEȚEI GRAFICE (Cerința 7)
+        // 5. FRONT-END HTTP/JSON (un fir virtual per cerere pe Java 21+)
+        // -Dstore.http.port=N: porneste serverul (0 = port ales de sistem); -Dstore.http.host: adresa (implicit 127.0.0.1)
+        // -Dstore.http.sessionIdleMinutes: expirarea tokenurilor inactive; -Dstore.http.maxSessionsPerClient: sesiuni per client
+        StoreHttpServer httpServer = startHttpServer(productService, clientService, orderService);
+
+        // -Dstore.gui=false: fara interfata grafica (server); datele se salveaza la oprirea procesului
+        if ("false".equalsIgnoreCase(System.getProperty("store.gui"))) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (httpServer != null) {
+                    httpServer.close();
+                }
+                productService.shutdownApplicationAndSaveData();
+                clientService.shutdownApplicationAndSaveData();
+                orderService.shutdownApplicationAndSaveData();
+                System.out.println("Server stopped. Data saved successfully.");
+            }, "store-shutdown"));
+            return;
+        }
+
+        // 6. PORNIREA INTERFEȚEI GRAFICE (Cerința 7)
         SwingUtilities.invokeLater(() -> {
             new StoreGUI(productService, clientService, orderService);
         });
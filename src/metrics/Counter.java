@@ -0,0 +1,35 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contor monoton crescator, fara lock-uri: incrementarile concurente ajung pe celule diferite (LongAdder),
+ * iar suma este calculata doar la citire (export). Se obtine din {@link MetricsRegistry#counter}.
+ */
+public final class Counter implements CounterMBean {
+
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    /**
+     * Adauga 1 la contor.
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Adauga o valoare la contor.
+     * @param delta Valoarea adaugata (nenegativa).
+     */
+    public void add(long delta) {
+        count.add(delta);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,12 @@
+package metrics;
+
+/**
+ * Interfata JMX (Standard MBean) pentru {@link Counter}.
+ */
+public interface CounterMBean {
+
+    /** * Returneaza valoarea curenta a contorului.
+     * @return Numarul de evenimente inregistrate.
+     */
+    long getCount();
+}
@@ -0,0 +1,21 @@
+package metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Valoare citita la cerere dintr-o alta componenta (ex: metricile Checkpointer-ului).
+ * Se obtine din {@link MetricsRegistry#gauge}.
+ */
+public final class Gauge implements GaugeMBean {
+
+    private final DoubleSupplier supplier;
+
+    Gauge(DoubleSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    @Override
+    public double getValue() {
+        return supplier.getAsDouble();
+    }
+}
@@ -0,0 +1,12 @@
+package metrics;
+
+/**
+ * Interfata JMX (Standard MBean) pentru {@link Gauge}.
+ */
+public interface GaugeMBean {
+
+    /** * Returneaza valoarea curenta.
+     * @return Valoarea citita la momentul apelului.
+     */
+    double getValue();
+}
@@ -0,0 +1,164 @@
+package metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de durate (in nanosecunde) cu bucket-uri log-liniare, in stilul HdrHistogram:
+ * fiecare putere a lui 2 este impartita in 32 de sub-bucket-uri, deci eroarea relativa a unei
+ * percentile este sub 3.2%, pe tot domeniul (de la 1 ns la ore), cu memorie fixa (~15 KB).
+ * Inregistrarea nu foloseste lock-uri: un increment atomic pe bucket, plus suma si maximul.
+ * Se obtine din {@link MetricsRegistry#histogram}.
+ */
+public final class LatencyHistogram implements LatencyHistogramMBean {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Valorile sub 32 au bucket propriu; apoi 32 de bucket-uri pentru fiecare exponent 5..62
+    private static final int BUCKET_COUNT = (Long.SIZE - 1 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    LatencyHistogram() {
+    }
+
+    /**
+     * Inregistreaza o durata.
+     * @param nanos Durata, in nanosecunde (valorile negative sunt tratate ca 0).
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sumNanos.add(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Inregistreaza durata scursa de la un moment dat pana acum.
+     * @param startNanos Valoarea System.nanoTime() de la inceputul operatiei.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returneaza suma duratelor inregistrate.
+     * @return Suma, in nanosecunde.
+     */
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * Returneaza durata maxima inregistrata.
+     * @return Maximul, in nanosecunde.
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Calculeaza o percentila dintr-o copie a bucket-urilor (inregistrarile concurente pot lipsi din ea).
+     * @param quantile Cuantila, intre 0 si 1 (ex: 0.99).
+     * @return Limita superioara a bucket-ului care contine percentila, in nanosecunde (0 fara inregistrari).
+     */
+    public long valueAtQuantile(double quantile) {
+        return valuesAtQuantiles(quantile)[0];
+    }
+
+    /**
+     * Calculeaza mai multe percentile din aceeasi copie a bucket-urilor.
+     * @param quantiles Cuantilele, intre 0 si 1, in ordine crescatoare.
+     * @return Valorile, in nanosecunde, in ordinea cuantilelor.
+     */
+    public long[] valuesAtQuantiles(double... quantiles) {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long[] values = new long[quantiles.length];
+        if (total == 0) {
+            return values;
+        }
+        long max = maxNanos.get();
+        int bucket = 0;
+        long seen = counts[0];
+        for (int q = 0; q < quantiles.length; q++) {
+            long rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+            while (seen < rank && bucket < BUCKET_COUNT - 1) {
+                seen += counts[++bucket];
+            }
+            // Limita superioara a bucket-ului, fara a depasi maximul observat
+            values[q] = Math.min(bucketUpperBound(bucket), max);
+        }
+        return values;
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : sumNanos.sum() / (double) n / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxNanos.get() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return valueAtQuantile(0.5) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP90Millis() {
+        return valueAtQuantile(0.9) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return valueAtQuantile(0.99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP999Millis() {
+        return valueAtQuantile(0.999) / NANOS_PER_MILLI;
+    }
+
+    // Bucket-ul unei valori: valorile mici direct, restul dupa exponent si primii 5 biti de dupa bitul cel mai semnificativ
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // Cea mai mare valoare care cade in bucket-ul dat
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,42 @@
+package metrics;
+
+/**
+ * Interfata JMX (Standard MBean) pentru {@link LatencyHistogram}. Duratele sunt in milisecunde.
+ */
+public interface LatencyHistogramMBean {
+
+    /** * Returneaza numarul de valori inregistrate.
+     * @return Numarul de operatii masurate.
+     */
+    long getCount();
+
+    /** * Returneaza media duratelor.
+     * @return Media, in milisecunde.
+     */
+    double getMeanMillis();
+
+    /** * Returneaza durata maxima inregistrata.
+     * @return Maximul, in milisecunde.
+     */
+    double getMaxMillis();
+
+    /** * Returneaza mediana duratelor.
+     * @return Percentila 50, in milisecunde.
+     */
+    double getP50Millis();
+
+    /** * Returneaza percentila 90 a duratelor.
+     * @return Percentila 90, in milisecunde.
+     */
+    double getP90Millis();
+
+    /** * Returneaza percentila 99 a duratelor.
+     * @return Percentila 99, in milisecunde.
+     */
+    double getP99Millis();
+
+    /** * Returneaza percentila 99.9 a duratelor.
+     * @return Percentila 99.9, in milisecunde.
+     */
+    double getP999Millis();
+}
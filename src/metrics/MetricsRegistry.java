@@ -0,0 +1,252 @@
+package metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Registrul metricilor aplicatiei: contoare, valori citite la cerere (gauge) si histograme de durate,
+ * grupate pe nume (familie) si etichete. Componentele isi obtin metricile o singura data (de obicei in
+ * campuri statice) si le actualizeaza fara lock-uri; registrul este consultat doar la export,
+ * ca text in format Prometheus sau ca MBean-uri JMX.
+ */
+public final class MetricsRegistry {
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+    private static final String JMX_DOMAIN = "online-store";
+    private static final double[] EXPORTED_QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private enum Type {
+        COUNTER("counter", "Counter"),
+        GAUGE("gauge", "Gauge"),
+        HISTOGRAM("summary", "Histogram");
+
+        private final String prometheusType;
+        private final String jmxType;
+
+        Type(String prometheusType, String jmxType) {
+            this.prometheusType = prometheusType;
+            this.jmxType = jmxType;
+        }
+    }
+
+    // Toate metricile cu acelasi nume: acelasi tip si text de ajutor, etichete diferite
+    private static final class Family {
+        private final Type type;
+        private final String help;
+        // Cheia este textul etichetelor ({nume="valoare",...}), folosit direct la export
+        private final Map<String, Registered> metrics = new ConcurrentHashMap<>();
+
+        private Family(Type type, String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+
+    private static final class Registered {
+        private final Object metric;
+        private final String[] labels;
+
+        private Registered(Object metric, String[] labels) {
+            this.metric = metric;
+            this.labels = labels;
+        }
+    }
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+    private volatile MBeanServer mbeanServer;
+
+    /**
+     * Returneaza registrul implicit, folosit de Service-uri si Repository-uri.
+     * @return Registrul global.
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returneaza (creand la nevoie) un contor.
+     * @param name Numele metricii (conventie Prometheus: se termina in _total).
+     * @param help Descrierea metricii.
+     * @param labels Perechi nume/valoare de etichete (ex: "repository", "orders").
+     * @return Contorul.
+     * @throws IllegalArgumentException Daca numele este deja folosit de o metrica de alt tip.
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) register(Type.COUNTER, name, help, labels, Counter::new);
+    }
+
+    /**
+     * Returneaza (creand la nevoie) o valoare citita la fiecare export.
+     * Daca metrica exista deja, functia data este ignorata.
+     * @param name Numele metricii.
+     * @param help Descrierea metricii.
+     * @param supplier Functia care citeste valoarea curenta.
+     * @param labels Perechi nume/valoare de etichete.
+     * @return Metrica.
+     * @throws IllegalArgumentException Daca numele este deja folosit de o metrica de alt tip.
+     */
+    public Gauge gauge(String name, String help, DoubleSupplier supplier, String... labels) {
+        return (Gauge) register(Type.GAUGE, name, help, labels, () -> new Gauge(supplier));
+    }
+
+    /**
+     * Returneaza (creand la nevoie) o histograma de durate.
+     * @param name Numele metricii (conventie Prometheus: se termina in _seconds).
+     * @param help Descrierea metricii.
+     * @param labels Perechi nume/valoare de etichete.
+     * @return Histograma.
+     * @throws IllegalArgumentException Daca numele este deja folosit de o metrica de alt tip.
+     */
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return (LatencyHistogram) register(Type.HISTOGRAM, name, help, labels, LatencyHistogram::new);
+    }
+
+    private Object register(Type type, String name, String help, String[] labels, Supplier<Object> factory) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs: " + name);
+        }
+        Family family = families.computeIfAbsent(name, n -> new Family(type, help));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type.prometheusType + ".");
+        }
+        return family.metrics.computeIfAbsent(labelText(labels), key -> {
+            Registered registered = new Registered(factory.get(), labels.clone());
+            MBeanServer server = mbeanServer;
+            if (server != null) {
+                registerMBean(server, type, name, registered);
+            }
+            return registered;
+        }).metric;
+    }
+
+    /**
+     * Inregistreaza toate metricile ca MBean-uri (domeniul "online-store"), inclusiv pe cele create ulterior.
+     * @param server Serverul JMX (de obicei ManagementFactory.getPlatformMBeanServer()).
+     */
+    public synchronized void registerMBeans(MBeanServer server) {
+        if (mbeanServer != null) {
+            return;
+        }
+        mbeanServer = server;
+        families.forEach((name, family) -> family.metrics.values().forEach(registered ->
+                registerMBean(server, family.type, name, registered)));
+    }
+
+    private static void registerMBean(MBeanServer server, Type type, String name, Registered registered) {
+        String[] labels = registered.labels;
+        StringBuilder objectName = new StringBuilder(JMX_DOMAIN).append(":type=").append(type.jmxType).append(",name=").append(name);
+        for (int i = 0; i < labels.length; i += 2) {
+            objectName.append(',').append(labels[i]).append('=').append(ObjectName.quote(labels[i + 1]));
+        }
+        try {
+            server.registerMBean(registered.metric, new ObjectName(objectName.toString()));
+        } catch (InstanceAlreadyExistsException e) {
+            // Metrica este deja vizibila (ex: inregistrare repetata dupa o reincarcare)
+        } catch (JMException e) {
+            System.err.println("METRICS ERROR: Cannot register MBean " + objectName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Scrie toate metricile in formatul text Prometheus (versiunea 0.0.4).
+     * Histogramele sunt exportate ca summary (cuantile, suma si numar, in secunde), plus maximul ca gauge separat.
+     * @param out Destinatia.
+     * @throws IOException Daca scrierea esueaza.
+     */
+    public void writePrometheus(Writer out) throws IOException {
+        for (Map.Entry<String, Family> entry : new TreeMap<>(families).entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.write("# HELP " + name + " " + escapeHelp(family.help) + "\n");
+            out.write("# TYPE " + name + " " + family.type.prometheusType + "\n");
+            Map<String, Registered> metrics = new TreeMap<>(family.metrics);
+            for (Map.Entry<String, Registered> metric : metrics.entrySet()) {
+                String labels = metric.getKey();
+                switch (family.type) {
+                    case COUNTER:
+                        sample(out, name, labels, ((Counter) metric.getValue().metric).getCount());
+                        break;
+                    case GAUGE:
+                        sample(out, name, labels, ((Gauge) metric.getValue().metric).getValue());
+                        break;
+                    default:
+                        LatencyHistogram histogram = (LatencyHistogram) metric.getValue().metric;
+                        long[] values = histogram.valuesAtQuantiles(EXPORTED_QUANTILES);
+                        for (int i = 0; i < values.length; i++) {
+                            String quantile = "quantile=\"" + EXPORTED_QUANTILES[i] + "\"";
+                            sample(out, name, labels.isEmpty() ? "{" + quantile + "}"
+                                    : labels.substring(0, labels.length() - 1) + "," + quantile + "}", values[i] / NANOS_PER_SECOND);
+                        }
+                        sample(out, name + "_sum", labels, histogram.getSumNanos() / NANOS_PER_SECOND);
+                        sample(out, name + "_count", labels, histogram.getCount());
+                        break;
+                }
+            }
+            if (family.type == Type.HISTOGRAM) {
+                out.write("# HELP " + name + "_max Maximum of " + name + ".\n");
+                out.write("# TYPE " + name + "_max gauge\n");
+                for (Map.Entry<String, Registered> metric : metrics.entrySet()) {
+                    sample(out, name + "_max", metric.getKey(), ((LatencyHistogram) metric.getValue().metric).getMaxNanos() / NANOS_PER_SECOND);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returneaza toate metricile in formatul text Prometheus.
+     * @return Textul exportului.
+     */
+    public String toPrometheusText() {
+        StringWriter out = new StringWriter();
+        try {
+            writePrometheus(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private static void sample(Writer out, String name, String labels, long value) throws IOException {
+        out.write(name + labels + " " + value + "\n");
+    }
+
+    private static void sample(Writer out, String name, String labels, double value) throws IOException {
+        String text = Double.isNaN(value) ? "NaN"
+                : Double.isInfinite(value) ? (value > 0 ? "+Inf" : "-Inf")
+                : Double.toString(value);
+        out.write(name + labels + " " + text + "\n");
+    }
+
+    // Etichetele in forma {nume="valoare",...}, cu valorile escapate; folosita si drept cheie in familie
+    private static String labelText(String[] labels) {
+        if (labels.length == 0) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return text.append('}').toString();
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+}
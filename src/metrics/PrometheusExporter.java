@@ -0,0 +1,146 @@
+package metrics;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exporta metricile unui registru in format text Prometheus: periodic intr-un fisier local
+ * (rescris atomic, pentru node_exporter textfile collector sau inspectie manuala) si/sau
+ * la cerere pe un port HTTP local (GET /metrics). Exportul ruleaza pe fire proprii, in afara caii critice.
+ */
+public class PrometheusExporter implements AutoCloseable {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry registry;
+    private ScheduledExecutorService fileScheduler;
+    private HttpServer httpServer;
+    private ExecutorService httpExecutor;
+
+    /**
+     * Constructor.
+     * @param registry Registrul exportat.
+     */
+    public PrometheusExporter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Porneste scrierea periodica a fisierului (prima scriere dupa un interval).
+     * @param file Fisierul de iesire (ex: data/metrics.prom).
+     * @param intervalMillis Intervalul dintre scrieri, in milisecunde.
+     */
+    public synchronized void startFile(Path file, long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Export interval must be strictly positive.");
+        }
+        if (fileScheduler != null) {
+            throw new IllegalStateException("File export is already running.");
+        }
+        fileScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-file-exporter");
+            t.setDaemon(true);
+            return t;
+        });
+        fileScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                writeFile(file);
+            } catch (IOException e) {
+                System.err.println("METRICS ERROR: Cannot write " + file + ": " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Scrie imediat toate metricile in fisier (fisier temporar + redenumire, deci cititorii nu vad un export partial).
+     * @param file Fisierul de iesire.
+     * @throws IOException Daca scrierea esueaza.
+     */
+    public void writeFile(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                registry.writePrometheus(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Porneste serverul HTTP pe interfata locala (loopback), cu un singur fir de raspuns.
+     * @param port Portul (0 = ales de sistem, vezi {@link #getHttpPort()}).
+     * @throws IOException Daca portul nu poate fi deschis.
+     */
+    public synchronized void startHttp(int port) throws IOException {
+        if (httpServer != null) {
+            throw new IllegalStateException("HTTP export is already running.");
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+                byte[] body = registry.toPrometheusText().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        httpExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "metrics-http-exporter");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(httpExecutor);
+        server.start();
+        httpServer = server;
+    }
+
+    /**
+     * Returneaza portul pe care asculta serverul HTTP.
+     * @return Portul sau -1 daca serverul nu este pornit.
+     */
+    public synchronized int getHttpPort() {
+        return httpServer == null ? -1 : httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Opreste exportul in fisier si serverul HTTP.
+     */
+    @Override
+    public synchronized void close() {
+        if (fileScheduler != null) {
+            fileScheduler.shutdown();
+            fileScheduler = null;
+        }
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpExecutor.shutdown();
+            httpServer = null;
+            httpExecutor = null;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package model;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
@@ -16,7 +15,8 @@ public class Order implements Serializable {
     private int clientId;
 
     // Cerinta 3: Colectie de obiecte (Map) pentru a stoca Produsele si Cantitatea.
-    private Map<Product,Integer> products;
+    // Stocare compacta (vectori paraleli), expusa si ca Map<Product, Integer>
+    private OrderLines products;
 
     private LocalDateTime orderDate;
     private OrderStatus status;
@@ -27,7 +27,7 @@ public class Order implements Serializable {
      * Initializeaza colectia de produse, data comenzii la momentul curent si statusul PENDING.
      */
     public Order(){
-        this.products = new HashMap<>();
+        this.products = new OrderLines();
         this.orderDate = LocalDateTime.now();
         this.status = OrderStatus.PENDING;
     }
@@ -36,7 +36,7 @@ public class Order implements Serializable {
      * Constructor cu parametri pentru crearea unei noi comenzi.
      * @param id ID-ul unic al comenzii.
      * @param clientId ID-ul clientului care a plasat comanda.
-     * @param products Colectia de produse si cantitatile comandate.
+     * @param products Colectia de produse si cantitatile comandate (copiata in OrderLines daca este alt tip de Map).
      * @param orderDate Data si ora comenzii.
      * @param status Statusul comenzii (PENDING, SHIPPED, etc.).
      * @param totalAmount Suma totala a comenzii.
@@ -44,7 +44,7 @@ public class Order implements Serializable {
     public Order(int id, int clientId, Map<Product, Integer> products, LocalDateTime orderDate, OrderStatus status, float totalAmount) {
         this.id = id;
         this.clientId = clientId;
-        this.products = products;
+        this.products = toLines(products);
         this.orderDate = orderDate;
         this.status = status;
         this.totalAmount = totalAmount;
@@ -94,12 +94,28 @@ public class Order implements Serializable {
         return products;
     }
 
+    /**
+     * Returneaza liniile comenzii in forma compacta, pentru parcurgeri fara boxing (index, ID produs, cantitate).
+     * @return Liniile comenzii.
+     */
+    public OrderLines getLines() {
+        return products;
+    }
+
     /**
      * Seteaza intregul Map de produse (folosit la deserializare).
      * @param products Noul Map de produse.
      */
     public void setProducts(Map<Product, Integer> products) {
-        this.products = products;
+        this.products = toLines(products);
+    }
+
+    // Foloseste direct un OrderLines primit; orice alt Map este copiat in forma compacta
+    private static OrderLines toLines(Map<Product, Integer> products) {
+        if (products instanceof OrderLines) {
+            return (OrderLines) products;
+        }
+        return products == null ? new OrderLines() : new OrderLines(products);
     }
 
     /**
@@ -0,0 +1,252 @@
+package model;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Liniile unei comenzi, stocate compact in doi vectori paraleli: referinta produsului si cantitatea (int).
+ * O linie costa o referinta si un int, fata de un nod HashMap, un Integer si o referinta in varianta Map clasica.
+ * Clasa este si un Map&lt;Product, Integer&gt; (vedere compatibila cu codul existent), in care
+ * cheile sunt identificate dupa ID-ul produsului. Comenzile au putine linii, deci cautarea este liniara.
+ */
+public final class OrderLines extends AbstractMap<Product, Integer> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Product[] products;
+    private int[] quantities;
+    private int size;
+
+    // Numarul de modificari structurale, pentru detectarea modificarilor in timpul iterarii
+    private transient int modCount;
+
+    /**
+     * Constructor fara parametri. Creeaza o colectie goala.
+     */
+    public OrderLines() {
+        this(4);
+    }
+
+    /**
+     * Constructor cu capacitate initiala (ex: numarul de linii cunoscut la incarcare).
+     * @param capacity Numarul de linii pentru care se rezerva spatiu.
+     */
+    public OrderLines(int capacity) {
+        int initial = Math.max(1, capacity);
+        this.products = new Product[initial];
+        this.quantities = new int[initial];
+    }
+
+    /**
+     * Constructor de copiere dintr-un Map oarecare (ex: cosul de cumparaturi).
+     * @param source Produsele si cantitatile de copiat.
+     */
+    public OrderLines(Map<Product, Integer> source) {
+        this(source.size());
+        for (Map.Entry<Product, Integer> entry : source.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returneaza numarul de linii.
+     * @return Numarul de linii.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returneaza produsul de pe linia data.
+     * @param index Indexul liniei (0 .. size-1).
+     * @return Produsul liniei.
+     */
+    public Product productAt(int index) {
+        checkIndex(index);
+        return products[index];
+    }
+
+    /**
+     * Returneaza ID-ul produsului de pe linia data, fara a crea obiecte.
+     * @param index Indexul liniei (0 .. size-1).
+     * @return ID-ul produsului.
+     */
+    public int productIdAt(int index) {
+        checkIndex(index);
+        return products[index].getId();
+    }
+
+    /**
+     * Returneaza cantitatea de pe linia data, fara boxing.
+     * @param index Indexul liniei (0 .. size-1).
+     * @return Cantitatea.
+     */
+    public int quantityAt(int index) {
+        checkIndex(index);
+        return quantities[index];
+    }
+
+    /**
+     * Adauga o linie sau inlocuieste cantitatea liniei cu acelasi ID de produs.
+     * @param product Produsul (nu poate fi null).
+     * @param quantity Cantitatea (nu poate fi null).
+     * @return Cantitatea anterioara sau null daca linia este noua.
+     */
+    @Override
+    public Integer put(Product product, Integer quantity) {
+        if (product == null || quantity == null) {
+            throw new NullPointerException("Order lines cannot contain null products or quantities.");
+        }
+        int index = indexOf(product.getId());
+        if (index >= 0) {
+            int previous = quantities[index];
+            products[index] = product;
+            quantities[index] = quantity;
+            return previous;
+        }
+        if (size == products.length) {
+            int capacity = size + (size >> 1) + 1;
+            products = Arrays.copyOf(products, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+        }
+        products[size] = product;
+        quantities[size] = quantity;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public Integer get(Object key) {
+        int index = indexOfKey(key);
+        return index >= 0 ? quantities[index] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOfKey(key) >= 0;
+    }
+
+    @Override
+    public Integer remove(Object key) {
+        int index = indexOfKey(key);
+        if (index < 0) {
+            return null;
+        }
+        int previous = quantities[index];
+        removeAt(index);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(products, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<Product, Integer>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<Product, Integer>> iterator() {
+                return new LineIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Cauta linia unui produs dupa ID.
+     * @param productId ID-ul produsului.
+     * @return Indexul liniei sau -1 daca produsul nu este in comanda.
+     */
+    public int indexOf(int productId) {
+        for (int i = 0; i < size; i++) {
+            if (products[i].getId() == productId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOfKey(Object key) {
+        return key instanceof Product ? indexOf(((Product) key).getId()) : -1;
+    }
+
+    private void removeAt(int index) {
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(products, index + 1, products, index, moved);
+            System.arraycopy(quantities, index + 1, quantities, index, moved);
+        }
+        products[--size] = null;
+        modCount++;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Line index " + index + " out of range for " + size + " lines.");
+        }
+    }
+
+    // Iterator peste linii; intrarile scriu cantitatea direct in vectorul de cantitati
+    private class LineIterator implements Iterator<Map.Entry<Product, Integer>> {
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Map.Entry<Product, Integer> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            int index = last;
+            return new AbstractMap.SimpleEntry<>(products[index], quantities[index]) {
+                @Override
+                public Integer setValue(Integer value) {
+                    if (value == null) {
+                        throw new NullPointerException("Order lines cannot contain null quantities.");
+                    }
+                    quantities[index] = value;
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
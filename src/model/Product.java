@@ -13,7 +13,8 @@ public class Product implements Serializable {
     private String name;
     private float price;
     private ProductType productType;
-    private int stockQuantity;
+    // Volatile: stocul este modificat sub lock-ul produsului si citit fara lock (catalog, rapoarte)
+    private volatile int stockQuantity;
     private String description;
 
     /**
@@ -181,11 +182,12 @@ public class Product implements Serializable {
     }
 
     /**
-     * Metoda hashCode suprascrisa. Se bazeaza pe ID pentru a respecta contractul equals/hashCode.
+     * Metoda hashCode suprascrisa. Se bazeaza doar pe ID, la fel ca equals, astfel incat
+     * modificarea stocului sau a pretului nu muta produsul in alt bucket al unui HashMap (ex: cosul).
      * @return Hash code-ul obiectului.
      */
     @Override
     public int hashCode() {
-        return Objects.hash(id, name, price, productType, stockQuantity, description);
+        return Objects.hash(id);
     }
 }
\ No newline at end of file
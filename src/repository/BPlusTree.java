@@ -0,0 +1,364 @@
+package repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Arbore B+ cu chei si valori long, stocat in paginile unui {@link PageFile}.
+ * Frunzele sunt inlantuite (pentru parcurgeri pe intervale); mai multi arbori pot imparti acelasi fisier.
+ * Stergerea elimina cheia din frunza fara reechilibrare: frunzele goale raman in lant si sunt sarite
+ * la parcurgere (istoricul de comenzi creste aproape numai prin adaugare).
+ * Clasa nu este thread-safe: apelantul serializeaza accesul.
+ * <pre>
+ * pagina: tip (int) | numar chei (int) | urmatoarea frunza (int, -1 = niciuna) | rezervat (int)
+ * frunza:  chei long[LEAF_CAPACITY] | valori long[LEAF_CAPACITY]
+ * interna: chei long[INTERNAL_CAPACITY] | copii int[INTERNAL_CAPACITY + 1]
+ * </pre>
+ */
+public class BPlusTree {
+
+    /**
+     * Actiune aplicata fiecarei perechi la parcurgerea unui interval.
+     */
+    public interface EntryVisitor {
+        /**
+         * @param key Cheia.
+         * @param value Valoarea.
+         * @return true pentru a continua parcurgerea, false pentru a o opri.
+         * @throws IOException Daca procesarea intrarii citeste de pe disc si esueaza.
+         */
+        boolean visit(long key, long value) throws IOException;
+    }
+
+    private static final int LEAF = 1;
+    private static final int INTERNAL = 2;
+    private static final int NODE_HEADER = 16;
+    private static final int TYPE_OFFSET = 0;
+    private static final int COUNT_OFFSET = 4;
+    private static final int NEXT_OFFSET = 8;
+    private static final int NO_PAGE = -1;
+
+    static final int LEAF_CAPACITY = (PageFile.PAGE_SIZE - NODE_HEADER) / (2 * Long.BYTES);
+    static final int INTERNAL_CAPACITY = (PageFile.PAGE_SIZE - NODE_HEADER - Integer.BYTES) / (Long.BYTES + Integer.BYTES);
+    private static final int LEAF_VALUES = NODE_HEADER + LEAF_CAPACITY * Long.BYTES;
+    private static final int INTERNAL_CHILDREN = NODE_HEADER + INTERNAL_CAPACITY * Long.BYTES;
+
+    private final PageFile file;
+    private int rootPage;
+
+    private BPlusTree(PageFile file, int rootPage) {
+        this.file = file;
+        this.rootPage = rootPage;
+    }
+
+    /**
+     * Creeaza un arbore nou, gol (o singura frunza radacina).
+     * @param file Fisierul de pagini.
+     * @return Arborele creat.
+     * @throws IOException Daca alocarea paginii esueaza.
+     */
+    public static BPlusTree create(PageFile file) throws IOException {
+        PageFile.Page root = file.allocate();
+        initNode(root.buffer(), LEAF);
+        return new BPlusTree(file, root.id());
+    }
+
+    /**
+     * Deschide un arbore existent.
+     * @param file Fisierul de pagini.
+     * @param rootPage Pagina radacinii (salvata de proprietar in antetul fisierului).
+     * @return Arborele.
+     */
+    public static BPlusTree open(PageFile file, int rootPage) {
+        return new BPlusTree(file, rootPage);
+    }
+
+    /**
+     * Returneaza pagina radacinii; se schimba cand radacina se divide si trebuie persistata de proprietar.
+     * @return Pagina radacinii.
+     */
+    public int rootPage() {
+        return rootPage;
+    }
+
+    /**
+     * Cauta valoarea unei chei.
+     * @param key Cheia.
+     * @param missing Valoarea returnata daca cheia nu exista.
+     * @return Valoarea asociata sau {@code missing}.
+     * @throws IOException Daca citirea unei pagini esueaza.
+     */
+    public long get(long key, long missing) throws IOException {
+        ByteBuffer leaf = file.get(findLeaf(key)).buffer();
+        int count = leaf.getInt(COUNT_OFFSET);
+        int index = search(leaf, count, key);
+        return index >= 0 ? leaf.getLong(LEAF_VALUES + index * Long.BYTES) : missing;
+    }
+
+    /**
+     * Adauga o pereche sau inlocuieste valoarea unei chei existente.
+     * @param key Cheia.
+     * @param value Valoarea.
+     * @return true daca cheia este noua, false daca a fost inlocuita.
+     * @throws IOException Daca citirea sau alocarea unei pagini esueaza.
+     */
+    public boolean put(long key, long value) throws IOException {
+        boolean[] inserted = new boolean[1];
+        long[] split = insert(rootPage, key, value, inserted);
+        if (split != null) {
+            // Radacina s-a divizat: arborele creste cu un nivel
+            PageFile.Page newRoot = file.allocate();
+            ByteBuffer node = newRoot.buffer();
+            initNode(node, INTERNAL);
+            node.putInt(COUNT_OFFSET, 1);
+            node.putLong(NODE_HEADER, split[0]);
+            node.putInt(INTERNAL_CHILDREN, rootPage);
+            node.putInt(INTERNAL_CHILDREN + Integer.BYTES, (int) split[1]);
+            rootPage = newRoot.id();
+        }
+        return inserted[0];
+    }
+
+    /**
+     * Sterge o cheie.
+     * @param key Cheia.
+     * @return true daca cheia exista.
+     * @throws IOException Daca citirea unei pagini esueaza.
+     */
+    public boolean remove(long key) throws IOException {
+        PageFile.Page page = file.get(findLeaf(key));
+        ByteBuffer leaf = page.buffer();
+        int count = leaf.getInt(COUNT_OFFSET);
+        int index = search(leaf, count, key);
+        if (index < 0) {
+            return false;
+        }
+        shiftLeft(leaf, NODE_HEADER, index, count, Long.BYTES);
+        shiftLeft(leaf, LEAF_VALUES, index, count, Long.BYTES);
+        leaf.putInt(COUNT_OFFSET, count - 1);
+        page.markDirty();
+        return true;
+    }
+
+    /**
+     * Parcurge in ordine crescatoare perechile cu cheia in intervalul [from, to].
+     * @param from Cheia minima (inclusiv).
+     * @param to Cheia maxima (inclusiv).
+     * @param visitor Actiunea aplicata fiecarei perechi.
+     * @throws IOException Daca citirea unei pagini esueaza.
+     */
+    public void scan(long from, long to, EntryVisitor visitor) throws IOException {
+        int pageId = findLeaf(from);
+        ByteBuffer leaf = file.get(pageId).buffer();
+        int index = lowerBound(leaf, leaf.getInt(COUNT_OFFSET), from);
+        while (true) {
+            int count = leaf.getInt(COUNT_OFFSET);
+            for (; index < count; index++) {
+                long key = leaf.getLong(NODE_HEADER + index * Long.BYTES);
+                if (key > to) {
+                    return;
+                }
+                if (!visitor.visit(key, leaf.getLong(LEAF_VALUES + index * Long.BYTES))) {
+                    return;
+                }
+            }
+            int next = leaf.getInt(NEXT_OFFSET);
+            if (next == NO_PAGE) {
+                return;
+            }
+            leaf = file.get(next).buffer();
+            index = 0;
+        }
+    }
+
+    // Coboara de la radacina la frunza care ar contine cheia
+    private int findLeaf(long key) throws IOException {
+        int pageId = rootPage;
+        while (true) {
+            ByteBuffer node = file.get(pageId).buffer();
+            if (node.getInt(TYPE_OFFSET) == LEAF) {
+                return pageId;
+            }
+            int child = upperBound(node, node.getInt(COUNT_OFFSET), key);
+            pageId = node.getInt(INTERNAL_CHILDREN + child * Integer.BYTES);
+        }
+    }
+
+    /**
+     * Insereaza recursiv; returneaza null sau {cheia promovata, pagina noua} daca nodul s-a divizat.
+     */
+    private long[] insert(int pageId, long key, long value, boolean[] inserted) throws IOException {
+        PageFile.Page page = file.get(pageId);
+        ByteBuffer node = page.buffer();
+        int count = node.getInt(COUNT_OFFSET);
+
+        if (node.getInt(TYPE_OFFSET) == LEAF) {
+            int index = search(node, count, key);
+            if (index >= 0) {
+                node.putLong(LEAF_VALUES + index * Long.BYTES, value);
+                page.markDirty();
+                return null;
+            }
+            inserted[0] = true;
+            int position = -index - 1;
+            if (count < LEAF_CAPACITY) {
+                insertLeafEntry(node, count, position, key, value);
+                page.markDirty();
+                return null;
+            }
+            return splitLeaf(page, position, key, value);
+        }
+
+        int child = upperBound(node, count, key);
+        long[] split = insert(node.getInt(INTERNAL_CHILDREN + child * Integer.BYTES), key, value, inserted);
+        if (split == null) {
+            return null;
+        }
+        // Pagina ramane in cache pe durata operatiei (PageFile.MIN_CACHE_PAGES), deci 'node' este inca valid
+        if (count < INTERNAL_CAPACITY) {
+            insertInternalEntry(node, count, child, split[0], (int) split[1]);
+            page.markDirty();
+            return null;
+        }
+        return splitInternal(page, child, split[0], (int) split[1]);
+    }
+
+    private long[] splitLeaf(PageFile.Page page, int position, long key, long value) throws IOException {
+        ByteBuffer node = page.buffer();
+        PageFile.Page rightPage = file.allocate();
+        ByteBuffer right = rightPage.buffer();
+        initNode(right, LEAF);
+
+        // Vectori temporari cu toate cele LEAF_CAPACITY + 1 intrari, apoi impartire in doua jumatati
+        int total = LEAF_CAPACITY + 1;
+        long[] keys = new long[total];
+        long[] values = new long[total];
+        for (int i = 0, j = 0; i < total; i++) {
+            if (i == position) {
+                keys[i] = key;
+                values[i] = value;
+            } else {
+                keys[i] = node.getLong(NODE_HEADER + j * Long.BYTES);
+                values[i] = node.getLong(LEAF_VALUES + j * Long.BYTES);
+                j++;
+            }
+        }
+        // Cheile sunt adaugate de regula crescator: frunza stanga ramane plina, ca arborele sa fie compact
+        int leftCount = position == LEAF_CAPACITY ? LEAF_CAPACITY : total / 2;
+        for (int i = 0; i < leftCount; i++) {
+            node.putLong(NODE_HEADER + i * Long.BYTES, keys[i]);
+            node.putLong(LEAF_VALUES + i * Long.BYTES, values[i]);
+        }
+        for (int i = leftCount; i < total; i++) {
+            right.putLong(NODE_HEADER + (i - leftCount) * Long.BYTES, keys[i]);
+            right.putLong(LEAF_VALUES + (i - leftCount) * Long.BYTES, values[i]);
+        }
+        node.putInt(COUNT_OFFSET, leftCount);
+        right.putInt(COUNT_OFFSET, total - leftCount);
+        right.putInt(NEXT_OFFSET, node.getInt(NEXT_OFFSET));
+        node.putInt(NEXT_OFFSET, rightPage.id());
+        page.markDirty();
+        return new long[]{keys[leftCount], rightPage.id()};
+    }
+
+    private long[] splitInternal(PageFile.Page page, int child, long key, int newChild) throws IOException {
+        ByteBuffer node = page.buffer();
+        int count = INTERNAL_CAPACITY;
+        long[] keys = new long[count + 1];
+        int[] children = new int[count + 2];
+        for (int i = 0, j = 0; i < count + 1; i++) {
+            keys[i] = i == child ? key : node.getLong(NODE_HEADER + j++ * Long.BYTES);
+        }
+        for (int i = 0, j = 0; i < count + 2; i++) {
+            children[i] = i == child + 1 ? newChild : node.getInt(INTERNAL_CHILDREN + j++ * Integer.BYTES);
+        }
+
+        // Cheia din mijloc urca in parinte si nu ramane in niciunul dintre noduri
+        int leftCount = child == count ? count - 1 : (count + 1) / 2;
+        long promoted = keys[leftCount];
+        PageFile.Page rightPage = file.allocate();
+        ByteBuffer right = rightPage.buffer();
+        initNode(right, INTERNAL);
+        for (int i = 0; i < leftCount; i++) {
+            node.putLong(NODE_HEADER + i * Long.BYTES, keys[i]);
+        }
+        for (int i = 0; i <= leftCount; i++) {
+            node.putInt(INTERNAL_CHILDREN + i * Integer.BYTES, children[i]);
+        }
+        int rightCount = count - leftCount;
+        for (int i = 0; i < rightCount; i++) {
+            right.putLong(NODE_HEADER + i * Long.BYTES, keys[leftCount + 1 + i]);
+        }
+        for (int i = 0; i <= rightCount; i++) {
+            right.putInt(INTERNAL_CHILDREN + i * Integer.BYTES, children[leftCount + 1 + i]);
+        }
+        node.putInt(COUNT_OFFSET, leftCount);
+        right.putInt(COUNT_OFFSET, rightCount);
+        page.markDirty();
+        return new long[]{promoted, rightPage.id()};
+    }
+
+    private static void insertLeafEntry(ByteBuffer node, int count, int position, long key, long value) {
+        shiftRight(node, NODE_HEADER, position, count, Long.BYTES);
+        shiftRight(node, LEAF_VALUES, position, count, Long.BYTES);
+        node.putLong(NODE_HEADER + position * Long.BYTES, key);
+        node.putLong(LEAF_VALUES + position * Long.BYTES, value);
+        node.putInt(COUNT_OFFSET, count + 1);
+    }
+
+    private static void insertInternalEntry(ByteBuffer node, int count, int child, long key, int newChild) {
+        shiftRight(node, NODE_HEADER, child, count, Long.BYTES);
+        shiftRight(node, INTERNAL_CHILDREN, child + 1, count + 1, Integer.BYTES);
+        node.putLong(NODE_HEADER + child * Long.BYTES, key);
+        node.putInt(INTERNAL_CHILDREN + (child + 1) * Integer.BYTES, newChild);
+        node.putInt(COUNT_OFFSET, count + 1);
+    }
+
+    // Muta elementele [from, count) cu o pozitie la dreapta (buffer-ul paginii este un vector Java)
+    private static void shiftRight(ByteBuffer node, int base, int from, int count, int width) {
+        byte[] data = node.array();
+        System.arraycopy(data, base + from * width, data, base + (from + 1) * width, (count - from) * width);
+    }
+
+    // Muta elementele (index, count) cu o pozitie la stanga, peste elementul de la index
+    private static void shiftLeft(ByteBuffer node, int base, int index, int count, int width) {
+        byte[] data = node.array();
+        System.arraycopy(data, base + (index + 1) * width, data, base + index * width, (count - index - 1) * width);
+    }
+
+    private static void initNode(ByteBuffer node, int type) {
+        node.putInt(TYPE_OFFSET, type);
+        node.putInt(COUNT_OFFSET, 0);
+        node.putInt(NEXT_OFFSET, NO_PAGE);
+    }
+
+    // Cautare binara exacta; la fel ca Arrays.binarySearch: index sau -(punct de inserare) - 1
+    private static int search(ByteBuffer node, int count, long key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = node.getLong(NODE_HEADER + mid * Long.BYTES);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // Primul index cu cheia >= key
+    private static int lowerBound(ByteBuffer node, int count, long key) {
+        int index = search(node, count, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    // Primul index cu cheia > key (copilul in care coboara cautarea intr-un nod intern)
+    private static int upperBound(ByteBuffer node, int count, long key) {
+        int index = search(node, count, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+}
@@ -0,0 +1,24 @@
+package repository;
+
+/**
+ * Interfata pentru Repository-urile care pot scrie periodic un checkpoint (snapshot al starii curente),
+ * astfel incat jurnalul de reaplicat la pornire sa ramana mic. Folosita de {@link Checkpointer}.
+ */
+public interface Checkpointable {
+
+    /** * Returneaza numele folosit in mesaje si metrici (ex: "orders").
+     * @return Numele Repository-ului.
+     */
+    String getCheckpointName();
+
+    /** * Verifica daca exista modificari care nu sunt incluse in ultimul checkpoint.
+     * @return true daca un checkpoint ar avea ce scrie.
+     */
+    boolean hasUncheckpointedChanges();
+
+    /** * Scrie un checkpoint al starii curente, fara a bloca scrierile concurente.
+     * @return Numarul de bytes scrisi.
+     * @throws DataProcessingException Daca apare o eroare de I/O.
+     */
+    long checkpoint();
+}
@@ -0,0 +1,146 @@
+package repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fir de fundal care scrie periodic checkpoint-uri pentru Repository-urile cu modificari.
+ * Repository-urile fara modificari de la ultimul checkpoint sunt sarite.
+ * Metricile (numar de checkpoint-uri, durata, bytes scrisi) pot fi citite oricand, din orice fir.
+ */
+public class Checkpointer implements AutoCloseable {
+
+    private final List<Checkpointable> repositories;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong checkpointCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong totalBytesWritten = new AtomicLong();
+    private final AtomicLong totalDurationNanos = new AtomicLong();
+    private volatile long lastBytesWritten;
+    private volatile long lastDurationNanos;
+    private volatile long maxDurationNanos;
+
+    /**
+     * Constructor. Porneste firul de fundal (daemon), care ruleaza un checkpoint la fiecare interval.
+     * @param repositories Repository-urile verificate la fiecare checkpoint.
+     * @param intervalMillis Intervalul dintre sfarsitul unui checkpoint si inceputul urmatorului, in milisecunde.
+     */
+    public Checkpointer(List<? extends Checkpointable> repositories, long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be strictly positive.");
+        }
+        this.repositories = new ArrayList<>(repositories);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "checkpointer");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::runCheckpoint, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Scrie un checkpoint pentru fiecare Repository cu modificari. O eroare la un Repository
+     * este raportata si nu opreste checkpoint-ul celorlalte.
+     * @return Numarul total de bytes scrisi.
+     */
+    public synchronized long runCheckpoint() {
+        long start = System.nanoTime();
+        long bytes = 0;
+        for (Checkpointable repository : repositories) {
+            if (!repository.hasUncheckpointedChanges()) {
+                continue;
+            }
+            try {
+                bytes += repository.checkpoint();
+            } catch (DataProcessingException e) {
+                failureCount.incrementAndGet();
+                System.err.println("PERSISTENCE ERROR: Checkpoint of " + repository.getCheckpointName() + " failed: " + e.getMessage());
+            }
+        }
+        long duration = System.nanoTime() - start;
+        if (bytes > 0) {
+            checkpointCount.incrementAndGet();
+            totalBytesWritten.addAndGet(bytes);
+            totalDurationNanos.addAndGet(duration);
+            lastBytesWritten = bytes;
+            lastDurationNanos = duration;
+            maxDurationNanos = Math.max(maxDurationNanos, duration);
+            System.out.println("CHECKPOINT: " + bytes + " bytes written in " + TimeUnit.NANOSECONDS.toMillis(duration) + " ms.");
+        }
+        return bytes;
+    }
+
+    /**
+     * Returneaza numarul de checkpoint-uri care au scris date.
+     * @return Numarul de checkpoint-uri.
+     */
+    public long getCheckpointCount() {
+        return checkpointCount.get();
+    }
+
+    /**
+     * Returneaza numarul de checkpoint-uri de Repository esuate.
+     * @return Numarul de erori.
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * Returneaza totalul de bytes scrisi de checkpoint-uri.
+     * @return Bytes scrisi.
+     */
+    public long getTotalBytesWritten() {
+        return totalBytesWritten.get();
+    }
+
+    /**
+     * Returneaza numarul de bytes scrisi de ultimul checkpoint.
+     * @return Bytes scrisi.
+     */
+    public long getLastBytesWritten() {
+        return lastBytesWritten;
+    }
+
+    /**
+     * Returneaza durata ultimului checkpoint, in milisecunde.
+     * @return Durata.
+     */
+    public long getLastDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastDurationNanos);
+    }
+
+    /**
+     * Returneaza durata maxima a unui checkpoint, in milisecunde.
+     * @return Durata maxima.
+     */
+    public long getMaxDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxDurationNanos);
+    }
+
+    /**
+     * Returneaza durata totala a checkpoint-urilor, in milisecunde.
+     * @return Durata totala.
+     */
+    public long getTotalDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalDurationNanos.get());
+    }
+
+    /**
+     * Opreste firul de fundal; un checkpoint in curs este lasat sa se termine.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
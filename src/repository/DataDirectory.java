@@ -0,0 +1,34 @@
+package repository;
+
+import java.io.File;
+
+/**
+ * Directorul fisierelor de persistenta. Implicit "data" (relativ la directorul curent);
+ * poate fi schimbat cu proprietatea de sistem store.data.dir (ex: pentru benchmark-uri pe seturi de date generate).
+ * Proprietatea este citita la constructia fiecarui Repository.
+ */
+public final class DataDirectory {
+
+    /** Proprietatea de sistem care seteaza directorul de date. */
+    public static final String PROPERTY = "store.data.dir";
+
+    private DataDirectory() {
+    }
+
+    /**
+     * Returneaza directorul de date curent.
+     * @return Calea directorului (implicit "data").
+     */
+    public static String path() {
+        return System.getProperty(PROPERTY, "data");
+    }
+
+    /**
+     * Returneaza calea unui fisier din directorul de date.
+     * @param fileName Numele fisierului (ex: "orders.txt").
+     * @return Calea fisierului.
+     */
+    public static String file(String fileName) {
+        return path() + File.separator + fileName;
+    }
+}
@@ -0,0 +1,25 @@
+package repository;
+
+import model.Client;
+
+/**
+ * Interfata Repository specifica entitatii Client.
+ * Extinde operatiunile CRUD generice cu o cautare dupa email, folosita la autentificare
+ * si la verificarea unicitatii email-ului la inregistrare.
+ */
+public interface IClientRepository extends IRepository<Client, Integer> {
+
+    /** * Cauta un client dupa email (comparatie insensibila la majuscule), in timp constant.
+     * @param email Email-ul cautat.
+     * @return Clientul gasit sau null.
+     */
+    Client findByEmail(String email);
+
+    /** * Salveaza clientul doar daca email-ul lui nu este folosit de alt client. Verificarea si
+     * rezervarea email-ului sunt atomice, deci doua inregistrari concurente cu acelasi email
+     * nu pot reusi amandoua.
+     * @param client Clientul de salvat/actualizat.
+     * @return true daca clientul a fost salvat, false daca email-ul apartine altui client.
+     */
+    boolean saveIfEmailAvailable(Client client);
+}
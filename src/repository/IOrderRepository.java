@@ -0,0 +1,32 @@
+package repository;
+
+import model.Order;
+
+import java.util.List;
+
+/**
+ * Interfata Repository specifica entitatii Order.
+ * Extinde operatiunile CRUD generice cu interogari pe istoricul de comenzi al unui client,
+ * rezolvate printr-un index clientId -> ID-uri de comenzi (cost O(k), k = comenzile clientului).
+ */
+public interface IOrderRepository extends IRepository<Order, Integer> {
+
+    /** * Returneaza o pagina din comenzile unui client, ordonate crescator dupa ID (cronologic).
+     * @param clientId ID-ul clientului.
+     * @param offset Numarul de comenzi sarite de la inceput.
+     * @param limit Numarul maxim de comenzi returnate.
+     * @return Lista de comenzi din pagina (posibil goala).
+     */
+    List<Order> findByClientId(int clientId, int offset, int limit);
+
+    /** * Returneaza numarul de comenzi ale unui client.
+     * @param clientId ID-ul clientului.
+     * @return Numarul de comenzi.
+     */
+    int countByClientId(int clientId);
+
+    /** * Returneaza cel mai mare ID de comanda salvat, fara a parcurge comenzile.
+     * @return ID-ul maxim sau 0 daca nu exista comenzi.
+     */
+    int findMaxId();
+}
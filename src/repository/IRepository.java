@@ -1,6 +1,9 @@
 package repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Interfata generica (sablon) pentru operatiunile CRUD (Create, Read, Update, Delete).
@@ -18,6 +21,16 @@ public interface IRepository<T, ID> {
      */
     void save(T entity);
 
+    /** * Salveaza sau actualizeaza mai multe entitati. Implementarile cu jurnal asteapta
+     * o singura sincronizare pe disc pentru tot lotul, nu cate una per entitate.
+     * @param entities Entitatile de salvat.
+     */
+    default void saveAll(Collection<? extends T> entities) {
+        for (T entity : entities) {
+            save(entity);
+        }
+    }
+
     /** * Cauta o entitate dupa ID.
      * @param id ID-ul entitatii.
      * @return Entitatea gasita sau null.
@@ -29,6 +42,24 @@ public interface IRepository<T, ID> {
      */
     List<T> findAll();
 
+    /** * Parcurge entitatile direct din colectia din memorie, fara a construi o copie.
+     * Iterarea este slab consistenta: nu arunca ConcurrentModificationException daca alte
+     * fire salveaza sau sterg entitati in paralel, dar poate sa nu vada aceste modificari.
+     * @param action Actiunea aplicata fiecarei entitati.
+     */
+    void forEach(Consumer<? super T> action);
+
+    /** * Returneaza un Stream peste entitatile din memorie, fara a construi o copie.
+     * Aceleasi garantii de consistenta ca {@link #forEach(Consumer)}.
+     * @return Stream-ul entitatilor.
+     */
+    Stream<T> stream();
+
+    /** * Returneaza numarul de entitati din memorie, fara a le parcurge.
+     * @return Numarul de entitati.
+     */
+    int count();
+
     /** * Sterge o entitate dupa ID.
      * @param id ID-ul entitatii de sters.
      */
@@ -37,9 +68,15 @@ public interface IRepository<T, ID> {
     // Operatii de Persistenta (Cerinta 2)
 
     /** * Salveaza datele din memorie in fisierul de persistenta (apelata la inchiderea aplicatiei).
+     * Daca nu exista modificari nesalvate, nu face nicio operatie de I/O.
      */
     void saveAllData();
 
+    /** * Verifica daca exista modificari (save/delete) pe care saveAllData() nu le-a persistat inca.
+     * @return true daca saveAllData() are ceva de scris.
+     */
+    boolean hasUnsavedChanges();
+
     /** * Incarca datele din fisier in memoria aplicatiei (apelata la pornire).
      */
     void loadAllData();
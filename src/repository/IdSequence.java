@@ -0,0 +1,174 @@
+package repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Generator persistent de ID-uri, care rezerva blocuri de ID-uri consecutive intr-un fisier de secventa
+ * (ex: data/orders.seq). ID-urile dintr-un bloc rezervat se aloca fara lock-uri (un singur increment atomic);
+ * fisierul este citit si actualizat doar la epuizarea blocului, sub un lock pe fisier, deci mai multe procese
+ * care folosesc acelasi director 'data' primesc blocuri disjuncte.
+ * <p>
+ * Fisierul retine urmatorul ID nerezervat si este sincronizat pe disc inainte ca blocul sa fie folosit:
+ * dupa o oprire brusca, ID-urile nefolosite din bloc sunt sarite, dar niciun ID nu este refolosit.
+ * Daca fisierul lipseste sau este invalid, punctul de start se calculeaza o singura data prin functia de rezerva
+ * (de regula ID-ul maxim din Repository).
+ */
+public final class IdSequence {
+
+    // Fisierul: urmatorul ID nerezervat (long) si complementul lui, pentru detectarea unei scrieri incomplete
+    private static final int FILE_SIZE = 2 * Long.BYTES;
+    // Un singur monitor per fisier in acest JVM: FileLock nu serializeaza firele aceluiasi proces
+    private static final Map<Path, Object> MONITORS = new ConcurrentHashMap<>();
+
+    /**
+     * Un bloc rezervat: ID-urile [next, limit).
+     */
+    private static final class Block {
+        private final AtomicInteger next;
+        private final int limit;
+
+        private Block(int start, int limit) {
+            this.next = new AtomicInteger(start);
+            this.limit = limit;
+        }
+    }
+
+    private final Path path;
+    private final int blockSize;
+    private final IntSupplier fallbackMaxId;
+    private final Object monitor;
+    private volatile Block current = new Block(0, 0);
+
+    /**
+     * Constructor. Nu citeste fisierul: primul bloc se rezerva la primul ID cerut.
+     * @param fileName Calea fisierului de secventa.
+     * @param blockSize Numarul de ID-uri rezervate o data.
+     * @param fallbackMaxId Furnizeaza ID-ul maxim existent, folosit doar daca fisierul lipseste sau este invalid.
+     */
+    public IdSequence(String fileName, int blockSize, IntSupplier fallbackMaxId) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be strictly positive.");
+        }
+        this.path = Paths.get(fileName).toAbsolutePath().normalize();
+        this.blockSize = blockSize;
+        this.fallbackMaxId = fallbackMaxId;
+        this.monitor = MONITORS.computeIfAbsent(path, k -> new Object());
+    }
+
+    /**
+     * Aloca urmatorul ID. Fara lock-uri, cu exceptia rezervarii unui bloc nou.
+     * @return ID-ul alocat (strict pozitiv).
+     * @throws DataProcessingException Daca fisierul de secventa nu poate fi actualizat sau ID-urile s-au epuizat.
+     */
+    public int nextId() {
+        while (true) {
+            Block block = current;
+            int id = block.next.getAndIncrement();
+            if (id < block.limit && id > 0) {
+                return id;
+            }
+            reserve(block);
+        }
+    }
+
+    /**
+     * Aloca un interval de ID-uri consecutive, rezervat direct din fisier (o singura actualizare a fisierului),
+     * fara a consuma blocul curent. Folosit la inserarea in lot.
+     * @param count Numarul de ID-uri (strict pozitiv).
+     * @return Primul ID din interval; intervalul este [rezultat, rezultat + count).
+     * @throws DataProcessingException Daca fisierul de secventa nu poate fi actualizat sau ID-urile s-au epuizat.
+     */
+    public int nextIds(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("ID count must be strictly positive.");
+        }
+        synchronized (monitor) {
+            return (int) reserveFromFile(count, false);
+        }
+    }
+
+    // Rezerva un bloc nou daca blocul dat este inca cel curent (un singur fir face rezervarea)
+    private void reserve(Block exhausted) {
+        synchronized (monitor) {
+            if (current != exhausted) {
+                return;
+            }
+            long start = reserveFromFile(blockSize, true);
+            current = new Block((int) start, (int) Math.min(start + blockSize, (long) Integer.MAX_VALUE));
+        }
+    }
+
+    // Rezerva urmatoarele 'count' ID-uri din fisier (sub lock-ul pe fisier) si returneaza primul; apelat sub monitor.
+    // Cu partial = true, ultimul bloc inainte de Integer.MAX_VALUE poate fi mai scurt
+    private long reserveFromFile(int count, boolean partial) {
+        try {
+            Files.createDirectories(path.getParent());
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    return reserveLocked(channel, count, partial);
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException e) {
+            throw new DataProcessingException("I/O Error while reserving IDs in " + path + ".", e);
+        }
+    }
+
+    private long reserveLocked(FileChannel channel, int count, boolean partial) throws IOException {
+        long start = readNext(channel);
+        if (start < 0) {
+            start = (long) Math.max(0, fallbackMaxId.getAsInt()) + 1;
+            System.out.println("INFO: ID sequence " + path.getFileName() + " initialized at " + start + ".");
+        }
+        long limit = Math.min(start + count, (long) Integer.MAX_VALUE);
+        if (start >= limit || (!partial && limit - start < count)) {
+            throw new DataProcessingException("ID sequence " + path + " is exhausted.");
+        }
+        writeNext(channel, limit);
+        return start;
+    }
+
+    // Returneaza urmatorul ID nerezervat din fisier sau -1 daca fisierul este gol sau invalid
+    private long readNext(FileChannel channel) throws IOException {
+        if (channel.size() != FILE_SIZE) {
+            if (channel.size() != 0) {
+                System.err.println("PERSISTENCE ERROR: Invalid ID sequence file " + path + ": unexpected size " + channel.size() + ".");
+            }
+            return -1;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(FILE_SIZE);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                return -1;
+            }
+        }
+        long next = buffer.getLong(0);
+        if (next <= 0 || next > Integer.MAX_VALUE || buffer.getLong(Long.BYTES) != ~next) {
+            System.err.println("PERSISTENCE ERROR: Invalid ID sequence file " + path + ": checksum mismatch.");
+            return -1;
+        }
+        return next;
+    }
+
+    private void writeNext(FileChannel channel, long next) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(FILE_SIZE);
+        buffer.putLong(next).putLong(~next).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+        channel.force(true);
+    }
+}
@@ -0,0 +1,453 @@
+package repository;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Jurnal append-only (write-ahead log) folosit de Repository-uri pentru persistenta incrementala.
+ * Fiecare save/delete adauga o inregistrare compacta ("S;rand" sau "D;id") in fisierul jurnal,
+ * in loc sa rescrie intregul fisier de date la inchiderea aplicatiei.
+ * Scrierile concurente sunt grupate (group commit): un singur fsync confirma toate inregistrarile
+ * acumulate cat timp fsync-ul anterior era in curs.
+ * Cand jurnalul depaseste pragul de compactare, un fir de fundal il "plieaza" intr-un snapshot.
+ */
+public class Journal {
+
+    /** Tipul inregistrarii pentru save (urmat de randul serializat al entitatii). */
+    public static final String RECORD_SAVE = "S";
+    /** Tipul inregistrarii pentru delete (urmat de ID-ul entitatii). */
+    public static final String RECORD_DELETE = "D";
+
+    private static final String separator = ";";
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 4L * 1024 * 1024;
+
+    // Un singur fir de compactare pentru toate jurnalele (daemon, nu blocheaza oprirea JVM)
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "journal-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Interfata pentru scrierea continutului unui snapshot intr-un flux de iesire.
+     */
+    public interface SnapshotWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Interfata pentru aplicarea inregistrarilor citite din jurnal (la pornire).
+     */
+    public interface RecordHandler {
+        void onSave(String row, int recordNumber);
+        void onDelete(String id, int recordNumber);
+    }
+
+    private final Path journalPath;
+    private final Path rotatedPath;
+    private final Runnable compaction;
+    private final long compactionThreshold;
+
+    private final Object lock = new Object();
+    private final StringBuilder pending = new StringBuilder();
+    private FileChannel channel;
+    private long appendedSeq;
+    private long committedSeq;
+    private long size;
+    private boolean flushing;
+    private boolean compactionScheduled;
+    private IOException failure;
+    // Bytes scrisi in snapshot-uri de compactari (pentru metricile de checkpoint)
+    private final AtomicLong snapshotBytesWritten = new AtomicLong();
+
+    /**
+     * Constructor. Deschide (sau creeaza) fisierul jurnal si elimina o eventuala inregistrare
+     * incompleta ramasa dupa o oprire brusca.
+     * @param fileName Calea fisierului jurnal (ex: data/products.journal).
+     * @param compaction Operatia Repository-ului care scrie snapshot-ul (rulata pe firul de fundal).
+     */
+    public Journal(String fileName, Runnable compaction) {
+        this(fileName, compaction, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Constructor cu prag de compactare configurabil.
+     * @param fileName Calea fisierului jurnal.
+     * @param compaction Operatia de compactare.
+     * @param compactionThreshold Dimensiunea (in bytes) peste care se programeaza compactarea.
+     */
+    public Journal(String fileName, Runnable compaction, long compactionThreshold) {
+        this.journalPath = Paths.get(fileName);
+        this.rotatedPath = Paths.get(fileName + ".old");
+        this.compaction = compaction;
+        this.compactionThreshold = compactionThreshold;
+        try {
+            Path parent = journalPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = openChannel();
+        } catch (IOException e) {
+            throw new DataProcessingException("Cannot open journal file " + fileName + ".", e);
+        }
+    }
+
+    /**
+     * Construieste o inregistrare de tip save.
+     * @param row Randul serializat al entitatii.
+     * @return Inregistrarea de jurnal.
+     */
+    public static String saveRecord(String row) {
+        return RECORD_SAVE + separator + row;
+    }
+
+    /**
+     * Construieste o inregistrare de tip delete.
+     * @param id ID-ul entitatii sterse.
+     * @return Inregistrarea de jurnal.
+     */
+    public static String deleteRecord(Object id) {
+        return RECORD_DELETE + separator + id;
+    }
+
+    /**
+     * Adauga o inregistrare in bufferul jurnalului (fara a astepta scrierea pe disc).
+     * Apelantul trebuie sa apeleze awaitCommit() cu valoarea returnata.
+     * @param record Inregistrarea (fara terminator de linie).
+     * @return Numarul de secventa al inregistrarii.
+     */
+    public long append(String record) {
+        synchronized (lock) {
+            pending.append(record).append('\n');
+            return ++appendedSeq;
+        }
+    }
+
+    /**
+     * Asteapta pana cand inregistrarea cu numarul dat este scrisa si sincronizata pe disc.
+     * Primul fir care gaseste date nescrise devine "lider" si scrie tot lotul acumulat.
+     * @param seq Numarul de secventa returnat de append().
+     * @throws DataProcessingException Daca scrierea in jurnal a esuat.
+     */
+    public void awaitCommit(long seq) {
+        byte[] batch;
+        long batchEnd;
+        FileChannel target;
+        boolean interrupted = false;
+        synchronized (lock) {
+            while (true) {
+                if (failure != null) {
+                    throw new DataProcessingException("Journal " + journalPath + " is no longer writable.", failure);
+                }
+                if (committedSeq >= seq) {
+                    if (interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return;
+                }
+                if (!flushing) {
+                    break;
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            flushing = true;
+            batch = pending.toString().getBytes(StandardCharsets.UTF_8);
+            pending.setLength(0);
+            batchEnd = appendedSeq;
+            target = channel;
+        }
+
+        IOException error = null;
+        try {
+            writeFully(target, batch);
+            target.force(false);
+        } catch (IOException e) {
+            error = e;
+        }
+
+        synchronized (lock) {
+            flushing = false;
+            if (error == null) {
+                committedSeq = batchEnd;
+                size += batch.length;
+                scheduleCompactionIfNeeded();
+            } else {
+                failure = error;
+            }
+            lock.notifyAll();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (error != null) {
+            throw new DataProcessingException("I/O Error while writing journal " + journalPath + ".", error);
+        }
+    }
+
+    /**
+     * Asteapta scrierea pe disc a tuturor inregistrarilor adaugate pana acum.
+     */
+    public void sync() {
+        long seq;
+        synchronized (lock) {
+            seq = appendedSeq;
+        }
+        awaitCommit(seq);
+    }
+
+    /**
+     * Reaplica inregistrarile din jurnal (mai intai jurnalul rotit, apoi cel curent).
+     * O ultima linie incompleta (fara terminator) este ignorata. Orice alta inregistrare invalida
+     * inseamna un jurnal corupt: exceptia trebuie sa opreasca pornirea Repository-ului, nu sa fie ignorata,
+     * altfel inregistrarile de dupa ea se pierd, iar urmatoarea compactare ar plia starea incompleta
+     * intr-un snapshot si ar sterge jurnalul. Metoda doar citeste, deci fisierele raman neatinse.
+     * @param handler Callback-ul care aplica fiecare inregistrare in colectia din memorie.
+     * @throws DataProcessingException Daca o inregistrare este invalida sau fisierul nu poate fi citit.
+     */
+    public void replay(RecordHandler handler) {
+        int recordNumber = 0;
+        for (Path path : new Path[]{rotatedPath, journalPath}) {
+            if (!Files.exists(path)) {
+                continue;
+            }
+            byte[] content;
+            try {
+                content = Files.readAllBytes(path);
+            } catch (IOException e) {
+                throw new DataProcessingException("Cannot read journal file " + path + ".", e);
+            }
+            int end = lastLineEnd(content);
+            int start = 0;
+            for (int i = 0; i < end; i++) {
+                if (content[i] != '\n') {
+                    continue;
+                }
+                String record = new String(content, start, i - start, StandardCharsets.UTF_8);
+                start = i + 1;
+                recordNumber++;
+                if (record.isEmpty()) {
+                    continue;
+                }
+                int sep = record.indexOf(separator);
+                String type = sep < 0 ? record : record.substring(0, sep);
+                String body = sep < 0 ? "" : record.substring(sep + 1);
+                if (RECORD_SAVE.equals(type)) {
+                    handler.onSave(body, recordNumber);
+                } else if (RECORD_DELETE.equals(type)) {
+                    handler.onDelete(body.trim(), recordNumber);
+                } else {
+                    throw new DataProcessingException("Invalid journal record " + recordNumber + " in " + path + ": unknown type '" + type + "'.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Roteste jurnalul curent (devine ".old") si deschide unul nou, gol.
+     * Trebuie apelata de Repository inainte de a parcurge starea pentru snapshot, astfel incat
+     * orice modificare care nu apare in snapshot sa ajunga in jurnalul nou.
+     * Daca o compactare anterioara a esuat, jurnalul ".old" este pastrat si nu se mai roteste.
+     */
+    public void rotate() {
+        synchronized (lock) {
+            boolean interrupted = false;
+            while (flushing) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw new DataProcessingException("Journal " + journalPath + " is no longer writable.", failure);
+            }
+            try {
+                if (pending.length() > 0) {
+                    byte[] batch = pending.toString().getBytes(StandardCharsets.UTF_8);
+                    pending.setLength(0);
+                    writeFully(channel, batch);
+                    size += batch.length;
+                }
+                channel.force(false);
+                committedSeq = appendedSeq;
+                if (!Files.exists(rotatedPath)) {
+                    channel.close();
+                    Files.move(journalPath, rotatedPath, StandardCopyOption.ATOMIC_MOVE);
+                    channel = openChannel();
+                }
+            } catch (IOException e) {
+                failure = e;
+                throw new DataProcessingException("I/O Error while rotating journal " + journalPath + ".", e);
+            } finally {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Finalizeaza compactarea: scrie atomic snapshot-ul si sterge jurnalul rotit,
+     * ale carui inregistrari sunt acum incluse in snapshot.
+     * @param snapshotFile Fisierul de date al Repository-ului (ex: data/products.txt).
+     * @param writer Scrie continutul snapshot-ului.
+     * @throws DataProcessingException Daca apare o eroare de I/O.
+     */
+    public void completeCompaction(String snapshotFile, SnapshotWriter writer) {
+        snapshotBytesWritten.addAndGet(writeAtomically(Paths.get(snapshotFile), writer));
+        try {
+            Files.deleteIfExists(rotatedPath);
+        } catch (IOException e) {
+            throw new DataProcessingException("Cannot delete rotated journal " + rotatedPath + ".", e);
+        }
+    }
+
+    /**
+     * Scrie un fisier atomic: continutul merge intr-un fisier temporar sincronizat pe disc,
+     * care apoi inlocuieste fisierul tinta printr-o redenumire.
+     * @param target Fisierul tinta.
+     * @param writer Scrie continutul.
+     * @return Dimensiunea fisierului scris, in bytes.
+     * @throws DataProcessingException Daca apare o eroare de I/O.
+     */
+    public static long writeAtomically(Path target, SnapshotWriter writer) {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long written;
+        try {
+            try (FileOutputStream fos = new FileOutputStream(temp.toFile());
+                 BufferedOutputStream out = new BufferedOutputStream(fos, 64 * 1024)) {
+                writer.writeTo(out);
+                out.flush();
+                fos.getChannel().force(true);
+                written = fos.getChannel().size();
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new DataProcessingException("I/O Error while writing snapshot " + target + ".", e);
+        }
+        return written;
+    }
+
+    /**
+     * Verifica daca exista inregistrari adaugate care nu au fost inca sincronizate pe disc.
+     * @return true daca {@link #sync()} ar avea ce scrie.
+     */
+    public boolean hasUnsyncedRecords() {
+        synchronized (lock) {
+            return appendedSeq > committedSeq;
+        }
+    }
+
+    /**
+     * Verifica daca exista inregistrari care nu sunt incluse inca intr-un snapshot
+     * (in jurnalul curent, in bufferul nescris sau intr-un jurnal rotit ramas dupa o compactare esuata).
+     * @return true daca un checkpoint ar avea ce scrie.
+     */
+    public boolean hasRecords() {
+        synchronized (lock) {
+            return size > 0 || pending.length() > 0 || Files.exists(rotatedPath);
+        }
+    }
+
+    /**
+     * Ruleaza imediat compactarea, daca exista inregistrari, si asteapta terminarea ei.
+     * Compactarea ruleaza pe acelasi fir ca si cele declansate de prag, deci nu se suprapune cu ele;
+     * scrierile concurente nu sunt blocate (snapshot "fuzzy", vezi {@link #rotate()}).
+     * @return Numarul de bytes scrisi in snapshot (0 daca nu a fost nimic de scris).
+     * @throws DataProcessingException Daca compactarea esueaza.
+     */
+    public long checkpoint() {
+        if (compaction == null || !hasRecords()) {
+            return 0;
+        }
+        Future<Long> result = COMPACTOR.submit(() -> {
+            long before = snapshotBytesWritten.get();
+            compaction.run();
+            return snapshotBytesWritten.get() - before;
+        });
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataProcessingException("Checkpoint of journal " + journalPath + " was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DataProcessingException("Checkpoint of journal " + journalPath + " failed.", e.getCause());
+        }
+    }
+
+    // Programeaza compactarea pe firul de fundal (apelata cu lock-ul detinut)
+    private void scheduleCompactionIfNeeded() {
+        if (compactionScheduled || size < compactionThreshold || compaction == null) {
+            return;
+        }
+        compactionScheduled = true;
+        COMPACTOR.execute(() -> {
+            try {
+                compaction.run();
+            } catch (DataProcessingException e) {
+                System.err.println("PERSISTENCE ERROR: " + e.getMessage());
+            } finally {
+                synchronized (lock) {
+                    compactionScheduled = false;
+                }
+            }
+        });
+    }
+
+    // Deschide jurnalul pentru scriere si taie o eventuala linie incompleta de la final
+    private FileChannel openChannel() throws IOException {
+        FileChannel ch = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long length = ch.size();
+        long valid = length;
+        ByteBuffer one = ByteBuffer.allocate(1);
+        while (valid > 0) {
+            one.clear();
+            ch.read(one, valid - 1);
+            if (one.get(0) == '\n') {
+                break;
+            }
+            valid--;
+        }
+        if (valid < length) {
+            ch.truncate(valid);
+        }
+        ch.position(valid);
+        size = valid;
+        return ch;
+    }
+
+    private static int lastLineEnd(byte[] content) {
+        int end = content.length;
+        while (end > 0 && content[end - 1] != '\n') {
+            end--;
+        }
+        return end;
+    }
+
+    private static void writeFully(FileChannel ch, byte[] data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            ch.write(buffer);
+        }
+    }
+}
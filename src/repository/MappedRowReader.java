@@ -0,0 +1,546 @@
+package repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Cititor de fisiere text cu randuri separate prin ';', bazat pe memory-mapping (NIO FileChannel).
+ * Parcurge fisierul o singura data, pe offset-uri de byte, si parseaza direct int, float, enum si
+ * LocalDateTime din bytes, fara String-uri intermediare (spre deosebire de Scanner + String.split).
+ * Doar campurile text (nume, email, descriere) devin String-uri.
+ * Campurile sunt "trim"-uite la fel ca String.trim() (caracterele <= ' ' de la capete sunt ignorate).
+ */
+public class MappedRowReader implements Closeable {
+
+    private static final byte SEPARATOR = ';';
+    // Dimensiunea maxima a unei ferestre mapate (FileChannel.map este limitat la 2 GB)
+    private static final long WINDOW_SIZE = 1L << 30;
+    // Mantisele pana la 2^24 si puterile lui 10 pana la 10^10 sunt exacte in float
+    private static final long MAX_EXACT_FLOAT_MANTISSA = 1L << 24;
+    private static final float[] FLOAT_POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+    private final FileChannel channel;
+    private final long end;
+
+    private MappedByteBuffer buffer;
+    private long bufferStart;
+    private int pos;
+    // Pozitia curenta in randul curent
+    private int cursor;
+    private int rowStart;
+    private int rowEnd;
+    private int rowNumber;
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Deschide intregul fisier pentru citire.
+     * @param file Fisierul de citit.
+     * @throws IOException Daca fisierul nu poate fi deschis sau mapat.
+     */
+    public MappedRowReader(Path file) throws IOException {
+        this(file, 0, -1);
+    }
+
+    /**
+     * Deschide un interval [start, end) din fisier. Intervalul trebuie sa inceapa la inceputul unui rand.
+     * @param file Fisierul de citit.
+     * @param start Offset-ul de start.
+     * @param end Offset-ul de final (exclusiv) sau -1 pentru sfarsitul fisierului.
+     * @throws IOException Daca fisierul nu poate fi deschis sau mapat.
+     */
+    public MappedRowReader(Path file, long start, long end) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.end = end < 0 ? channel.size() : Math.min(end, channel.size());
+        map(start);
+    }
+
+    /**
+     * Avanseaza la urmatorul rand.
+     * @return true daca exista un rand, false la sfarsitul fisierului (sau intervalului).
+     * @throws IOException Daca o fereastra noua nu poate fi mapata.
+     */
+    public boolean nextRow() throws IOException {
+        int limit = buffer.limit();
+        if (pos >= limit) {
+            if (bufferStart + limit >= end) {
+                return false;
+            }
+            map(bufferStart + pos);
+            limit = buffer.limit();
+        }
+        int newline = indexOf((byte) '\n', pos, limit);
+        if (newline < 0 && bufferStart + limit < end) {
+            // Randul continua dincolo de fereastra curenta: remapam de la inceputul randului
+            map(bufferStart + pos);
+            limit = buffer.limit();
+            newline = indexOf((byte) '\n', pos, limit);
+            if (newline < 0 && bufferStart + limit < end) {
+                throw new IOException("Row " + (rowNumber + 1) + " is longer than the mapping window.");
+            }
+        }
+        rowStart = pos;
+        rowEnd = newline < 0 ? limit : newline;
+        pos = newline < 0 ? limit : newline + 1;
+        if (rowEnd > rowStart && buffer.get(rowEnd - 1) == '\r') {
+            rowEnd--;
+        }
+        rowNumber++;
+        cursor = rowStart;
+        return true;
+    }
+
+    /**
+     * Returneaza numarul randului curent (incepand de la 1, relativ la inceputul intervalului).
+     * @return Numarul randului.
+     */
+    public int rowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * Numara campurile randului curent cu aceeasi semantica precum String.split(";"):
+     * campurile goale de la final nu sunt numarate.
+     * @return Numarul de campuri.
+     */
+    public int fieldCount() {
+        if (rowEnd == rowStart) {
+            return 1;
+        }
+        int count = 1;
+        for (int i = rowStart; i < rowEnd; i++) {
+            if (buffer.get(i) == SEPARATOR) {
+                count++;
+            }
+        }
+        for (int i = rowEnd - 1; i >= rowStart && buffer.get(i) == SEPARATOR; i--) {
+            count--;
+        }
+        return count;
+    }
+
+    /**
+     * Citeste campul curent ca int (echivalent cu Integer.parseInt(camp.trim())).
+     * @return Valoarea citita.
+     * @throws NumberFormatException Daca valoarea nu este un numar intreg valid.
+     */
+    public int readInt() {
+        int value = readIntToken();
+        endField();
+        return value;
+    }
+
+    /**
+     * Citeste un numar intreg de la pozitia curenta si se opreste la primul caracter care nu este cifra.
+     * Folosit pentru campuri compuse (ex: "2:4|3:1").
+     * @return Valoarea citita.
+     * @throws NumberFormatException Daca nu exista cifre sau valoarea depaseste un int.
+     */
+    public int readIntToken() {
+        skipWhitespace();
+        int i = cursor;
+        boolean negative = false;
+        if (i < rowEnd && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        int significant = 0;
+        while (i < rowEnd) {
+            int d = buffer.get(i) - '0';
+            if (d < 0 || d > 9) {
+                break;
+            }
+            value = value * 10 + d;
+            if (value != 0 && ++significant > 10) {
+                throw numberFormatError(cursor, i + 1);
+            }
+            digits++;
+            i++;
+        }
+        if (digits == 0) {
+            throw numberFormatError(cursor, i);
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw numberFormatError(cursor, i);
+        }
+        cursor = i;
+        return (int) value;
+    }
+
+    /**
+     * Citeste campul curent ca float (echivalent cu Float.parseFloat(camp.trim())).
+     * Valorile zecimale obisnuite (mantisa pana la 2^24) sunt calculate direct din bytes,
+     * cu o singura impartire/inmultire IEEE, deci rezultatul este rotunjit corect.
+     * Celelalte forme (NaN, hex, multe cifre) sunt delegate catre Float.parseFloat.
+     * @return Valoarea citita.
+     * @throws NumberFormatException Daca valoarea nu este un numar valid.
+     */
+    public float readFloat() {
+        skipWhitespace();
+        int start = cursor;
+        int fieldEnd = trimmedFieldEnd();
+        int i = start;
+        boolean negative = false;
+        if (i < fieldEnd && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fast = true;
+        boolean dot = false;
+        boolean anyDigit = false;
+        for (; i < fieldEnd; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                anyDigit = true;
+                if (mantissa != 0 || b != '0') {
+                    digits++;
+                }
+                if (digits > 9) {
+                    fast = false;
+                    break;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (dot) {
+                    scale--;
+                }
+            } else if (b == '.' && !dot) {
+                dot = true;
+            } else if ((b == 'e' || b == 'E') && anyDigit) {
+                int exponent;
+                int saved = cursor;
+                cursor = i + 1;
+                try {
+                    exponent = readIntToken();
+                } catch (NumberFormatException e) {
+                    cursor = saved;
+                    fast = false;
+                    break;
+                }
+                if (cursor != fieldEnd || Math.abs(exponent) > 64) {
+                    cursor = saved;
+                    fast = false;
+                    break;
+                }
+                cursor = saved;
+                scale += exponent;
+                i = fieldEnd;
+                break;
+            } else {
+                fast = false;
+                break;
+            }
+        }
+        float result;
+        if (fast && anyDigit && mantissa <= MAX_EXACT_FLOAT_MANTISSA && scale >= -10 && scale <= 10) {
+            result = scale < 0 ? mantissa / FLOAT_POWERS_OF_TEN[-scale] : mantissa * FLOAT_POWERS_OF_TEN[scale];
+            result = negative ? -result : result;
+        } else {
+            // Cale lenta (rar): delegam catre parserul standard
+            result = Float.parseFloat(decode(start, fieldEnd));
+        }
+        cursor = fieldEnd;
+        endField();
+        return result;
+    }
+
+    /**
+     * Citeste campul curent ca o constanta enum (echivalent cu Enum.valueOf(camp.trim())),
+     * comparand direct bytes cu numele constantelor.
+     * @param values Constantele enum-ului (ex: ProductType.values()).
+     * @param <E> Tipul enum-ului.
+     * @return Constanta gasita.
+     * @throws IllegalArgumentException Daca nu exista o constanta cu acest nume.
+     */
+    public <E extends Enum<E>> E readEnum(E[] values) {
+        skipWhitespace();
+        int start = cursor;
+        int fieldEnd = trimmedFieldEnd();
+        int length = fieldEnd - start;
+        for (E value : values) {
+            String name = value.name();
+            if (name.length() != length) {
+                continue;
+            }
+            boolean match = true;
+            for (int k = 0; k < length; k++) {
+                if (buffer.get(start + k) != name.charAt(k)) {
+                    match = false;
+                    break;
+                }
+            }
+            if (match) {
+                cursor = fieldEnd;
+                endField();
+                return value;
+            }
+        }
+        String type = values.length > 0 ? values[0].getDeclaringClass().getName() : "enum";
+        throw new IllegalArgumentException("No enum constant " + type + "." + decode(start, fieldEnd));
+    }
+
+    /**
+     * Citeste campul curent ca LocalDateTime in format ISO_LOCAL_DATE_TIME
+     * (yyyy-MM-ddTHH:mm[:ss[.fraction]]). Formele neobisnuite sunt delegate catre LocalDateTime.parse.
+     * @return Data si ora citite.
+     * @throws java.time.DateTimeException Daca valoarea nu este o data valida.
+     */
+    public LocalDateTime readDateTime() {
+        skipWhitespace();
+        int start = cursor;
+        int fieldEnd = trimmedFieldEnd();
+        LocalDateTime result = null;
+        int length = fieldEnd - start;
+        if (length >= 16 && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-'
+                && buffer.get(start + 10) == 'T' && buffer.get(start + 13) == ':') {
+            int year = digits(start, 4);
+            int month = digits(start + 5, 2);
+            int day = digits(start + 8, 2);
+            int hour = digits(start + 11, 2);
+            int minute = digits(start + 14, 2);
+            int second = 0;
+            int nano = 0;
+            boolean valid = year >= 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0;
+            int i = start + 16;
+            if (valid && i < fieldEnd) {
+                valid = buffer.get(i) == ':' && i + 3 <= fieldEnd && (second = digits(i + 1, 2)) >= 0;
+                i += 3;
+                if (valid && i < fieldEnd) {
+                    int fractionDigits = fieldEnd - i - 1;
+                    valid = buffer.get(i) == '.' && fractionDigits >= 1 && fractionDigits <= 9
+                            && (nano = digits(i + 1, fractionDigits)) >= 0;
+                    for (int k = fractionDigits; valid && k < 9; k++) {
+                        nano *= 10;
+                    }
+                }
+            }
+            if (valid) {
+                result = LocalDateTime.of(year, month, day, hour, minute, second, nano);
+            }
+        }
+        if (result == null) {
+            result = LocalDateTime.parse(decode(start, fieldEnd));
+        }
+        cursor = fieldEnd;
+        endField();
+        return result;
+    }
+
+    /**
+     * Citeste campul curent ca String (echivalent cu camp.trim()), decodat UTF-8.
+     * @return Valoarea campului.
+     */
+    public String readString() {
+        skipWhitespace();
+        int start = cursor;
+        int fieldEnd = trimmedFieldEnd();
+        String value = decode(start, fieldEnd);
+        cursor = fieldEnd;
+        endField();
+        return value;
+    }
+
+    /**
+     * Verifica daca pozitia curenta (dupa spatii) este la finalul campului.
+     * @return true daca urmeaza separatorul ';' sau sfarsitul randului.
+     */
+    public boolean atFieldEnd() {
+        skipWhitespace();
+        return cursor >= rowEnd || buffer.get(cursor) == SEPARATOR;
+    }
+
+    /**
+     * Consuma caracterul dat daca acesta urmeaza (dupa spatii).
+     * @param delimiter Caracterul asteptat (ex: ':' sau '|').
+     * @return true daca a fost consumat.
+     */
+    public boolean skip(char delimiter) {
+        skipWhitespace();
+        if (cursor < rowEnd && buffer.get(cursor) == delimiter) {
+            cursor++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Avanseaza dupa urmatoarea aparitie a caracterului dat din campul curent
+     * (sau pana la finalul campului daca acesta nu apare). Folosit pentru a ignora sub-campuri invalide.
+     * @param delimiter Caracterul cautat.
+     */
+    public void skipPast(char delimiter) {
+        int fieldEnd = fieldEnd();
+        while (cursor < fieldEnd && buffer.get(cursor) != delimiter) {
+            cursor++;
+        }
+        if (cursor < fieldEnd) {
+            cursor++;
+        }
+    }
+
+    /**
+     * Incheie campul curent: dupa spatii trebuie sa urmeze ';' (consumat) sau sfarsitul randului.
+     * @throws NumberFormatException Daca in camp au ramas caractere neconsumate.
+     */
+    public void endField() {
+        skipWhitespace();
+        if (cursor < rowEnd) {
+            if (buffer.get(cursor) != SEPARATOR) {
+                int fieldEnd = trimmedFieldEnd();
+                throw new NumberFormatException("Unexpected characters in field: \"" + decode(cursor, fieldEnd) + "\"");
+            }
+            cursor++;
+        }
+    }
+
+    /**
+     * Sare peste campul curent (inclusiv separatorul).
+     */
+    public void skipField() {
+        cursor = fieldEnd();
+        if (cursor < rowEnd) {
+            cursor++;
+        }
+    }
+
+    /**
+     * Returneaza randul curent ca String (folosit doar in mesaje de eroare).
+     * @return Randul curent.
+     */
+    public String currentRow() {
+        return decode(rowStart, rowEnd);
+    }
+
+    /**
+     * Elibereaza fisierul.
+     * @throws IOException Daca inchiderea esueaza.
+     */
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+
+    /**
+     * Imparte un fisier in cel mult {@code parts} intervale de bytes aliniate la inceput de rand.
+     * @param file Fisierul.
+     * @param parts Numarul dorit de intervale.
+     * @return Offset-urile de granita (primul este 0, ultimul este dimensiunea fisierului).
+     * @throws IOException Daca fisierul nu poate fi citit.
+     */
+    public static long[] splitAtRows(Path file, int parts) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long[] bounds = new long[parts + 1];
+            int count = 1;
+            ByteBuffer chunk = ByteBuffer.allocate(4096);
+            for (int p = 1; p < parts; p++) {
+                long candidate = Math.max(size * p / parts, bounds[count - 1]);
+                long boundary = size;
+                long at = candidate;
+                search:
+                while (at < size) {
+                    chunk.clear();
+                    int read = ch.read(chunk, at);
+                    if (read <= 0) {
+                        break;
+                    }
+                    for (int k = 0; k < read; k++) {
+                        if (chunk.get(k) == '\n') {
+                            boundary = at + k + 1;
+                            break search;
+                        }
+                    }
+                    at += read;
+                }
+                if (boundary > bounds[count - 1] && boundary < size) {
+                    bounds[count++] = boundary;
+                }
+            }
+            bounds[count++] = size;
+            return Arrays.copyOf(bounds, count);
+        }
+    }
+
+    // Mapeaza o fereastra noua care incepe la offset-ul dat din fisier
+    private void map(long fileOffset) throws IOException {
+        long length = Math.min(WINDOW_SIZE, end - fileOffset);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, fileOffset, Math.max(0, length));
+        bufferStart = fileOffset;
+        pos = 0;
+    }
+
+    private int indexOf(byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Returneaza valoarea a {@code count} cifre zecimale sau -1 daca apare un caracter invalid
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = buffer.get(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private void skipWhitespace() {
+        while (cursor < rowEnd && (buffer.get(cursor) & 0xFF) <= ' ') {
+            cursor++;
+        }
+    }
+
+    private int fieldEnd() {
+        int i = cursor;
+        while (i < rowEnd && buffer.get(i) != SEPARATOR) {
+            i++;
+        }
+        return i;
+    }
+
+    // Finalul campului curent, fara spatiile de la sfarsit
+    private int trimmedFieldEnd() {
+        int i = fieldEnd();
+        while (i > cursor && (buffer.get(i - 1) & 0xFF) <= ' ') {
+            i--;
+        }
+        return i;
+    }
+
+    private String decode(int from, int to) {
+        int length = to - from;
+        if (length <= 0) {
+            return "";
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private NumberFormatException numberFormatError(int from, int to) {
+        int fieldEnd = Math.max(to, trimmedFieldEnd());
+        return new NumberFormatException("For input string: \"" + decode(from, fieldEnd) + "\"");
+    }
+}
@@ -0,0 +1,223 @@
+package repository;
+
+import model.Order;
+import model.OrderLines;
+import model.OrderStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Scriitor de randuri orders.txt (ID;Client;Produse;Data;Status;Total) direct in bytes.
+ * Fiecare comanda este codificata intr-un buffer refolosit, fara String-uri intermediare
+ * (numere si date codificate manual); buffer-ul este scris in fluxul de iesire in bucati mari.
+ * Formatul este identic cu cel produs de serializarea text: data ca ISO_LOCAL_DATE_TIME,
+ * iar totalul intr-o forma care se citeste inapoi exact ca aceeasi valoare float.
+ * Clasa nu este thread-safe.
+ */
+final class OrderRowWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    // Cel mai lung rand fara linii de produse: 2 int-uri, data cu nanosecunde, status, float in forma stiintifica
+    private static final int MAX_FIXED_ROW = 128;
+    // Un int (11) + ':' + un int (11) + '|'
+    private static final int MAX_LINE_BYTES = 24;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] STATUS_NAMES = statusNames();
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    // Sub aceasta valoare, un total cu cel mult 2 zecimale se scrie fara Float.toString
+    private static final float MAX_FAST_FLOAT = 1e7f;
+
+    private final OutputStream out;
+    private byte[] buffer;
+    private int position;
+
+    /**
+     * Constructor.
+     * @param out Fluxul in care se scriu randurile (nu este inchis de acest obiect).
+     */
+    OrderRowWriter(OutputStream out) {
+        this.out = out;
+        this.buffer = new byte[DEFAULT_BUFFER_SIZE];
+    }
+
+    /**
+     * Adauga randul unei comenzi, urmat de separatorul de linie.
+     * @param order Comanda de scris.
+     * @throws IOException Daca scrierea unui bloc plin esueaza.
+     */
+    void write(Order order) throws IOException {
+        OrderLines lines = order.getLines();
+        ensureCapacity(MAX_FIXED_ROW + lines.size() * MAX_LINE_BYTES);
+        putInt(order.getId());
+        buffer[position++] = ';';
+        putInt(order.getClientId());
+        buffer[position++] = ';';
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                buffer[position++] = '|';
+            }
+            putInt(lines.productIdAt(i));
+            buffer[position++] = ':';
+            putInt(lines.quantityAt(i));
+        }
+        buffer[position++] = ';';
+        putDateTime(order.getOrderDate());
+        buffer[position++] = ';';
+        OrderStatus status = order.getStatus();
+        putBytes(status == null ? NULL : STATUS_NAMES[status.ordinal()]);
+        buffer[position++] = ';';
+        putFloat(order.getTotalAmount());
+        putBytes(LINE_SEPARATOR);
+    }
+
+    /**
+     * Scrie in flux tot ce a ramas in buffer.
+     * @throws IOException Daca scrierea esueaza.
+     */
+    void flush() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        out.flush();
+    }
+
+    // Goleste buffer-ul daca nu mai are loc un rand de dimensiunea data (sau il mareste pentru un rand foarte lung)
+    private void ensureCapacity(int needed) throws IOException {
+        if (buffer.length - position >= needed) {
+            return;
+        }
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        if (buffer.length < needed) {
+            buffer = new byte[needed];
+        }
+    }
+
+    private void putBytes(byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void putInt(int value) {
+        putLong(value);
+    }
+
+    private void putLong(long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                putAscii(Long.toString(value));
+                return;
+            }
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int length = digitCount(value);
+        int end = position + length;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    // Scrie exact 'width' cifre, cu zerouri la inceput
+    private void putPadded(int value, int width) {
+        for (int i = position + width - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += width;
+    }
+
+    /**
+     * Data in format ISO_LOCAL_DATE_TIME: yyyy-MM-ddTHH:mm:ss, urmata de fractiunea de secunda
+     * fara zerourile de la final (daca exista). Anii in afara intervalului 0-9999 folosesc formatter-ul.
+     */
+    private void putDateTime(LocalDateTime date) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            putAscii(date.format(DATE_FORMATTER));
+            return;
+        }
+        putPadded(year, 4);
+        buffer[position++] = '-';
+        putPadded(date.getMonthValue(), 2);
+        buffer[position++] = '-';
+        putPadded(date.getDayOfMonth(), 2);
+        buffer[position++] = 'T';
+        putPadded(date.getHour(), 2);
+        buffer[position++] = ':';
+        putPadded(date.getMinute(), 2);
+        buffer[position++] = ':';
+        putPadded(date.getSecond(), 2);
+        int nano = date.getNano();
+        if (nano != 0) {
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            buffer[position++] = '.';
+            putPadded(nano, digits);
+        }
+    }
+
+    /**
+     * Totalul comenzii. Valorile cu cel mult 2 zecimale (cazul obisnuit pentru preturi) se scriu direct,
+     * dupa ce se verifica faptul ca forma zecimala se citeste inapoi ca exact acelasi float;
+     * restul (si NaN/infinit) folosesc Float.toString.
+     */
+    private void putFloat(float value) {
+        if (Math.abs(value) < MAX_FAST_FLOAT) {
+            long cents = Math.round((double) value * 100);
+            if ((float) (cents / 100.0) == value && (cents != 0 || Float.floatToRawIntBits(value) == 0)) {
+                if (cents < 0) {
+                    buffer[position++] = '-';
+                    cents = -cents;
+                }
+                putLong(cents / 100);
+                buffer[position++] = '.';
+                int fraction = (int) (cents % 100);
+                if (fraction % 10 == 0) {
+                    buffer[position++] = (byte) ('0' + fraction / 10);
+                } else {
+                    putPadded(fraction, 2);
+                }
+                return;
+            }
+        }
+        putAscii(Float.toString(value));
+    }
+
+    private void putAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            buffer[position++] = (byte) text.charAt(i);
+        }
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private static byte[][] statusNames() {
+        OrderStatus[] statuses = OrderStatus.values();
+        byte[][] names = new byte[statuses.length][];
+        for (int i = 0; i < statuses.length; i++) {
+            names[i] = statuses[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,219 @@
+package repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fisier impartit in pagini de dimensiune fixa, cu un cache LRU de pagini in memorie.
+ * Paginile modificate (dirty) sunt scrise pe disc la evacuarea din cache sau la {@link #flush()}.
+ * Pagina 0 este rezervata antetului proprietarului fisierului. Clasa nu este thread-safe:
+ * apelantul serializeaza accesul.
+ */
+public class PageFile implements Closeable {
+
+    /** Dimensiunea unei pagini, in octeti. */
+    public static final int PAGE_SIZE = 4096;
+    /**
+     * Numarul minim de pagini din cache. O operatie pe arbore tine referinte la paginile de pe drumul
+     * radacina-frunza si la cele create prin divizare; cu acest minim ele nu pot fi evacuate in timpul operatiei.
+     */
+    public static final int MIN_CACHE_PAGES = 64;
+
+    /**
+     * O pagina din cache: continutul si starea de modificare.
+     */
+    public static final class Page {
+        private final int id;
+        private final ByteBuffer buffer;
+        private boolean dirty;
+
+        private Page(int id, ByteBuffer buffer) {
+            this.id = id;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Returneaza numarul paginii in fisier.
+         * @return ID-ul paginii.
+         */
+        public int id() {
+            return id;
+        }
+
+        /**
+         * Returneaza continutul paginii (pozitia buffer-ului nu este folosita; se acceseaza absolut).
+         * @return Buffer-ul paginii.
+         */
+        public ByteBuffer buffer() {
+            return buffer;
+        }
+
+        /**
+         * Marcheaza pagina ca modificata, pentru a fi scrisa pe disc.
+         */
+        public void markDirty() {
+            dirty = true;
+        }
+    }
+
+    private final FileChannel channel;
+    private final LinkedHashMap<Integer, Page> cache;
+    private int pageCount;
+    private IOException evictionFailure;
+
+    /**
+     * Deschide (sau creeaza) fisierul de pagini.
+     * @param path Calea fisierului.
+     * @param cachePages Numarul maxim de pagini tinute in memorie (cel putin {@link #MIN_CACHE_PAGES}).
+     * @throws IOException Daca fisierul nu poate fi deschis.
+     */
+    public PageFile(Path path, int cachePages) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        // O pagina incompleta la final (scriere intrerupta) este ignorata
+        this.pageCount = (int) Math.max(1, size / PAGE_SIZE);
+        int capacity = Math.max(MIN_CACHE_PAGES, cachePages);
+        this.cache = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                writeIfDirty(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returneaza pagina ceruta, din cache sau citita de pe disc.
+     * @param id Numarul paginii.
+     * @return Pagina.
+     * @throws IOException Daca citirea sau o evacuare anterioara a esuat.
+     */
+    public Page get(int id) throws IOException {
+        checkEvictionFailure();
+        Page page = cache.get(id);
+        if (page != null) {
+            return page;
+        }
+        if (id < 0 || id >= pageCount) {
+            throw new IOException("Page " + id + " is out of range (page count " + pageCount + ").");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        long position = (long) id * PAGE_SIZE;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break; // pagina 0 a unui fisier nou: restul ramane zero
+            }
+        }
+        page = new Page(id, buffer);
+        cache.put(id, page);
+        checkEvictionFailure();
+        return page;
+    }
+
+    /**
+     * Aloca o pagina noua, goala, la sfarsitul fisierului.
+     * @return Pagina alocata (deja marcata ca modificata).
+     * @throws IOException Daca o evacuare anterioara a esuat.
+     */
+    public Page allocate() throws IOException {
+        checkEvictionFailure();
+        Page page = new Page(pageCount++, ByteBuffer.allocate(PAGE_SIZE));
+        page.markDirty();
+        cache.put(page.id(), page);
+        checkEvictionFailure();
+        return page;
+    }
+
+    /**
+     * Returneaza numarul de pagini din fisier (inclusiv antetul).
+     * @return Numarul de pagini.
+     */
+    public int pageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Goleste fisierul: raman doar pagina de antet (zero) si un cache gol.
+     * @throws IOException Daca trunchierea esueaza.
+     */
+    public void reset() throws IOException {
+        cache.clear();
+        evictionFailure = null;
+        channel.truncate(0);
+        pageCount = 1;
+    }
+
+    /**
+     * Scrie toate paginile modificate si sincronizeaza fisierul pe disc.
+     * @return Numarul de bytes scrisi.
+     * @throws IOException Daca scrierea esueaza.
+     */
+    public long flush() throws IOException {
+        checkEvictionFailure();
+        long written = 0;
+        Iterator<Page> pages = cache.values().iterator();
+        while (pages.hasNext()) {
+            if (write(pages.next())) {
+                written += PAGE_SIZE;
+            }
+        }
+        channel.force(false);
+        return written;
+    }
+
+    /**
+     * Scrie imediat o singura pagina (ex: antetul) si o sincronizeaza pe disc.
+     * @param page Pagina de scris.
+     * @throws IOException Daca scrierea esueaza.
+     */
+    public void writeThrough(Page page) throws IOException {
+        page.markDirty();
+        write(page);
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void writeIfDirty(Page page) {
+        try {
+            write(page);
+        } catch (IOException e) {
+            // removeEldestEntry nu poate arunca IOException: eroarea este raportata la urmatorul acces
+            evictionFailure = e;
+        }
+    }
+
+    private boolean write(Page page) throws IOException {
+        if (!page.dirty) {
+            return false;
+        }
+        ByteBuffer source = page.buffer.duplicate();
+        source.clear();
+        long position = (long) page.id * PAGE_SIZE;
+        while (source.hasRemaining()) {
+            channel.write(source, position + source.position());
+        }
+        page.dirty = false;
+        return true;
+    }
+
+    private void checkEvictionFailure() throws IOException {
+        if (evictionFailure != null) {
+            throw new IOException("A cached page could not be written back.", evictionFailure);
+        }
+    }
+}
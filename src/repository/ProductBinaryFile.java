@@ -0,0 +1,250 @@
+package repository;
+
+import model.Product;
+import model.ProductType;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Formatul binar, pe coloane, al snapshot-ului catalogului de produse (products.bin).
+ * <pre>
+ * antet:    magic "OSPB" | versiune | numar produse N | numar tipuri T | dimensiune heap H   (int-uri)
+ * tipuri:   T nume de ProductType (short lungime + ASCII), indexate de coloana de tipuri
+ * coloane:  id[N] (int) | pret[N] (float) | stoc[N] (int) | tip[N] (byte) | null[N] (byte, bit0 nume, bit1 descriere)
+ * offset-uri: 2N+1 int-uri; sirul k ocupa heap[offset[k], offset[k+1]) (numele = 2i, descrierea = 2i+1)
+ * heap:     H octeti UTF-8
+ * </pre>
+ * Spre deosebire de products.txt, numele si descrierile pot contine orice caracter (inclusiv ';'),
+ * iar incarcarea este o singura citire memory-mapped, fara parsare de text.
+ */
+public class ProductBinaryFile {
+
+    private static final int MAGIC = 0x4F535042; // "OSPB"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+    private static final ProductType[] PRODUCT_TYPES = ProductType.values();
+
+    private ProductBinaryFile() {
+    }
+
+    /**
+     * Scrie produsele in format binar.
+     * @param products Produsele de scris (colectia poate fi modificata concurent: se lucreaza pe o copie).
+     * @param out Fluxul de iesire (nu este inchis).
+     * @throws IOException Daca scrierea esueaza.
+     */
+    public static void write(Collection<Product> products, OutputStream out) throws IOException {
+        Product[] rows = products.toArray(new Product[0]);
+        int count = rows.length;
+
+        // Heap-ul de siruri si offset-urile se construiesc inaintea scrierii coloanelor
+        byte[][] strings = new byte[2 * count][];
+        int[] offsets = new int[2 * count + 1];
+        byte[] nullFlags = new byte[count];
+        int heapSize = 0;
+        for (int i = 0; i < count; i++) {
+            String name = rows[i].getName();
+            String description = rows[i].getDescription();
+            nullFlags[i] = (byte) ((name == null ? 1 : 0) | (description == null ? 2 : 0));
+            strings[2 * i] = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+            strings[2 * i + 1] = description == null ? new byte[0] : description.getBytes(StandardCharsets.UTF_8);
+            offsets[2 * i] = heapSize;
+            heapSize = Math.addExact(heapSize, strings[2 * i].length);
+            offsets[2 * i + 1] = heapSize;
+            heapSize = Math.addExact(heapSize, strings[2 * i + 1].length);
+        }
+        offsets[2 * count] = heapSize;
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(count);
+        data.writeInt(PRODUCT_TYPES.length);
+        data.writeInt(heapSize);
+        for (ProductType type : PRODUCT_TYPES) {
+            data.writeShort(type.name().length());
+            data.write(type.name().getBytes(StandardCharsets.US_ASCII));
+        }
+        for (Product p : rows) {
+            data.writeInt(p.getId());
+        }
+        for (Product p : rows) {
+            data.writeFloat(p.getPrice());
+        }
+        for (Product p : rows) {
+            data.writeInt(p.getStockQuantity());
+        }
+        for (Product p : rows) {
+            data.writeByte(p.getProductType() == null ? -1 : p.getProductType().ordinal());
+        }
+        data.write(nullFlags);
+        for (int offset : offsets) {
+            data.writeInt(offset);
+        }
+        for (byte[] bytes : strings) {
+            data.write(bytes);
+        }
+        data.flush();
+    }
+
+    /**
+     * Citeste toate produsele dintr-un fisier binar, printr-o singura mapare in memorie.
+     * @param path Calea fisierului products.bin.
+     * @return Produsele, in ordinea din fisier.
+     * @throws IOException Daca fisierul nu poate fi citit.
+     * @throws DataProcessingException Daca fisierul nu are formatul asteptat.
+     */
+    public static List<Product> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new DataProcessingException("Invalid product binary file " + path + ": unexpected size " + size + ".");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            try {
+                return read(buffer, path);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException | IllegalArgumentException e) {
+                throw new DataProcessingException("Invalid product binary file " + path + ": truncated or corrupt.", e);
+            }
+        }
+    }
+
+    private static List<Product> read(ByteBuffer buffer, Path path) {
+        if (buffer.getInt() != MAGIC) {
+            throw new DataProcessingException("Invalid product binary file " + path + ": bad magic number.");
+        }
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new DataProcessingException("Unsupported product binary file version " + version + " in " + path + ".");
+        }
+        int count = buffer.getInt();
+        int typeCount = buffer.getInt();
+        int heapSize = buffer.getInt();
+        if (count < 0 || typeCount < 0 || heapSize < 0) {
+            throw new DataProcessingException("Invalid product binary file " + path + ": negative header field.");
+        }
+        // Verificare inainte de alocare: un antet corupt nu trebuie sa ceara vectori uriasi
+        long columnBytes = (long) count * (2 * Integer.BYTES + Float.BYTES + 2 + 2 * Integer.BYTES) + Integer.BYTES;
+        if (columnBytes + heapSize > buffer.remaining()) {
+            throw new DataProcessingException("Invalid product binary file " + path + ": truncated or corrupt.");
+        }
+
+        // Dictionarul de tipuri: rezistent la reordonarea constantelor din ProductType
+        ProductType[] types = new ProductType[typeCount];
+        for (int t = 0; t < typeCount; t++) {
+            byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+            types[t] = ProductType.valueOf(new String(name, StandardCharsets.US_ASCII));
+        }
+
+        int[] ids = new int[count];
+        float[] prices = new float[count];
+        int[] stocks = new int[count];
+        byte[] typeIndexes = new byte[count];
+        byte[] nullFlags = new byte[count];
+        int[] offsets = new int[2 * count + 1];
+        buffer.asIntBuffer().get(ids);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        buffer.asFloatBuffer().get(prices);
+        buffer.position(buffer.position() + count * Float.BYTES);
+        buffer.asIntBuffer().get(stocks);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        buffer.get(typeIndexes);
+        buffer.get(nullFlags);
+        buffer.asIntBuffer().get(offsets);
+        buffer.position(buffer.position() + offsets.length * Integer.BYTES);
+        byte[] heap = new byte[heapSize];
+        buffer.get(heap);
+
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int typeIndex = typeIndexes[i];
+            ProductType type = typeIndex < 0 ? null : types[typeIndex];
+            String name = (nullFlags[i] & 1) != 0 ? null : heapString(heap, offsets, 2 * i, path);
+            String description = (nullFlags[i] & 2) != 0 ? null : heapString(heap, offsets, 2 * i + 1, path);
+            products.add(new Product(ids[i], name, prices[i], type, stocks[i], description));
+        }
+        return products;
+    }
+
+    private static String heapString(byte[] heap, int[] offsets, int index, Path path) {
+        int start = offsets[index];
+        int end = offsets[index + 1];
+        if (start < 0 || end < start || end > heap.length) {
+            throw new DataProcessingException("Invalid product binary file " + path + ": string offset out of range.");
+        }
+        return new String(heap, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Converteste un fisier products.txt in formatul binar (scriere atomica).
+     * @param textFile Fisierul text sursa.
+     * @param binaryFile Fisierul binar destinatie.
+     * @return Numarul de produse convertite.
+     * @throws DataProcessingException Daca fisierul text nu poate fi citit sau contine randuri invalide.
+     */
+    public static int convertFromText(Path textFile, Path binaryFile) {
+        List<Product> products = new ArrayList<>();
+        try (MappedRowReader reader = new MappedRowReader(textFile)) {
+            while (reader.nextRow()) {
+                products.add(RepositoryProduct.parseProduct(reader));
+            }
+        } catch (IOException e) {
+            throw new DataProcessingException("Product data file " + textFile + " could not be read.", e);
+        }
+        Journal.writeAtomically(binaryFile, out -> write(products, out));
+        return products.size();
+    }
+
+    /**
+     * Converteste un fisier products.bin in formatul text (scriere atomica).
+     * @param binaryFile Fisierul binar sursa.
+     * @param textFile Fisierul text destinatie.
+     * @return Numarul de produse convertite.
+     * @throws DataProcessingException Daca fisierul binar nu poate fi citit sau nu are formatul asteptat.
+     */
+    public static int convertToText(Path binaryFile, Path textFile) {
+        List<Product> products;
+        try {
+            products = read(binaryFile);
+        } catch (IOException e) {
+            throw new DataProcessingException("Product data file " + binaryFile + " could not be read.", e);
+        }
+        // Formatul text nu poate reprezenta separatorul sau liniile noi din nume/descrieri
+        for (Product p : products) {
+            if (!fitsTextRow(p.getName()) || !fitsTextRow(p.getDescription())) {
+                throw new DataProcessingException("Product " + p.getId() + " contains ';' or a line break and cannot be stored in " + textFile + ".");
+            }
+        }
+        Journal.writeAtomically(textFile, out -> RepositoryProduct.writeTextSnapshot(products, out));
+        return products.size();
+    }
+
+    private static boolean fitsTextRow(String value) {
+        return value == null || (value.indexOf(';') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0);
+    }
+
+    /**
+     * Utilitar de conversie din linia de comanda: {@code ProductBinaryFile [products.txt] [products.bin]}.
+     * @param args Fisierul sursa si fisierul destinatie (implicit data/products.txt si data/products.bin).
+     */
+    public static void main(String[] args) {
+        Path textFile = Paths.get(args.length > 0 ? args[0] : DataDirectory.file("products.txt"));
+        Path binaryFile = Paths.get(args.length > 1 ? args[1] : DataDirectory.file("products.bin"));
+        int count = convertFromText(textFile, binaryFile);
+        System.out.println("Converted " + count + " products from " + textFile + " to " + binaryFile + ".");
+    }
+}
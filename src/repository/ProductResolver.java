@@ -0,0 +1,41 @@
+package repository;
+
+import model.Product;
+import model.ProductType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rezolva ID-urile de produs din liniile comenzilor la instantele canonice din catalog.
+ * Pentru produsele care nu (mai) exista in catalog foloseste cate un singur obiect "Minimal" per ID,
+ * astfel incat toate liniile care refera acelasi produs impart aceeasi instanta.
+ */
+class ProductResolver {
+
+    // Sursa produselor canonice (null = doar produse "Minimal")
+    private final IRepository<Product, Integer> productRepository;
+    private final Map<Integer, Product> placeholderProducts = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param productRepository Repository-ul de Produse (poate fi null).
+     */
+    ProductResolver(IRepository<Product, Integer> productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Returneaza produsul canonic pentru un ID de linie.
+     * @param productId ID-ul produsului.
+     * @return Produsul din catalog sau obiectul "Minimal" partajat.
+     */
+    Product resolve(int productId) {
+        Product product = productRepository == null ? null : productRepository.findById(productId);
+        if (product != null) {
+            return product;
+        }
+        return placeholderProducts.computeIfAbsent(productId,
+                id -> new Product(id, "N/A", 0.0f, ProductType.ELECTRONIC, 0, "Minimal"));
+    }
+}
@@ -1,39 +1,95 @@
 package repository;
 
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 import model.Client;
 import model.Product;
 import model.ProductType;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Implementarea concreta a IRepository pentru entitatea Client.
  * Gestioneaza operatiunile CRUD pe o colectie Map si persista datele in fisier text (clients.txt).
  * Implementeaza Cerintele 1, 2, 3, 4 (Persistenta si Colectii).
  */
-public class RepositoryClient implements IRepository<Client,Integer>{
+public class RepositoryClient implements IClientRepository, Checkpointable {
+    private static final LatencyHistogram LOAD_LATENCY = MetricsRegistry.getDefault()
+            .histogram("store_repository_load_seconds", "Duration of loadAllData (snapshot read and journal replay).", "repository", "clients");
+    private static final LatencyHistogram SAVE_LATENCY = MetricsRegistry.getDefault()
+            .histogram("store_repository_save_seconds", "Duration of saveAllData.", "repository", "clients");
 
     // Cerinta 3 & 4: Colectia interna pentru stocarea in memorie
     private final Map<Integer, Client> clients;
-    private final String FILE_NAME = "data/clients.txt";
+    // Index secundar: email normalizat (litere mici) -> client, pentru autentificare in O(1)
+    private final Map<String, Client> clientsByEmail;
+    // Cheia de email indexata pentru fiecare ID (pentru actualizarea indexului la schimbarea email-ului)
+    private final Map<Integer, String> emailKeys;
+    private final String FILE_NAME = DataDirectory.file("clients.txt");
+    private final String JOURNAL_FILE_NAME = DataDirectory.file("clients.journal");
     private static final String separator = ";";
 
+    // Jurnalul append-only in care se scrie fiecare modificare (save/delete)
+    private final Journal journal;
+    // Lock-uri pe ID: modificarea din memorie si inregistrarea din jurnal sunt atomice per entitate
+    private final StripedLocks locks = new StripedLocks(64);
+
     /**
      * Constructor. Initializeaza colectia si incarca datele la pornirea aplicatiei.
      */
     public RepositoryClient() {
-        this.clients = new HashMap<>();
+        this.clients = new ConcurrentHashMap<>();
+        this.clientsByEmail = new ConcurrentHashMap<>();
+        this.emailKeys = new ConcurrentHashMap<>();
+        this.journal = new Journal(JOURNAL_FILE_NAME, this::compact);
         loadAllData();
     }
 
     /**
-     * Salveaza sau actualizeaza un client in colectia din memorie.
+     * Salveaza sau actualizeaza un client in colectia din memorie si scrie modificarea in jurnal.
+     * Metoda revine dupa ce inregistrarea a fost sincronizata pe disc.
      * @param client Clientul de salvat/actualizat.
+     * @throws IllegalArgumentException Daca email-ul clientului apartine altui client.
      */
     @Override
     public void save(Client client) {
-        clients.put(client.getId(),client);
+        if (!saveIfEmailAvailable(client)) {
+            throw new IllegalArgumentException("Email '" + client.getEmail() + "' belongs to another client.");
+        }
+    }
+
+    /**
+     * Salveaza clientul doar daca email-ul lui nu este indexat pentru alt ID. Cheia de email este
+     * rezervata atomic in index inainte de modificarea colectiei si de scrierea in jurnal.
+     * @param client Clientul de salvat/actualizat.
+     * @return true daca clientul a fost salvat, false daca email-ul apartine altui client.
+     */
+    @Override
+    public boolean saveIfEmailAvailable(Client client) {
+        long ticket;
+        ReentrantLock lock = locks.lockFor(client.getId());
+        lock.lock();
+        try {
+            if (client.getEmail() != null) {
+                Client holder = clientsByEmail.compute(emailKey(client.getEmail()),
+                        (key, indexed) -> indexed == null || indexed.getId() == client.getId() ? client : indexed);
+                if (holder != client) {
+                    return false;
+                }
+            }
+            putClient(client);
+            ticket = journal.append(Journal.saveRecord(serialize(client)));
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitCommit(ticket);
+        return true;
     }
 
     /**
@@ -46,6 +102,19 @@ public class RepositoryClient implements IRepository<Client,Integer>{
         return clients.get(id);
     }
 
+    /**
+     * Cauta un client dupa email folosind indexul secundar (insensibil la majuscule).
+     * @param email Email-ul cautat.
+     * @return Clientul gasit sau null.
+     */
+    @Override
+    public Client findByEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        return clientsByEmail.get(emailKey(email));
+    }
+
     /**
      * Returneaza lista tuturor clientilor din memorie.
      * @return Lista de obiecte Client.
@@ -56,76 +125,268 @@ public class RepositoryClient implements IRepository<Client,Integer>{
     }
 
     /**
-     * Sterge un client dupa ID.
+     * Parcurge clientii direct din colectia din memorie, fara copiere.
+     * @param action Actiunea aplicata fiecarui element.
+     */
+    @Override
+    public void forEach(Consumer<? super Client> action) {
+        clients.values().forEach(action);
+    }
+
+    /**
+     * Returneaza un Stream peste clientii din memorie, fara copiere.
+     * @return Stream-ul de obiecte Client.
+     */
+    @Override
+    public Stream<Client> stream() {
+        return clients.values().stream();
+    }
+
+    /**
+     * Returneaza numarul clientilor din memorie.
+     * @return Numarul de elemente.
+     */
+    @Override
+    public int count() {
+        return clients.size();
+    }
+
+    /**
+     * Sterge un client dupa ID si scrie stergerea in jurnal.
      * @param id ID-ul clientului de sters (Integer - clasa wrapper).
      */
     @Override
     public void delete(Integer id) {
-        clients.remove(id);
+        long ticket;
+        ReentrantLock lock = locks.lockFor(id);
+        lock.lock();
+        try {
+            removeClient(id);
+            ticket = journal.append(Journal.deleteRecord(id));
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitCommit(ticket);
+    }
+
+    /**
+     * Returneaza numele folosit in mesajele de checkpoint.
+     * @return "clients".
+     */
+    @Override
+    public String getCheckpointName() {
+        return "clients";
     }
 
     /**
-     * Salveaza toate datele din memorie in fisierul text (clients.txt).
-     * Implementeaza Cerinta 2 (Salvare la inchidere).
+     * Verifica daca jurnalul contine inregistrari neincluse inca in snapshot.
+     * @return true daca exista modificari de la ultimul checkpoint.
+     */
+    @Override
+    public boolean hasUncheckpointedChanges() {
+        return journal.hasRecords();
+    }
+
+    /**
+     * Rescrie snapshot-ul si goleste jurnalul (aceeasi operatie ca si compactarea din fundal).
+     * @return Numarul de bytes scrisi in snapshot.
+     */
+    @Override
+    public long checkpoint() {
+        return journal.checkpoint();
+    }
+
+    /**
+     * Persista modificarile din memorie. Fiecare save/delete este deja scris in jurnal,
+     * deci aici se asteapta doar sincronizarea ultimelor inregistrari (cost O(modificari)).
+     * Fisierul clients.txt este rescris de compactarea din fundal. Implementeaza Cerinta 2.
      * @throws DataProcessingException Daca apare o eroare de I/O.
      */
     @Override
     public void saveAllData() {
-        try(PrintWriter writer = new PrintWriter(new FileWriter((FILE_NAME)))){
-            for(Client client:clients.values()){
-                // Serializarea datelor (ID, Nume, Email, Parola, Adresa, Telefon)
-                String line = client.getId() + separator +
-                        client.getName() + separator +
-                        client.getEmail() + separator +
-                        client.getPassword() + separator +
-                        client.getDeliveryAddress() + separator +
-                        client.getPhoneNumber() ;
-                writer.println(line);
-            }
-        }catch(IOException e){
-            throw new DataProcessingException("Error I/O in client file",e);
+        long start = System.nanoTime();
+        try {
+            journal.sync();
+        } finally {
+            SAVE_LATENCY.recordSince(start);
         }
     }
 
     /**
-     * Incarca datele din clients.txt in colectia din memorie la pornirea aplicatiei.
+     * Verifica daca exista inregistrari de jurnal nesincronizate (save/delete in curs).
+     * @return true daca saveAllData() are ceva de scris.
+     */
+    @Override
+    public boolean hasUnsavedChanges() {
+        return journal.hasUnsyncedRecords();
+    }
+
+    /**
+     * Incarca datele din clients.txt in colectia din memorie la pornirea aplicatiei, apoi reaplica jurnalul.
      * Implementeaza Cerinta 2 (Restaurare).
+     * @throws DataProcessingException Daca un rand din clients.txt sau din jurnal este invalid (pornirea esueaza).
      */
     @Override
     public void loadAllData() {
-        File file = new File(FILE_NAME);
-        if(file.exists() && file.length()>0){
-            try (Scanner scanner = new Scanner(file)) {
-                int lineNumber = 0;
-                while(scanner.hasNextLine()){
-                    String line = scanner.nextLine();
-                    lineNumber++;
-                    String[] parts = line.split(separator);
-
-                    // Validare lungime (6 campuri asteptate)
-                    if(parts.length != 6){
-                        throw new DataProcessingException("Invalid line at row " + lineNumber + ": incorrect number of fields (expected 6).");
+        long start = System.nanoTime();
+        try {
+            File file = new File(FILE_NAME);
+            boolean snapshotExists = file.exists() && file.length()>0;
+            if(snapshotExists){
+                // Citire memory-mapped, un singur pas, fara String.split pe fiecare rand
+                try (MappedRowReader reader = new MappedRowReader(file.toPath())) {
+                    while(reader.nextRow()){
+                        putClient(parseClient(reader));
                     }
 
-                    try{
-                        // Parsare si reconstructie obiect Client
-                        int id =Integer.parseInt(parts[0].trim());
-                        Client c = new Client(id, parts[1].trim(), parts[2].trim(), parts[3].trim(), parts[4].trim(), parts[5].trim());
-                        clients.put(id,c);
-                    }catch (IllegalArgumentException e) {
-                        // Prinde erorile de parsare (NumberFormatException, etc.)
-                        throw new DataProcessingException("Parsing error at row " + lineNumber + ": invalid data type for client field.", e);
-                    }
+                }catch(IOException e){
+                    throw new DataProcessingException("Client data file could not be read.", e);
                 }
+            }
+
+            replayJournal();
+
+            if(!snapshotExists){
+                loadInitialData();
+            }
+        } finally {
+            LOAD_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Reaplica peste colectia din memorie modificarile din jurnal care nu au fost inca
+     * incluse in snapshot-ul clients.txt.
+     * @throws DataProcessingException Daca o inregistrare din jurnal este invalida (pornirea esueaza, vezi {@link Journal#replay}).
+     */
+    private void replayJournal() {
+        journal.replay(new Journal.RecordHandler() {
+            @Override
+            public void onSave(String row, int recordNumber) {
+                putClient(parseClient(row, "journal record " + recordNumber));
+            }
 
-            }catch(FileNotFoundException e){
-                throw new DataProcessingException("Client data file not found.", e);
-            } catch (DataProcessingException e) {
-                System.err.println(e.getMessage());
+            @Override
+            public void onDelete(String id, int recordNumber) {
+                try {
+                    removeClient(Integer.parseInt(id));
+                } catch (NumberFormatException e) {
+                    throw new DataProcessingException("Parsing error at journal record " + recordNumber + ": invalid client ID.", e);
+                }
             }
+        });
+    }
+
+    /**
+     * Adauga/inlocuieste clientul in colectie si actualizeaza indexul dupa email.
+     * @param client Clientul de adaugat.
+     */
+    private void putClient(Client client) {
+        clients.put(client.getId(), client);
+        String key = client.getEmail() == null ? null : emailKey(client.getEmail());
+        String previousKey = key == null ? emailKeys.remove(client.getId()) : emailKeys.put(client.getId(), key);
+        if (previousKey != null && !previousKey.equals(key)) {
+            // Email-ul s-a schimbat: eliminam vechea cheie doar daca inca indica acest client (atomic)
+            clientsByEmail.computeIfPresent(previousKey, (k, indexed) -> indexed.getId() == client.getId() ? null : indexed);
+        }
+        if (key != null) {
+            clientsByEmail.put(key, client);
         }
-        else{
-            loadInitialData();
+    }
+
+    /**
+     * Elimina clientul din colectie si din indexul dupa email.
+     * @param id ID-ul clientului.
+     */
+    private void removeClient(Integer id) {
+        Client removed = clients.remove(id);
+        String key = emailKeys.remove(id);
+        if (key != null && removed != null) {
+            clientsByEmail.remove(key, removed);
+        }
+    }
+
+    // Normalizeaza email-ul pentru cautarea insensibila la majuscule
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Compacteaza jurnalul: rescrie clients.txt cu starea curenta si elimina jurnalul vechi.
+     * Ruleaza pe firul de fundal al jurnalului, fara a bloca scrierile concurente.
+     */
+    private void compact() {
+        // Snapshot "fuzzy": jurnalul se roteste inainte de parcurgere, deci orice modificare
+        // care lipseste din snapshot se afla in jurnalul nou si este reaplicata la incarcare
+        journal.rotate();
+        journal.completeCompaction(FILE_NAME, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            for (Client client : clients.values()) {
+                writer.write(serialize(client));
+                writer.write(System.lineSeparator());
+            }
+            writer.flush();
+        });
+    }
+
+    /**
+     * Serializarea datelor (ID, Nume, Email, Parola, Adresa, Telefon).
+     * @param client Clientul de serializat.
+     * @return Randul text.
+     */
+    private String serialize(Client client) {
+        return client.getId() + separator +
+                client.getName() + separator +
+                client.getEmail() + separator +
+                client.getPassword() + separator +
+                client.getDeliveryAddress() + separator +
+                client.getPhoneNumber();
+    }
+
+    /**
+     * Parseaza randul curent al cititorului memory-mapped si reconstruieste obiectul Client.
+     * @param reader Cititorul pozitionat pe rand.
+     * @return Clientul reconstruit.
+     * @throws DataProcessingException Daca randul este invalid.
+     */
+    private Client parseClient(MappedRowReader reader) {
+        int lineNumber = reader.rowNumber();
+
+        // Validare lungime (6 campuri asteptate)
+        if(reader.fieldCount() != 6){
+            throw new DataProcessingException("Invalid line at row " + lineNumber + ": incorrect number of fields (expected 6).");
+        }
+
+        try{
+            int id = reader.readInt();
+            return new Client(id, reader.readString(), reader.readString(), reader.readString(), reader.readString(), reader.readString());
+        }catch (IllegalArgumentException e) {
+            throw new DataProcessingException("Parsing error at row " + lineNumber + ": invalid data type for client field.", e);
+        }
+    }
+
+    /**
+     * Parseaza un rand text si reconstruieste obiectul Client (folosit la reaplicarea jurnalului).
+     * @param line Randul citit.
+     * @param location Pozitia randului (pentru mesajele de eroare).
+     * @return Clientul reconstruit.
+     * @throws DataProcessingException Daca randul este invalid.
+     */
+    private Client parseClient(String line, String location) {
+        String[] parts = line.split(separator);
+
+        // Validare lungime (6 campuri asteptate)
+        if(parts.length != 6){
+            throw new DataProcessingException("Invalid line at " + location + ": incorrect number of fields (expected 6).");
+        }
+
+        try{
+            // Parsare si reconstructie obiect Client
+            int id =Integer.parseInt(parts[0].trim());
+            return new Client(id, parts[1].trim(), parts[2].trim(), parts[3].trim(), parts[4].trim(), parts[5].trim());
+        }catch (IllegalArgumentException e) {
+            // Prinde erorile de parsare (NumberFormatException, etc.)
+            throw new DataProcessingException("Parsing error at " + location + ": invalid data type for client field.", e);
         }
     }
 
@@ -136,8 +397,8 @@ public class RepositoryClient implements IRepository<Client,Integer>{
         if (clients.isEmpty()) {
             Client c1 = new Client(1, "John Smith", "john.s@example.com", "pass123", "123 Main St, NY", "0721234567");
             Client c2 = new Client(2, "Jane Doe", "jane.d@example.com", "pass456", "45 Oak Ave, CA", "0739876543");
-            clients.put(c1.getId(), c1);
-            clients.put(c2.getId(), c2);
+            save(c1);
+            save(c2);
             System.out.println("INFO: Client collection initialized with test data.");
         }
     }
@@ -1,34 +1,110 @@
 package repository;
 
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 import model.Order;
+import model.OrderLines;
 import model.OrderStatus;
 import model.Product;
-import model.ProductType;
 
 import java.io.*;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Implementarea concreta a IRepository pentru entitatea Order.
  * Gestioneaza operatiunile CRUD pe o colectie Map si persistenta in fisier text (orders.txt).
+ * In modul lenes, pornirea citeste doar antetul orders.meta (ID maxim, numar de comenzi),
+ * scris la inchiderea curata; comenzile sunt incarcate la primul acces care are nevoie de ele.
  */
 
-public class RepositoryOrder implements IRepository<Order,Integer>{
+public class RepositoryOrder implements IOrderRepository, Checkpointable {
+    private static final LatencyHistogram LOAD_LATENCY = MetricsRegistry.getDefault()
+            .histogram("store_repository_load_seconds", "Duration of loadAllData (snapshot read and journal replay).", "repository", "orders");
+    private static final LatencyHistogram SAVE_LATENCY = MetricsRegistry.getDefault()
+            .histogram("store_repository_save_seconds", "Duration of saveAllData.", "repository", "orders");
+
     private final Map<Integer, Order> orders;
-    private final String FILE_NAME = "data/orders.txt";
+    // Index secundar: clientId -> ID-urile comenzilor clientului (sortate crescator)
+    private final Map<Integer, List<Integer>> orderIdsByClient;
+    private final String FILE_NAME = DataDirectory.file("orders.txt");
+    private final String JOURNAL_FILE_NAME = DataDirectory.file("orders.journal");
+    private final String HEADER_FILE_NAME = DataDirectory.file("orders.meta");
     private static final String separator = ";";
+    private static final OrderStatus[] ORDER_STATUSES = OrderStatus.values();
     // Formatter necesar pentru a converti LocalDateTime in String si invers (Cerinta 1)
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
+    // Fisierele mai mici de atat sunt citite pe un singur fir
+    private static final long PARALLEL_CHUNK_SIZE = 8L * 1024 * 1024;
+
+    // Jurnalul append-only in care se scrie fiecare modificare (save/delete)
+    private final Journal journal;
+    // Lock-uri pe ID: modificarea din memorie si inregistrarea din jurnal sunt atomice per entitate
+    private final StripedLocks locks = new StripedLocks(64);
+
+    // Produsele canonice pentru liniile comenzilor (sau obiecte "Minimal" partajate)
+    private final ProductResolver productResolver;
+
+    // Modul lenes: comenzile se incarca la primul acces, nu in constructor
+    private final boolean lazy;
+    private final Object loadLock = new Object();
+    private volatile boolean loaded;
+    // Cel mai mare ID salvat vreodata (nu scade la stergere)
+    private final AtomicInteger maxId = new AtomicInteger();
+    // Numarul de comenzi din antet, folosit cat timp comenzile nu sunt incarcate
+    private int headerCount;
+    // true cat timp orders.meta de pe disc descrie starea curenta; prima modificare il sterge
+    private final Object headerLock = new Object();
+    private volatile boolean headerCurrent;
+
     /**
      * Constructor. Initializeaza colectia si incarca datele la pornire.
+     * Liniile comenzilor folosesc obiecte Product "Minimal" (fara catalog de produse).
      */
     public RepositoryOrder(){
-        this.orders = new HashMap<>();
+        this(null);
+    }
+
+    /**
+     * Constructor. Initializeaza colectia si incarca datele la pornire.
+     * Liniile comenzilor incarcate refera direct produsele canonice din Repository-ul de produse,
+     * care trebuie deci incarcat inaintea comenzilor.
+     * @param productRepository Repository-ul de Produse (poate fi null).
+     */
+    public RepositoryOrder(IRepository<Product, Integer> productRepository){
+        this(productRepository, false);
+    }
+
+    /**
+     * Constructor. In modul lenes, daca exista un antet valid (scris la ultima inchidere curata),
+     * pornirea nu citeste orders.txt; altfel comenzile sunt incarcate imediat.
+     * @param productRepository Repository-ul de Produse (poate fi null).
+     * @param lazy true pentru incarcarea comenzilor la primul acces.
+     */
+    public RepositoryOrder(IRepository<Product, Integer> productRepository, boolean lazy){
+        this.productResolver = new ProductResolver(productRepository);
+        this.lazy = lazy;
+        this.orders = new ConcurrentHashMap<>();
+        this.orderIdsByClient = new HashMap<>();
+        this.journal = new Journal(JOURNAL_FILE_NAME, this::compact);
         loadAllData();
     }
 
@@ -37,12 +113,93 @@ public class RepositoryOrder implements IRepository<Order,Integer>{
     // ----------------------------------------------------------------------
 
     /**
-     * Salveaza sau actualizeaza o comanda in colectia din memorie.
+     * Salveaza sau actualizeaza o comanda in colectia din memorie si scrie modificarea in jurnal.
+     * Metoda revine dupa ce inregistrarea a fost sincronizata pe disc. Daca scrierea in jurnal esueaza,
+     * comanda este scoasa din memorie (se revine la versiunea anterioara), ca apelantul sa poata elibera
+     * stocul rezervat fara ca o compactare ulterioara sa persiste comanda.
      * @param order Comanda de salvat/actualizat.
+     * @throws DataProcessingException Daca scrierea in jurnal esueaza.
      */
     @Override
     public void save(Order order) {
-        orders.put(order.getId(),order);
+        ensureLoaded();
+        String record = Journal.saveRecord(serialize(order));
+        long ticket;
+        Order previous;
+        ReentrantLock lock = locks.lockFor(order.getId());
+        lock.lock();
+        try {
+            previous = orders.get(order.getId());
+            putOrder(order);
+            ticket = journal.append(record);
+        } finally {
+            lock.unlock();
+        }
+        invalidateHeader();
+        try {
+            journal.awaitCommit(ticket);
+        } catch (RuntimeException e) {
+            rollback(order, previous);
+            throw e;
+        }
+    }
+
+    /**
+     * Salveaza mai multe comenzi; inregistrarile sunt adaugate in jurnal una dupa alta,
+     * iar metoda revine dupa o singura sincronizare pe disc, pentru tot lotul.
+     * Daca scrierea esueaza, toate comenzile lotului sunt scoase din memorie, ca la {@link #save(Order)}.
+     * @param orders Comenzile de salvat/actualizat.
+     * @throws DataProcessingException Daca scrierea in jurnal esueaza.
+     */
+    @Override
+    public void saveAll(Collection<? extends Order> orders) {
+        ensureLoaded();
+        long ticket = -1;
+        // Versiunile anterioare (null pentru comenzile noi), pentru revenire la eroare
+        List<Order> published = new ArrayList<>(orders.size());
+        List<Order> previous = new ArrayList<>(orders.size());
+        try {
+            for (Order order : orders) {
+                String record = Journal.saveRecord(serialize(order));
+                ReentrantLock lock = locks.lockFor(order.getId());
+                lock.lock();
+                try {
+                    previous.add(this.orders.get(order.getId()));
+                    published.add(order);
+                    putOrder(order);
+                    ticket = journal.append(record);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (ticket >= 0) {
+                invalidateHeader();
+                journal.awaitCommit(ticket);
+            }
+        } catch (RuntimeException e) {
+            for (int i = published.size() - 1; i >= 0; i--) {
+                rollback(published.get(i), previous.get(i));
+            }
+            throw e;
+        }
+    }
+
+    // Revine la versiunea anterioara a comenzii dupa o scriere esuata; o versiune salvata intre timp de alt fir ramane
+    private void rollback(Order order, Order previous) {
+        ReentrantLock lock = locks.lockFor(order.getId());
+        lock.lock();
+        try {
+            if (orders.get(order.getId()) != order) {
+                return;
+            }
+            if (previous != null) {
+                putOrder(previous);
+            } else {
+                removeOrder(order.getId());
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -52,6 +209,7 @@ public class RepositoryOrder implements IRepository<Order,Integer>{
      */
     @Override
     public Order findById(Integer id) {
+        ensureLoaded();
         return orders.get(id);
     }
 
@@ -61,83 +219,606 @@ public class RepositoryOrder implements IRepository<Order,Integer>{
      */
     @Override
     public List<Order> findAll() {
+        ensureLoaded();
         return new ArrayList<>(orders.values());
     }
 
     /**
-     * Sterge o comanda dupa ID.
+     * Parcurge comenzile direct din colectia din memorie, fara copiere.
+     * @param action Actiunea aplicata fiecarui element.
+     */
+    @Override
+    public void forEach(Consumer<? super Order> action) {
+        ensureLoaded();
+        orders.values().forEach(action);
+    }
+
+    /**
+     * Returneaza un Stream peste comenzile din memorie, fara copiere.
+     * @return Stream-ul de obiecte Order.
+     */
+    @Override
+    public Stream<Order> stream() {
+        ensureLoaded();
+        return orders.values().stream();
+    }
+
+    /**
+     * Returneaza numarul comenzilor. Inainte de incarcarea lenesa, valoarea vine din antet.
+     * @return Numarul de elemente.
+     */
+    @Override
+    public int count() {
+        return loaded ? orders.size() : headerCount;
+    }
+
+    /**
+     * Returneaza cel mai mare ID de comanda salvat. Inainte de incarcarea lenesa, valoarea vine din antet.
+     * @return ID-ul maxim sau 0 daca nu exista comenzi.
+     */
+    @Override
+    public int findMaxId() {
+        return maxId.get();
+    }
+
+    /**
+     * Returneaza o pagina din comenzile unui client folosind indexul clientId -> comenzi.
+     * @param clientId ID-ul clientului.
+     * @param offset Numarul de comenzi sarite de la inceput.
+     * @param limit Numarul maxim de comenzi returnate.
+     * @return Comenzile din pagina, ordonate crescator dupa ID.
+     */
+    @Override
+    public List<Order> findByClientId(int clientId, int offset, int limit) {
+        ensureLoaded();
+        synchronized (orderIdsByClient) {
+            List<Integer> ids = orderIdsByClient.get(clientId);
+            if (ids == null || offset >= ids.size() || limit <= 0) {
+                return new ArrayList<>();
+            }
+            int from = Math.max(0, offset);
+            int to = (int) Math.min(ids.size(), (long) from + limit);
+            List<Order> page = new ArrayList<>(to - from);
+            for (Integer id : ids.subList(from, to)) {
+                page.add(orders.get(id));
+            }
+            return page;
+        }
+    }
+
+    /**
+     * Returneaza numarul de comenzi ale unui client.
+     * @param clientId ID-ul clientului.
+     * @return Numarul de comenzi.
+     */
+    @Override
+    public int countByClientId(int clientId) {
+        ensureLoaded();
+        synchronized (orderIdsByClient) {
+            List<Integer> ids = orderIdsByClient.get(clientId);
+            return ids == null ? 0 : ids.size();
+        }
+    }
+
+    /**
+     * Sterge o comanda dupa ID si scrie stergerea in jurnal.
      * @param id ID-ul comenzii de sters (Integer - clasa wrapper).
      */
     @Override
     public void delete(Integer id) {
-        orders.remove(id);
+        ensureLoaded();
+        long ticket;
+        ReentrantLock lock = locks.lockFor(id);
+        lock.lock();
+        try {
+            removeOrder(id);
+            ticket = journal.append(Journal.deleteRecord(id));
+        } finally {
+            lock.unlock();
+        }
+        invalidateHeader();
+        journal.awaitCommit(ticket);
+    }
+
+    /**
+     * Returneaza numele folosit in mesajele de checkpoint.
+     * @return "orders".
+     */
+    @Override
+    public String getCheckpointName() {
+        return "orders";
+    }
+
+    /**
+     * Verifica daca jurnalul contine inregistrari neincluse inca in snapshot.
+     * Inainte de incarcarea lenesa nu exista stare de scris.
+     * @return true daca exista modificari de la ultimul checkpoint.
+     */
+    @Override
+    public boolean hasUncheckpointedChanges() {
+        return loaded && journal.hasRecords();
+    }
+
+    /**
+     * Rescrie snapshot-ul si goleste jurnalul (aceeasi operatie ca si compactarea din fundal).
+     * @return Numarul de bytes scrisi in snapshot.
+     */
+    @Override
+    public long checkpoint() {
+        return journal.checkpoint();
     }
 
     /**
-     * Salveaza toate datele din memorie in fisierul text (orders.txt).
-     * Implementeaza Cerinta 2 (Salvare la inchidere).
+     * Persista modificarile din memorie. Fiecare save/delete este deja scris in jurnal,
+     * deci aici se asteapta doar sincronizarea ultimelor inregistrari (cost O(modificari)),
+     * apoi se scrie antetul orders.meta pentru o pornire lenesa, doar daca s-a schimbat ceva de la ultima scriere.
+     * Fisierul orders.txt este rescris de compactarea din fundal. Implementeaza Cerinta 2.
      * @throws DataProcessingException Daca apare o eroare de I/O.
      */
     @Override
     public void saveAllData() {
-        try(PrintWriter writer = new PrintWriter(new FileWriter(FILE_NAME))){
-            for(Order order: orders.values()){
-                String productsString = serializeProducts(order.getProducts());
-
-                String line = order.getId() + separator +
-                              order.getClientId() + separator +
-                              productsString + separator +
-                              order.getOrderDate().format(DATE_FORMATTER) + separator +
-                              order.getStatus() + separator +
-                              order.getTotalAmount();
-                writer.println(line);
+        long start = System.nanoTime();
+        try {
+            journal.sync();
+            if (loaded && !headerCurrent) {
+                writeHeader();
             }
-        } catch (IOException e){
-            throw new DataProcessingException("I/O Error while saving order data.", e);
+        } finally {
+            SAVE_LATENCY.recordSince(start);
         }
     }
 
     /**
-     * Incarca datele din orders.txt in colectia din memorie la pornirea aplicatiei.
-     * Implementeaza Cerinta 2 (Restaurare).
+     * Verifica daca exista inregistrari de jurnal nesincronizate sau un antet orders.meta invalidat de modificari.
+     * @return true daca saveAllData() are ceva de scris.
+     */
+    @Override
+    public boolean hasUnsavedChanges() {
+        return journal.hasUnsyncedRecords() || (loaded && !headerCurrent);
+    }
+
+    /**
+     * Incarca datele din orders.txt in colectia din memorie la pornirea aplicatiei, apoi reaplica jurnalul.
+     * In modul lenes, cu un antet valid, citeste doar antetul. Implementeaza Cerinta 2 (Restaurare).
+     * @throws DataProcessingException Daca un rand din orders.txt sau din jurnal este invalid (pornirea esueaza;
+     * in modul lenes, primul acces esueaza, iar compactarea nu ruleaza cat timp comenzile nu sunt incarcate).
      */
     @Override
     public void loadAllData() {
+        long start = System.nanoTime();
+        try {
+            Path header = Paths.get(HEADER_FILE_NAME);
+            headerCurrent = Files.exists(header);
+            if (lazy && headerCurrent && readHeader(header)) {
+                return;
+            }
+            synchronized (loadLock) {
+                loadOrders();
+            }
+        } finally {
+            LOAD_LATENCY.recordSince(start);
+        }
+    }
+
+    // Incarca comenzile la primul acces (modul lenes); apelurile concurente asteapta aceeasi incarcare
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (loadLock) {
+                if (!loaded) {
+                    // Incarcarea amanata este masurata ca o incarcare separata
+                    long start = System.nanoTime();
+                    loadOrders();
+                    LOAD_LATENCY.recordSince(start);
+                }
+            }
+        }
+    }
+
+    /**
+     * Citeste snapshot-ul si jurnalul si reconstruieste indexul pe client (apelata cu loadLock detinut).
+     */
+    private void loadOrders() {
         File file = new File(FILE_NAME);
         if(file.exists() && file.length()>0){
-            try(Scanner scanner = new Scanner(file)){
-                int lineNumber = 0;
-                while(scanner.hasNextLine()){
-                    String line = scanner.nextLine();
-                    lineNumber++;
-                    String[] parts = line.split(separator);
-
-                    if(parts.length!= 6){
-                        throw new DataProcessingException("Invalid line at row " + lineNumber + ": incorrect number of fields (expected 6).");
-                    }
+            // Citire memory-mapped, in paralel pe bucati de fisier aliniate la rand
+            try{
+                loadSnapshotInParallel(file.toPath());
+            } catch (IOException e) {
+                throw new DataProcessingException("Order data file could not be read.", e);
+            }
+        }
 
-                    try{
-                        int id = Integer.parseInt(parts[0].trim());
-                        int clientId = Integer.parseInt(parts[1].trim());
+        replayJournal();
+        rebuildClientIndex();
+        for (Integer id : orders.keySet()) {
+            maxId.accumulateAndGet(id, Math::max);
+        }
+        loaded = true;
+    }
 
-                        Map<Product,Integer> productsMap = deserializeProducts(parts[2].trim());
+    /**
+     * Citeste antetul orders.meta ("IDmaxim;numarComenzi;dimensiune;dataModificarii"). Ultimele doua campuri
+     * descriu orders.txt la scrierea antetului: daca fisierul a fost inlocuit intre timp (restaurat dintr-o copie,
+     * regenerat), antetul nu mai corespunde si este ignorat.
+     * @return true daca antetul este valid si descrie orders.txt curent.
+     */
+    private boolean readHeader(Path header) {
+        try {
+            String[] parts = new String(Files.readAllBytes(header), StandardCharsets.UTF_8).trim().split(separator);
+            if (parts.length != 4) {
+                throw new DataProcessingException("Invalid order header " + header + ": incorrect number of fields (expected 4).");
+            }
+            int headerMaxId = Integer.parseInt(parts[0].trim());
+            int count = Integer.parseInt(parts[1].trim());
+            if (headerMaxId < 0 || count < 0) {
+                throw new DataProcessingException("Invalid order header " + header + ": negative field.");
+            }
+            File snapshot = new File(FILE_NAME);
+            if (Long.parseLong(parts[2].trim()) != snapshot.length() || Long.parseLong(parts[3].trim()) != snapshot.lastModified()) {
+                System.out.println("INFO: Order header " + header + " does not describe the current " + snapshot.getName() + ", loading all orders.");
+                return false;
+            }
+            maxId.accumulateAndGet(headerMaxId, Math::max);
+            headerCount = count;
+            return true;
+        } catch (IOException | NumberFormatException | DataProcessingException e) {
+            System.err.println("PERSISTENCE ERROR: Order header " + header + " is unreadable, loading all orders. " + e.getMessage());
+            return false;
+        }
+    }
 
-                        LocalDateTime orderDate = LocalDateTime.parse(parts[3].trim(),DATE_FORMATTER);
-                        OrderStatus status = OrderStatus.valueOf(parts[4].trim());
-                        float totalAmount = Float.parseFloat(parts[5].trim());
+    /**
+     * Scrie antetul orders.meta cu starea curenta si cu dimensiunea si data modificarii lui orders.txt.
+     * Indicatorul se seteaza inaintea citirii starii: o modificare concurenta fie este inclusa,
+     * fie sterge antetul dupa scriere (invalidateHeader).
+     */
+    private void writeHeader() {
+        synchronized (headerLock) {
+            headerCurrent = true;
+            File snapshot = new File(FILE_NAME);
+            String content = maxId.get() + separator + orders.size() + separator
+                    + snapshot.length() + separator + snapshot.lastModified() + System.lineSeparator();
+            Journal.writeAtomically(Paths.get(HEADER_FILE_NAME), out -> out.write(content.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    // O compactare rescrie orders.txt fara a schimba starea: un antet inca valabil se rescrie cu noul fisier
+    private void refreshHeader() {
+        synchronized (headerLock) {
+            if (headerCurrent) {
+                writeHeader();
+            }
+        }
+    }
+
+    // Prima modificare dupa scrierea antetului il sterge: dupa o oprire brusca, pornirea incarca totul
+    private void invalidateHeader() {
+        if (!headerCurrent) {
+            return;
+        }
+        synchronized (headerLock) {
+            if (headerCurrent) {
+                try {
+                    Files.deleteIfExists(Paths.get(HEADER_FILE_NAME));
+                } catch (IOException e) {
+                    throw new DataProcessingException("Order header " + HEADER_FILE_NAME + " could not be removed.", e);
+                }
+                headerCurrent = false;
+            }
+        }
+    }
+
+    /**
+     * Adauga/inlocuieste comanda in colectie si actualizeaza incremental indexul pe client.
+     * Se apeleaza sub lock-ul ID-ului; indexul are propriul monitor, comun tuturor ID-urilor.
+     * Daca o comanda existenta isi schimba clientul, trebuie salvata ca obiect nou
+     * (indexul foloseste clientId-ul instantei inlocuite).
+     * @param order Comanda de adaugat.
+     */
+    private void putOrder(Order order) {
+        Integer id = order.getId();
+        Order previous = orders.put(id, order);
+        maxId.accumulateAndGet(id, Math::max);
+        synchronized (orderIdsByClient) {
+            if (previous != null && previous.getClientId() != order.getClientId()) {
+                removeFromClientIndex(previous.getClientId(), id);
+            }
+            List<Integer> ids = orderIdsByClient.computeIfAbsent(order.getClientId(), k -> new ArrayList<>());
+            int position = Collections.binarySearch(ids, id);
+            if (position < 0) {
+                // ID-urile noi sunt de obicei cele mai mari, deci inserarea este de regula la final
+                ids.add(-position - 1, id);
+            }
+        }
+    }
+
+    /**
+     * Elimina comanda din colectie si din indexul pe client.
+     * @param id ID-ul comenzii.
+     */
+    private void removeOrder(Integer id) {
+        Order existing = orders.get(id);
+        if (existing == null) {
+            return;
+        }
+        // Indexul se actualizeaza inaintea colectiei, ca ID-urile din index sa existe mereu in colectie
+        synchronized (orderIdsByClient) {
+            removeFromClientIndex(existing.getClientId(), id);
+        }
+        orders.remove(id);
+    }
+
+    private void removeFromClientIndex(int clientId, Integer id) {
+        List<Integer> ids = orderIdsByClient.get(clientId);
+        if (ids == null) {
+            return;
+        }
+        int position = Collections.binarySearch(ids, id);
+        if (position >= 0) {
+            ids.remove(position);
+        }
+        if (ids.isEmpty()) {
+            orderIdsByClient.remove(clientId);
+        }
+    }
+
+    /**
+     * Reconstruieste indexul clientId -> comenzi dupa incarcare, intr-o singura trecere
+     * (adaugare + o sortare per client), refolosind cheile Integer ale colectiei principale.
+     */
+    private void rebuildClientIndex() {
+        synchronized (orderIdsByClient) {
+            orderIdsByClient.clear();
+            for (Map.Entry<Integer, Order> entry : orders.entrySet()) {
+                orderIdsByClient.computeIfAbsent(entry.getValue().getClientId(), k -> new ArrayList<>()).add(entry.getKey());
+            }
+            for (List<Integer> ids : orderIdsByClient.values()) {
+                Collections.sort(ids);
+            }
+        }
+    }
+
+    /**
+     * Imparte orders.txt in intervale de bytes aliniate la inceput de rand si le parseaza in paralel
+     * pe ForkJoinPool-ul comun. Rezultatele sunt adaugate in ordinea fisierului, deci la ID-uri duplicate
+     * castiga tot ultimul rand. La primul rand invalid incarcarea se opreste exact ca la citirea secventiala:
+     * randurile anterioare raman incarcate, iar eroarea raporteaza numarul global al randului.
+     * @param path Calea fisierului orders.txt.
+     * @throws IOException Daca fisierul nu poate fi citit.
+     * @throws DataProcessingException Daca un rand este invalid.
+     */
+    private void loadSnapshotInParallel(Path path) throws IOException {
+        long chunksBySize = Files.size(path) / PARALLEL_CHUNK_SIZE;
+        int chunkCount = (int) Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), chunksBySize));
+        long[] bounds = MappedRowReader.splitAtRows(path, chunkCount);
 
-                        Order o = new Order(id, clientId, productsMap, orderDate,status, totalAmount);
-                        orders.put(id,o);
-                    }catch (IllegalArgumentException e){
-                        throw new DataProcessingException("Parsing error at row " + lineNumber + ": invalid data type for order field.", e);
+        List<Callable<OrderChunk>> tasks = new ArrayList<>();
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            long start = bounds[i];
+            long end = bounds[i + 1];
+            tasks.add(() -> parseChunk(path, start, end));
+        }
+
+        List<OrderChunk> chunks = new ArrayList<>();
+        if (tasks.size() == 1) {
+            chunks.add(parseChunk(path, bounds[0], bounds[1]));
+        } else {
+            try {
+                for (Future<OrderChunk> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                    chunks.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataProcessingException("Order loading was interrupted.", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new DataProcessingException("Order loading failed.", e.getCause());
+            }
+        }
+
+        int rowsBefore = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            OrderChunk chunk = chunks.get(i);
+            for (Order o : chunk.orders) {
+                orders.put(o.getId(), o);
+            }
+            if (chunk.failedRow > 0) {
+                // Reparsam randul invalid cu numarul lui global pentru acelasi mesaj de eroare
+                try (MappedRowReader reader = new MappedRowReader(path, bounds[i], bounds[i + 1])) {
+                    while (reader.nextRow() && reader.rowNumber() < chunk.failedRow) {
+                        // avansam pana la randul invalid
                     }
+                    parseOrder(reader, rowsBefore + chunk.failedRow);
+                }
+                throw chunk.error;
+            }
+            rowsBefore += chunk.rows;
+        }
+    }
+
+    /**
+     * Parseaza un interval din orders.txt (rulat pe un fir din ForkJoinPool).
+     * Se opreste la primul rand invalid si retine numarul lui local.
+     */
+    private OrderChunk parseChunk(Path path, long start, long end) throws IOException {
+        OrderChunk chunk = new OrderChunk();
+        try (MappedRowReader reader = new MappedRowReader(path, start, end)) {
+            while (reader.nextRow()) {
+                try {
+                    chunk.orders.add(parseOrder(reader, reader.rowNumber()));
+                } catch (DataProcessingException e) {
+                    chunk.failedRow = reader.rowNumber();
+                    chunk.error = e;
+                    break;
+                }
+            }
+            chunk.rows = reader.rowNumber();
+        }
+        return chunk;
+    }
+
+    /**
+     * Rezultatul parsarii unui interval din orders.txt.
+     */
+    private static class OrderChunk {
+        private final List<Order> orders = new ArrayList<>();
+        private int rows;
+        private int failedRow;
+        private DataProcessingException error;
+    }
+
+    /**
+     * Reaplica peste colectia din memorie modificarile din jurnal care nu au fost inca
+     * incluse in snapshot-ul orders.txt.
+     * @throws DataProcessingException Daca o inregistrare din jurnal este invalida (pornirea esueaza, vezi {@link Journal#replay}).
+     */
+    private void replayJournal() {
+        journal.replay(new Journal.RecordHandler() {
+            @Override
+            public void onSave(String row, int recordNumber) {
+                Order o = parseOrder(row, "journal record " + recordNumber);
+                orders.put(o.getId(), o);
+            }
+
+            @Override
+            public void onDelete(String id, int recordNumber) {
+                try {
+                    orders.remove(Integer.parseInt(id));
+                } catch (NumberFormatException e) {
+                    throw new DataProcessingException("Parsing error at journal record " + recordNumber + ": invalid order ID.", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Compacteaza jurnalul: rescrie orders.txt cu starea curenta si elimina jurnalul vechi.
+     * Ruleaza pe firul de fundal al jurnalului, fara a bloca scrierile concurente.
+     */
+    private void compact() {
+        if (!loaded) {
+            return;
+        }
+        // Snapshot "fuzzy": jurnalul se roteste inainte de parcurgere, deci orice modificare
+        // care lipseste din snapshot se afla in jurnalul nou si este reaplicata la incarcare
+        journal.rotate();
+        // Randurile se codifica direct in bytes, intr-un buffer refolosit (vezi OrderRowWriter)
+        journal.completeCompaction(FILE_NAME, out -> {
+            OrderRowWriter writer = new OrderRowWriter(out);
+            for (Order order : orders.values()) {
+                writer.write(order);
+            }
+            writer.flush();
+        });
+        refreshHeader();
+    }
+
+    /**
+     * Serializeaza o comanda intr-un rand text (ID;Client;Produse;Data;Status;Total).
+     * @param order Comanda de serializat.
+     * @return Randul text.
+     */
+    private String serialize(Order order) {
+        return order.getId() + separator +
+                order.getClientId() + separator +
+                serializeProducts(order.getLines()) + separator +
+                order.getOrderDate().format(DATE_FORMATTER) + separator +
+                order.getStatus() + separator +
+                order.getTotalAmount();
+    }
+
+    /**
+     * Parseaza randul curent al cititorului memory-mapped si reconstruieste obiectul Order.
+     * @param reader Cititorul pozitionat pe rand.
+     * @param lineNumber Numarul randului in fisier (pentru mesajele de eroare).
+     * @return Comanda reconstruita.
+     * @throws DataProcessingException Daca randul este invalid.
+     */
+    private Order parseOrder(MappedRowReader reader, int lineNumber) {
+        if(reader.fieldCount() != 6){
+            throw new DataProcessingException("Invalid line at row " + lineNumber + ": incorrect number of fields (expected 6).");
+        }
+
+        try{
+            int id = reader.readInt();
+            int clientId = reader.readInt();
+            OrderLines productsMap = readProducts(reader);
+            LocalDateTime orderDate = reader.readDateTime();
+            OrderStatus status = reader.readEnum(ORDER_STATUSES);
+            float totalAmount = reader.readFloat();
+
+            return new Order(id, clientId, productsMap, orderDate, status, totalAmount);
+        }catch (IllegalArgumentException | DateTimeException e){
+            throw new DataProcessingException("Parsing error at row " + lineNumber + ": invalid data type for order field.", e);
+        }
+    }
+
+    /**
+     * Citeste campul de produse ("ID:Cantitate|ID:Cantitate") direct din cititorul memory-mapped.
+     * Perechile invalide sunt ignorate, la fel ca in deserializeProducts().
+     * @param reader Cititorul pozitionat pe campul de produse.
+     * @return Liniile comenzii reconstruite.
+     */
+    private OrderLines readProducts(MappedRowReader reader) {
+        OrderLines productsMap = new OrderLines();
+        while (!reader.atFieldEnd()) {
+            try {
+                int productId = reader.readIntToken();
+                if (!reader.skip(':')) {
+                    throw new NumberFormatException("Missing ':' in product pair.");
+                }
+                int quantity = reader.readIntToken();
+                if (!reader.skip('|') && !reader.atFieldEnd()) {
+                    throw new NumberFormatException("Missing '|' after product pair.");
+                }
+
+                if (productId <= 0) {
+                    System.err.println("WARNING: Ignoring product with non-positive ID: " + productId);
+                    continue;
                 }
-            } catch (FileNotFoundException e) {
-                throw new DataProcessingException("Order data file not found.", e);
-            } catch (DataProcessingException e){
-                System.err.println("PERSISTENCE ERROR: " + e.getMessage());
+
+                productsMap.put(productResolver.resolve(productId), quantity);
+            } catch (NumberFormatException e) {
+                reader.skipPast('|');
             }
         }
+        reader.endField();
+        return productsMap;
+    }
+
+    /**
+     * Parseaza un rand text si reconstruieste obiectul Order (folosit la reaplicarea jurnalului).
+     * @param line Randul citit.
+     * @param location Pozitia randului (pentru mesajele de eroare).
+     * @return Comanda reconstruita.
+     * @throws DataProcessingException Daca randul este invalid.
+     */
+    private Order parseOrder(String line, String location) {
+        String[] parts = line.split(separator);
+
+        if(parts.length!= 6){
+            throw new DataProcessingException("Invalid line at " + location + ": incorrect number of fields (expected 6).");
+        }
+
+        try{
+            int id = Integer.parseInt(parts[0].trim());
+            int clientId = Integer.parseInt(parts[1].trim());
+
+            OrderLines productsMap = deserializeProducts(parts[2].trim());
+
+            LocalDateTime orderDate = LocalDateTime.parse(parts[3].trim(),DATE_FORMATTER);
+            OrderStatus status = OrderStatus.valueOf(parts[4].trim());
+            float totalAmount = Float.parseFloat(parts[5].trim());
+
+            return new Order(id, clientId, productsMap, orderDate,status, totalAmount);
+        }catch (IllegalArgumentException | DateTimeException e){
+            throw new DataProcessingException("Parsing error at " + location + ": invalid data type for order field.", e);
+        }
     }
 
     /**
@@ -146,15 +827,15 @@ public class RepositoryOrder implements IRepository<Order,Integer>{
      * @param products Colectia de produse din comanda.
      * @return String serializat pentru salvarea in fisier.
      */
-    private String serializeProducts(Map<Product, Integer> products){
+    private String serializeProducts(OrderLines products){
         if (products.isEmpty()){
             return "";
         }
         StringBuilder sb = new StringBuilder();
-        for(Map.Entry<Product, Integer> entry : products.entrySet()){
-            sb.append(entry.getKey().getId())
+        for(int i = 0; i < products.size(); i++){
+            sb.append(products.productIdAt(i))
                     .append(":")
-                    .append(entry.getValue())
+                    .append(products.quantityAt(i))
                     .append("|");
         }
         sb.deleteCharAt(sb.length()-1);
@@ -162,17 +843,17 @@ public class RepositoryOrder implements IRepository<Order,Integer>{
     }
 
     /**
-     * Deserializare: Reconstruieste obiectul Product din ID, Nume si Pret citite din fisier.
+     * Deserializare: Reconstruieste liniile comenzii (produs canonic + cantitate) din fisier.
      * @param productsString String-ul serializat citit din orders.txt.
-     * @return Map<Product, Integer> reconstruita.
+     * @return Liniile comenzii reconstruite.
      */
-    private Map<Product, Integer> deserializeProducts(String productsString){
-        Map<Product, Integer> productsMap = new HashMap<>();
+    private OrderLines deserializeProducts(String productsString){
         if(productsString.isEmpty()){
-            return productsMap;
+            return new OrderLines();
         }
 
         String[] productPairs = productsString.split("\\|");
+        OrderLines productsMap = new OrderLines(productPairs.length);
         for( String pair: productPairs){
             String[] parts = pair.split(":");
             if(parts.length == 2){
@@ -185,9 +866,7 @@ public class RepositoryOrder implements IRepository<Order,Integer>{
                         continue;
                     }
 
-                    Product minimalProduct = new Product(productId, "N/A", 0.0f, ProductType.ELECTRONIC, 0, "Minimal");
-
-                    productsMap.put(minimalProduct,quantity);
+                    productsMap.put(productResolver.resolve(productId),quantity);
                 }catch(NumberFormatException e){
 
                 }
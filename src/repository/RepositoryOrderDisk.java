@@ -0,0 +1,703 @@
+package repository;
+
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.Order;
+import model.OrderLines;
+import model.OrderStatus;
+import model.Product;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Implementare IOrderRepository pe disc, pentru un istoric de comenzi mai mare decat heap-ul JVM.
+ * <ul>
+ *     <li>orders.heap: log append-only cu inregistrari binare (salvare / stergere), sursa de adevar;</li>
+ *     <li>orders.idx: doi arbori B+ in pagini de 4 KB: ID comanda -> offset in heap si
+ *     (clientId &lt;&lt; 32 | ID comanda) -> offset, pentru istoricul unui client.</li>
+ * </ul>
+ * Doar paginile de index folosite recent stau in memorie (cache LRU de dimensiune configurabila);
+ * comenzile sunt citite din heap la cerere. Daca aplicatia nu s-a inchis curat ({@link #saveAllData()}),
+ * indexul este reconstruit la pornire dintr-o parcurgere a heap-ului.
+ * Operatiile sunt serializate pe instanta; parcurgerile (forEach, stream) citesc in loturi si nu tin lock-ul
+ * intre loturi, deci sunt slab consistente, la fel ca in {@link RepositoryOrder}.
+ */
+public class RepositoryOrderDisk implements IOrderRepository, Checkpointable {
+    private static final LatencyHistogram LOAD_LATENCY = MetricsRegistry.getDefault()
+            .histogram("store_repository_load_seconds", "Duration of loadAllData (snapshot read and journal replay).", "repository", "orders_disk");
+    private static final LatencyHistogram SAVE_LATENCY = MetricsRegistry.getDefault()
+            .histogram("store_repository_save_seconds", "Duration of saveAllData.", "repository", "orders_disk");
+
+    private final String HEAP_FILE_NAME = DataDirectory.file("orders.heap");
+    private final String INDEX_FILE_NAME = DataDirectory.file("orders.idx");
+
+    private static final int INDEX_MAGIC = 0x4F53494E; // "OSIN"
+    private static final int INDEX_VERSION = 2;
+    // Antetul indexului (pagina 0)
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_CLEAN = 8;
+    private static final int HEADER_PRIMARY_ROOT = 12;
+    private static final int HEADER_CLIENT_ROOT = 16;
+    private static final int HEADER_COUNT = 20;
+    private static final int HEADER_HEAP_LENGTH = 24;
+    private static final int HEADER_MAX_ID = 32;
+
+    private static final byte RECORD_SAVE = 'S';
+    private static final byte RECORD_DELETE = 'D';
+    // Lungime (int) + CRC32 (int) inaintea fiecarei inregistrari
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+    private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+    private static final long MISSING = -1L;
+    private static final int SCAN_BATCH = 256;
+    private static final OrderStatus[] ORDER_STATUSES = OrderStatus.values();
+
+    private final ProductResolver productResolver;
+    private final FileChannel heap;
+    private final PageFile index;
+    private BPlusTree byId;
+    private BPlusTree byClient;
+    private long heapLength;
+    private int count;
+    // Cel mai mare ID salvat vreodata (nu scade la stergere)
+    private int maxId;
+    // false dupa prima modificare de la ultima inchidere curata: la o cadere, indexul se reconstruieste
+    private boolean cleanOnDisk;
+
+    /**
+     * Constructor. Deschide fisierele din directorul 'data' si incarca (sau reconstruieste) indexul.
+     * @param productRepository Repository-ul de Produse, pentru liniile comenzilor (poate fi null).
+     * @param cachePages Numarul de pagini de index tinute in memorie.
+     * @throws DataProcessingException Daca fisierele nu pot fi deschise.
+     */
+    public RepositoryOrderDisk(IRepository<Product, Integer> productRepository, int cachePages) {
+        this.productResolver = new ProductResolver(productRepository);
+        new File(DataDirectory.path()).mkdirs();
+        try {
+            this.heap = FileChannel.open(Paths.get(HEAP_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.index = new PageFile(Paths.get(INDEX_FILE_NAME), cachePages);
+        } catch (IOException e) {
+            throw new DataProcessingException("Order store files could not be opened.", e);
+        }
+        loadAllData();
+    }
+
+    // ----------------------------------------------------------------------
+    // Implementarea Operatiunilor CRUD (din IRepository)
+    // ----------------------------------------------------------------------
+
+    /**
+     * Salveaza sau actualizeaza o comanda: inregistrarea este adaugata in heap, apoi indexata.
+     * Metoda revine dupa ce inregistrarea a fost sincronizata pe disc; daca scrierea esueaza,
+     * comanda este scoasa din index inainte de a arunca exceptia.
+     * @param order Comanda de salvat/actualizat.
+     * @throws DataProcessingException Daca scrierea sau sincronizarea heap-ului esueaza.
+     */
+    @Override
+    public void save(Order order) {
+        saveBatch(List.of(order));
+    }
+
+    /**
+     * Salveaza mai multe comenzi: inregistrarile sunt adaugate in heap si indexate,
+     * iar heap-ul este sincronizat pe disc o singura data, pentru tot lotul.
+     * La o eroare, niciuna dintre comenzile lotului nu ramane indexata.
+     * @param orders Comenzile de salvat/actualizat.
+     * @throws DataProcessingException Daca scrierea sau sincronizarea heap-ului esueaza.
+     */
+    @Override
+    public void saveAll(Collection<? extends Order> orders) {
+        saveBatch(orders);
+    }
+
+    // Adauga si indexeaza lotul sub lock, apoi sincronizeaza heap-ul in afara lui. La o eroare, intrarile lotului
+    // sunt scoase din index inainte de a arunca exceptia: ServiceOrder elibereaza atunci stocul rezervat,
+    // deci comenzile nu trebuie sa mai poata fi citite
+    private void saveBatch(Collection<? extends Order> orders) {
+        List<IndexedSave> batch = new ArrayList<>(orders.size());
+        long batchStart;
+        long batchEnd;
+        synchronized (this) {
+            batchStart = heapLength;
+            for (Order order : orders) {
+                try {
+                    markDirty();
+                    long previous = byId.get(order.getId(), MISSING);
+                    long offset = append(encodeSave(order));
+                    batch.add(new IndexedSave(order.getId(), order.getClientId(), offset, previous));
+                    indexSave(order.getId(), order.getClientId(), offset);
+                } catch (IOException | RuntimeException e) {
+                    DataProcessingException failure = new DataProcessingException("I/O Error while saving order " + order.getId() + ".", e);
+                    // Lock-ul este detinut de la inceputul lotului: heap-ul se poate trunchia pana la inceputul lui
+                    rollback(batch, batchStart, heapLength, failure);
+                    throw failure;
+                }
+            }
+            batchEnd = heapLength;
+        }
+        try {
+            forceHeap();
+        } catch (DataProcessingException e) {
+            synchronized (this) {
+                rollback(batch, batchStart, batchEnd, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Anuleaza intrarile de index ale unui lot (in ordine inversa) si, daca nimic nu a fost adaugat dupa lot,
+     * trunchiaza heap-ul la inceputul lui. Altfel inregistrarile raman in heap, dar nu sunt indexate
+     * (numai o reconstruire a indexului dupa o cadere le-ar mai citi). Apelata cu lock-ul detinut;
+     * erorile rollback-ului sunt atasate exceptiei originale.
+     */
+    private void rollback(List<IndexedSave> batch, long batchStart, long batchEnd, DataProcessingException failure) {
+        try {
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                IndexedSave save = batch.get(i);
+                // O salvare ulterioara a aceleiasi comenzi (alt fir) castiga
+                if (byId.get(save.id, MISSING) != save.offset) {
+                    continue;
+                }
+                byClient.remove(clientKey(save.clientId, save.id));
+                if (save.previous == MISSING) {
+                    byId.remove(save.id);
+                    count--;
+                } else {
+                    byId.put(save.id, save.previous);
+                    byClient.put(clientKey(readClientId(save.previous), save.id), save.previous);
+                }
+            }
+            if (heapLength == batchEnd) {
+                heap.truncate(batchStart);
+                heapLength = batchStart;
+            }
+        } catch (IOException | RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * O intrare adaugata in index de un lot: offset-ul nou si cel anterior (MISSING pentru o comanda noua).
+     */
+    private static final class IndexedSave {
+        private final int id;
+        private final int clientId;
+        private final long offset;
+        private final long previous;
+
+        private IndexedSave(int id, int clientId, long offset, long previous) {
+            this.id = id;
+            this.clientId = clientId;
+            this.offset = offset;
+            this.previous = previous;
+        }
+    }
+
+    /**
+     * Cauta o comanda dupa ID (index primar + o citire din heap).
+     * @param id ID-ul comenzii.
+     * @return Comanda gasita sau null.
+     */
+    @Override
+    public synchronized Order findById(Integer id) {
+        try {
+            long offset = byId.get(id, MISSING);
+            return offset == MISSING ? null : readOrder(offset);
+        } catch (IOException e) {
+            throw new DataProcessingException("I/O Error while reading order " + id + ".", e);
+        }
+    }
+
+    /**
+     * Returneaza lista tuturor comenzilor. Citeste intregul istoric de pe disc; pentru parcurgeri
+     * se recomanda {@link #forEach(Consumer)} sau {@link #stream()}, care nu tin totul in memorie.
+     * @return Lista de obiecte Order.
+     */
+    @Override
+    public List<Order> findAll() {
+        List<Order> all = new ArrayList<>();
+        forEach(all::add);
+        return all;
+    }
+
+    /**
+     * Parcurge comenzile in ordinea ID-ului, in loturi citite de pe disc.
+     * @param action Actiunea aplicata fiecarei comenzi.
+     */
+    @Override
+    public void forEach(Consumer<? super Order> action) {
+        new OrderCursor().forEachRemaining(action);
+    }
+
+    /**
+     * Returneaza un Stream lenes peste comenzi, in ordinea ID-ului.
+     * @return Stream-ul de obiecte Order.
+     */
+    @Override
+    public Stream<Order> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new OrderCursor(),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Returneaza numarul de comenzi (mentinut in antetul indexului).
+     * @return Numarul de comenzi.
+     */
+    @Override
+    public synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Returneaza cel mai mare ID de comanda salvat (mentinut in antetul indexului).
+     * @return ID-ul maxim sau 0 daca nu exista comenzi.
+     */
+    @Override
+    public synchronized int findMaxId() {
+        return maxId;
+    }
+
+    /**
+     * Returneaza o pagina din comenzile unui client, printr-o parcurgere a indexului secundar.
+     * @param clientId ID-ul clientului.
+     * @param offset Numarul de comenzi sarite de la inceput.
+     * @param limit Numarul maxim de comenzi returnate.
+     * @return Comenzile din pagina, ordonate crescator dupa ID.
+     */
+    @Override
+    public synchronized List<Order> findByClientId(int clientId, int offset, int limit) {
+        List<Order> page = new ArrayList<>();
+        if (limit <= 0) {
+            return page;
+        }
+        int[] skipped = {0};
+        try {
+            byClient.scan(clientKey(clientId, 0), clientKey(clientId, -1), (key, heapOffset) -> {
+                if (skipped[0] < offset) {
+                    skipped[0]++;
+                    return true;
+                }
+                page.add(readOrder(heapOffset));
+                return page.size() < limit;
+            });
+        } catch (IOException e) {
+            throw new DataProcessingException("I/O Error while reading orders of client " + clientId + ".", e);
+        }
+        return page;
+    }
+
+    /**
+     * Returneaza numarul de comenzi ale unui client (parcurgere a indexului secundar, fara citiri din heap).
+     * @param clientId ID-ul clientului.
+     * @return Numarul de comenzi.
+     */
+    @Override
+    public synchronized int countByClientId(int clientId) {
+        int[] total = {0};
+        try {
+            byClient.scan(clientKey(clientId, 0), clientKey(clientId, -1), (key, heapOffset) -> {
+                total[0]++;
+                return true;
+            });
+        } catch (IOException e) {
+            throw new DataProcessingException("I/O Error while counting orders of client " + clientId + ".", e);
+        }
+        return total[0];
+    }
+
+    /**
+     * Sterge o comanda: inregistrarea de stergere este adaugata in heap, iar cheile sunt scoase din index.
+     * @param id ID-ul comenzii de sters.
+     */
+    @Override
+    public void delete(Integer id) {
+        synchronized (this) {
+            try {
+                long offset = byId.get(id, MISSING);
+                if (offset == MISSING) {
+                    return;
+                }
+                markDirty();
+                append(encodeDelete(id));
+                indexDelete(id, offset);
+            } catch (IOException e) {
+                throw new DataProcessingException("I/O Error while deleting order " + id + ".", e);
+            }
+        }
+        forceHeap();
+    }
+
+    /**
+     * Returneaza numele folosit in mesajele de checkpoint.
+     * @return "orders".
+     */
+    @Override
+    public String getCheckpointName() {
+        return "orders";
+    }
+
+    /**
+     * Verifica daca indexul de pe disc este in urma heap-ului (modificari de la ultimul checkpoint).
+     * @return true daca exista modificari de la ultimul checkpoint.
+     */
+    @Override
+    public synchronized boolean hasUncheckpointedChanges() {
+        return !cleanOnDisk;
+    }
+
+    /**
+     * Scrie paginile de index modificate si marcheaza indexul ca fiind consistent cu heap-ul.
+     * Spre deosebire de Repository-urile cu jurnal, scrierile asteapta pe durata checkpoint-ului;
+     * costul este limitat de cache (se scriu doar paginile modificate din memorie).
+     * @return Numarul de bytes scrisi in index.
+     */
+    @Override
+    public synchronized long checkpoint() {
+        if (cleanOnDisk) {
+            return 0;
+        }
+        try {
+            heap.force(false);
+            // Intai toate paginile cu antetul marcat "necurat", apoi antetul "curat" separat
+            writeHeader(false);
+            long written = index.flush();
+            writeHeader(true);
+            index.writeThrough(index.get(0));
+            cleanOnDisk = true;
+            return written + PageFile.PAGE_SIZE;
+        } catch (IOException e) {
+            throw new DataProcessingException("I/O Error while saving the order index.", e);
+        }
+    }
+
+    /**
+     * Inchidere curata: scrie paginile de index modificate si marcheaza indexul ca fiind consistent cu heap-ul,
+     * astfel incat urmatoarea pornire sa nu il reconstruiasca. Fara modificari, nu scrie nimic.
+     * Implementeaza Cerinta 2.
+     * @throws DataProcessingException Daca apare o eroare de I/O.
+     */
+    @Override
+    public void saveAllData() {
+        long start = System.nanoTime();
+        try {
+            checkpoint();
+        } finally {
+            SAVE_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Verifica daca indexul de pe disc este in urma heap-ului.
+     * @return true daca saveAllData() are ceva de scris.
+     */
+    @Override
+    public boolean hasUnsavedChanges() {
+        return hasUncheckpointedChanges();
+    }
+
+    /**
+     * Deschide indexul; daca lipseste, este de alta versiune sau nu a fost inchis curat, il reconstruieste din heap.
+     * Implementeaza Cerinta 2 (Restaurare).
+     */
+    @Override
+    public synchronized void loadAllData() {
+        long start = System.nanoTime();
+        try {
+            try {
+                long heapSize = heap.size();
+                ByteBuffer header = index.get(0).buffer();
+                boolean usable = header.getInt(HEADER_MAGIC) == INDEX_MAGIC
+                        && header.getInt(HEADER_VERSION) == INDEX_VERSION
+                        && header.getInt(HEADER_CLEAN) == 1
+                        && header.getLong(HEADER_HEAP_LENGTH) == heapSize;
+                if (usable) {
+                    byId = BPlusTree.open(index, header.getInt(HEADER_PRIMARY_ROOT));
+                    byClient = BPlusTree.open(index, header.getInt(HEADER_CLIENT_ROOT));
+                    count = header.getInt(HEADER_COUNT);
+                    maxId = header.getInt(HEADER_MAX_ID);
+                    heapLength = heapSize;
+                    cleanOnDisk = true;
+                } else {
+                    rebuildIndex();
+                }
+            } catch (IOException e) {
+                throw new DataProcessingException("Order store could not be loaded.", e);
+            }
+        } finally {
+            LOAD_LATENCY.recordSince(start);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Index
+    // ----------------------------------------------------------------------
+
+    /**
+     * Reconstruieste ambii arbori dintr-o parcurgere secventiala a heap-ului. O inregistrare incompleta
+     * sau corupta la final (scriere intrerupta) este eliminata prin trunchiere.
+     */
+    private void rebuildIndex() throws IOException {
+        System.out.println("INFO: Rebuilding order index from " + HEAP_FILE_NAME + ".");
+        index.reset();
+        byId = BPlusTree.create(index);
+        byClient = BPlusTree.create(index);
+        count = 0;
+        maxId = 0;
+
+        long size = heap.size();
+        long position = 0;
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER);
+        while (position + RECORD_HEADER <= size) {
+            recordHeader.clear();
+            readFully(recordHeader, position);
+            int length = recordHeader.getInt(0);
+            if (length <= 0 || length > MAX_RECORD_SIZE || position + RECORD_HEADER + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + RECORD_HEADER);
+            if (crc(payload.array()) != recordHeader.getInt(Integer.BYTES)) {
+                break;
+            }
+            byte kind = payload.get(0);
+            int id = payload.getInt(1);
+            if (kind == RECORD_SAVE) {
+                indexSave(id, payload.getInt(5), position);
+            } else if (kind == RECORD_DELETE) {
+                long offset = byId.get(id, MISSING);
+                if (offset != MISSING) {
+                    indexDelete(id, offset);
+                }
+            } else {
+                break;
+            }
+            position += RECORD_HEADER + length;
+        }
+        if (position < size) {
+            System.err.println("PERSISTENCE ERROR: Truncating incomplete order record at offset " + position + " in " + HEAP_FILE_NAME + ".");
+            heap.truncate(position);
+        }
+        heapLength = position;
+        cleanOnDisk = false;
+        saveAllData();
+    }
+
+    private void indexSave(int id, int clientId, long offset) throws IOException {
+        long previous = byId.get(id, MISSING);
+        if (previous != MISSING) {
+            int previousClient = readClientId(previous);
+            byClient.remove(clientKey(previousClient, id));
+        } else {
+            count++;
+        }
+        maxId = Math.max(maxId, id);
+        byId.put(id, offset);
+        byClient.put(clientKey(clientId, id), offset);
+    }
+
+    private void indexDelete(int id, long offset) throws IOException {
+        byClient.remove(clientKey(readClientId(offset), id));
+        byId.remove(id);
+        count--;
+    }
+
+    // Cheia compusa a indexului secundar: ordonata dupa client, apoi dupa ID-ul comenzii
+    private static long clientKey(int clientId, int orderId) {
+        return ((long) clientId << 32) | (orderId & 0xFFFFFFFFL);
+    }
+
+    // Inainte de prima modificare dupa o inchidere curata, antetul este marcat "necurat" pe disc
+    private void markDirty() throws IOException {
+        if (cleanOnDisk) {
+            writeHeader(false);
+            index.writeThrough(index.get(0));
+            cleanOnDisk = false;
+        }
+    }
+
+    private void writeHeader(boolean clean) throws IOException {
+        PageFile.Page page = index.get(0);
+        ByteBuffer header = page.buffer();
+        header.putInt(HEADER_MAGIC, INDEX_MAGIC);
+        header.putInt(HEADER_VERSION, INDEX_VERSION);
+        header.putInt(HEADER_CLEAN, clean ? 1 : 0);
+        header.putInt(HEADER_PRIMARY_ROOT, byId.rootPage());
+        header.putInt(HEADER_CLIENT_ROOT, byClient.rootPage());
+        header.putInt(HEADER_COUNT, count);
+        header.putLong(HEADER_HEAP_LENGTH, heapLength);
+        header.putInt(HEADER_MAX_ID, maxId);
+        page.markDirty();
+    }
+
+    // ----------------------------------------------------------------------
+    // Heap
+    // ----------------------------------------------------------------------
+
+    private long append(byte[] payload) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + payload.length);
+        record.putInt(payload.length).putInt(crc(payload)).put(payload).flip();
+        long offset = heapLength;
+        while (record.hasRemaining()) {
+            heap.write(record, offset + record.position());
+        }
+        heapLength += record.limit();
+        return offset;
+    }
+
+    private void forceHeap() {
+        try {
+            heap.force(false);
+        } catch (IOException e) {
+            throw new DataProcessingException("I/O Error while syncing " + HEAP_FILE_NAME + ".", e);
+        }
+    }
+
+    private Order readOrder(long offset) throws IOException {
+        ByteBuffer payload = readPayload(offset);
+        if (payload.get() != RECORD_SAVE) {
+            throw new DataProcessingException("Corrupt order record at offset " + offset + " in " + HEAP_FILE_NAME + ".");
+        }
+        int id = payload.getInt();
+        int clientId = payload.getInt();
+        LocalDateTime orderDate = LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC);
+        OrderStatus status = ORDER_STATUSES[payload.get()];
+        float totalAmount = payload.getFloat();
+        int lineCount = payload.getInt();
+        OrderLines lines = new OrderLines(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            int productId = payload.getInt();
+            lines.put(productResolver.resolve(productId), payload.getInt());
+        }
+        return new Order(id, clientId, lines, orderDate, status, totalAmount);
+    }
+
+    private int readClientId(long offset) throws IOException {
+        ByteBuffer fields = ByteBuffer.allocate(1 + 2 * Integer.BYTES);
+        readFully(fields, offset + RECORD_HEADER);
+        return fields.getInt(1 + Integer.BYTES);
+    }
+
+    private ByteBuffer readPayload(long offset) throws IOException {
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER);
+        readFully(recordHeader, offset);
+        int length = recordHeader.getInt(0);
+        if (length <= 0 || length > MAX_RECORD_SIZE) {
+            throw new DataProcessingException("Corrupt order record at offset " + offset + " in " + HEAP_FILE_NAME + ".");
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(payload, offset + RECORD_HEADER);
+        if (crc(payload.array()) != recordHeader.getInt(Integer.BYTES)) {
+            throw new DataProcessingException("Checksum mismatch for order record at offset " + offset + " in " + HEAP_FILE_NAME + ".");
+        }
+        payload.flip();
+        return payload;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (heap.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + HEAP_FILE_NAME + " at offset " + position + ".");
+            }
+        }
+    }
+
+    private static byte[] encodeSave(Order order) {
+        OrderLines lines = order.getLines();
+        ByteBuffer payload = ByteBuffer.allocate(1 + 4 * Integer.BYTES + Long.BYTES + Integer.BYTES + 1 + Float.BYTES
+                + lines.size() * 2 * Integer.BYTES);
+        LocalDateTime date = order.getOrderDate();
+        payload.put(RECORD_SAVE)
+                .putInt(order.getId())
+                .putInt(order.getClientId())
+                .putLong(date.toEpochSecond(ZoneOffset.UTC))
+                .putInt(date.getNano())
+                .put((byte) order.getStatus().ordinal())
+                .putFloat(order.getTotalAmount())
+                .putInt(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            payload.putInt(lines.productIdAt(i)).putInt(lines.quantityAt(i));
+        }
+        return payload.array();
+    }
+
+    private static byte[] encodeDelete(int id) {
+        return ByteBuffer.allocate(1 + Integer.BYTES).put(RECORD_DELETE).putInt(id).array();
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Iterator peste comenzi in ordinea ID-ului: citeste cate SCAN_BATCH comenzi sub lock,
+     * apoi elibereaza lock-ul pana la urmatorul lot.
+     */
+    private class OrderCursor implements Iterator<Order> {
+        private final List<Order> batch = new ArrayList<>(SCAN_BATCH);
+        private int position;
+        private long nextKey = Long.MIN_VALUE;
+        private boolean exhausted;
+
+        @Override
+        public boolean hasNext() {
+            if (position < batch.size()) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            fill();
+            return position < batch.size();
+        }
+
+        @Override
+        public Order next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return batch.get(position++);
+        }
+
+        private void fill() {
+            batch.clear();
+            position = 0;
+            synchronized (RepositoryOrderDisk.this) {
+                try {
+                    byId.scan(nextKey, Long.MAX_VALUE, (key, offset) -> {
+                        batch.add(readOrder(offset));
+                        return batch.size() < SCAN_BATCH;
+                    });
+                } catch (IOException e) {
+                    throw new DataProcessingException("I/O Error while reading orders.", e);
+                }
+            }
+            if (batch.size() < SCAN_BATCH) {
+                exhausted = true;
+            }
+            if (!batch.isEmpty()) {
+                nextKey = batch.get(batch.size() - 1).getId() + 1L;
+            }
+        }
+    }
+}
@@ -1,40 +1,105 @@
 package repository;
 
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 import model.Product;
 import model.ProductType;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Implementarea concreta a interfetei IRepository pentru entitatea Product.
  * Gestioneaza operatiunile CRUD pe o colectie Map si persista datele in fisier text (products.txt).
  * Implementeaza Cerintele 1, 2, 3, 4 (Persistenta, Colectii).
  */
-public class RepositoryProduct implements IRepository<Product, Integer> {
+public class RepositoryProduct implements IRepository<Product, Integer>, Checkpointable {
+    private static final LatencyHistogram LOAD_LATENCY = MetricsRegistry.getDefault()
+            .histogram("store_repository_load_seconds", "Duration of loadAllData (snapshot read and journal replay).", "repository", "products");
+    private static final LatencyHistogram SAVE_LATENCY = MetricsRegistry.getDefault()
+            .histogram("store_repository_save_seconds", "Duration of saveAllData.", "repository", "products");
 
     // Cerinta 3 & 4: Colectia interna pentru stocarea in memorie
     private final Map<Integer,Product> products;
-    private final String FILE_NAME = "data/products.txt";
+    private final String FILE_NAME = DataDirectory.file("products.txt");
+    private final String BINARY_FILE_NAME = DataDirectory.file("products.bin");
+    private final String JOURNAL_FILE_NAME = DataDirectory.file("products.journal");
     private static final String separator = ";";
+    private static final ProductType[] PRODUCT_TYPES = ProductType.values();
+
+    // Jurnalul append-only in care se scrie fiecare modificare (save/delete)
+    private final Journal journal;
+    // Lock-uri pe ID: modificarea din memorie si inregistrarea din jurnal sunt atomice per entitate
+    private final StripedLocks locks = new StripedLocks(64);
+    // true: snapshot-ul este products.bin (format binar pe coloane), altfel products.txt
+    private final boolean binarySnapshot;
 
     /**
-     * Constructor. Initializeaza colectia si incarca datele la pornirea aplicatiei.
+     * Constructor. Initializeaza colectia si incarca datele la pornirea aplicatiei (snapshot text).
      */
     public RepositoryProduct(){
-        this.products = new HashMap<>();
+        this(false);
+    }
+
+    /**
+     * Constructor. Initializeaza colectia si incarca datele la pornirea aplicatiei.
+     * Un snapshot existent in celalalt format este convertit o singura data (in ambele sensuri).
+     * @param binarySnapshot true pentru snapshot-ul binar products.bin, false pentru products.txt.
+     */
+    public RepositoryProduct(boolean binarySnapshot){
+        this.binarySnapshot = binarySnapshot;
+        this.products = new ConcurrentHashMap<>();
         // Creeaza directorul 'data' daca nu exista
-        new File("data").mkdirs();
+        new File(DataDirectory.path()).mkdirs();
+        this.journal = new Journal(JOURNAL_FILE_NAME, this::compact);
         loadAllData();
     }
 
     /**
-     * Salveaza sau actualizeaza un produs in colectia din memorie.
+     * Salveaza sau actualizeaza un produs in colectia din memorie si scrie modificarea in jurnal.
+     * Metoda revine dupa ce inregistrarea a fost sincronizata pe disc.
      * @param product Produsul de salvat/actualizat.
      */
     @Override
     public void save(Product product) {
-        products.put(product.getId(),product);
+        long ticket;
+        ReentrantLock lock = locks.lockFor(product.getId());
+        lock.lock();
+        try {
+            products.put(product.getId(),product);
+            ticket = journal.append(Journal.saveRecord(serialize(product)));
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitCommit(ticket);
+    }
+
+    /**
+     * Salveaza mai multe produse; inregistrarile sunt adaugate in jurnal una dupa alta,
+     * iar metoda revine dupa o singura sincronizare pe disc, pentru tot lotul.
+     * @param products Produsele de salvat/actualizat.
+     */
+    @Override
+    public void saveAll(Collection<? extends Product> products) {
+        long ticket = -1;
+        for (Product product : products) {
+            ReentrantLock lock = locks.lockFor(product.getId());
+            lock.lock();
+            try {
+                this.products.put(product.getId(), product);
+                ticket = journal.append(Journal.saveRecord(serialize(product)));
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (ticket >= 0) {
+            journal.awaitCommit(ticket);
+        }
     }
 
     /**
@@ -57,80 +122,311 @@ public class RepositoryProduct implements IRepository<Product, Integer> {
     }
 
     /**
-     * Sterge un produs dupa ID.
+     * Parcurge produsele direct din colectia din memorie, fara copiere.
+     * @param action Actiunea aplicata fiecarui element.
+     */
+    @Override
+    public void forEach(Consumer<? super Product> action) {
+        products.values().forEach(action);
+    }
+
+    /**
+     * Returneaza un Stream peste produsele din memorie, fara copiere.
+     * @return Stream-ul de obiecte Product.
+     */
+    @Override
+    public Stream<Product> stream() {
+        return products.values().stream();
+    }
+
+    /**
+     * Returneaza numarul produselor din memorie.
+     * @return Numarul de elemente.
+     */
+    @Override
+    public int count() {
+        return products.size();
+    }
+
+    /**
+     * Sterge un produs dupa ID si scrie stergerea in jurnal.
      * @param id ID-ul produsului de sters (Integer - clasa wrapper).
      */
     @Override
     public void delete(Integer id) {
-        products.remove(id);
+        long ticket;
+        ReentrantLock lock = locks.lockFor(id);
+        lock.lock();
+        try {
+            products.remove(id);
+            ticket = journal.append(Journal.deleteRecord(id));
+        } finally {
+            lock.unlock();
+        }
+        journal.awaitCommit(ticket);
+    }
+
+    /**
+     * Returneaza numele folosit in mesajele de checkpoint.
+     * @return "products".
+     */
+    @Override
+    public String getCheckpointName() {
+        return "products";
+    }
+
+    /**
+     * Verifica daca jurnalul contine inregistrari neincluse inca in snapshot.
+     * @return true daca exista modificari de la ultimul checkpoint.
+     */
+    @Override
+    public boolean hasUncheckpointedChanges() {
+        return journal.hasRecords();
+    }
+
+    /**
+     * Rescrie snapshot-ul si goleste jurnalul (aceeasi operatie ca si compactarea din fundal).
+     * @return Numarul de bytes scrisi in snapshot.
+     */
+    @Override
+    public long checkpoint() {
+        return journal.checkpoint();
     }
 
     /**
-     * Salveaza datele din colectia din memorie in fisierul text (products.txt).
-     * Serializeaza obiectul intr-un format CSV (separat prin ;). Implementeaza Cerinta 2.
+     * Persista modificarile din memorie. Fiecare save/delete este deja scris in jurnal,
+     * deci aici se asteapta doar sincronizarea ultimelor inregistrari (cost O(modificari)).
+     * Fisierul products.txt este rescris de compactarea din fundal. Implementeaza Cerinta 2.
      * @throws DataProcessingException Daca apare o eroare de I/O.
      */
     @Override
     public void saveAllData() {
-        try(PrintWriter writer = new PrintWriter(new FileWriter(FILE_NAME))){
-            for(Product product:products.values()){
-                // Serializarea datelor in format text (ID;Nume;Pret;Stoc;Tip;Descriere)
-                String line = product.getId() + separator +
-                        product.getName() + separator +
-                        product.getPrice() + separator +
-                        product.getStockQuantity() + separator +
-                        product.getProductType() + separator +
-                        product.getDescription();
-                writer.println(line);
-            }
-        }catch(IOException e){
-            throw  new DataProcessingException("Error I/O in product file",e);
+        long start = System.nanoTime();
+        try {
+            journal.sync();
+        } finally {
+            SAVE_LATENCY.recordSince(start);
         }
     }
 
     /**
-     * Incarca datele din fisierul text in colectia din memorie.
+     * Verifica daca exista inregistrari de jurnal nesincronizate (save/delete in curs).
+     * @return true daca saveAllData() are ceva de scris.
+     */
+    @Override
+    public boolean hasUnsavedChanges() {
+        return journal.hasUnsyncedRecords();
+    }
+
+    /**
+     * Incarca snapshot-ul (products.txt sau products.bin) in colectia din memorie, apoi reaplica jurnalul.
      * Deserializarea (citirea) liniilor si reconstruirea obiectelor. Implementeaza Cerinta 2.
+     * Un rand invalid opreste incarcarea: daca s-ar continua cu randurile citite pana la el, urmatoarea
+     * compactare ar rescrie snapshot-ul fara restul randurilor. Fisierele raman neatinse.
+     * @throws DataProcessingException Daca snapshot-ul sau jurnalul contine o inregistrare invalida.
      */
     @Override
     public void loadAllData() {
+        long start = System.nanoTime();
+        try {
+            reconcileSnapshots();
+            boolean snapshotExists = binarySnapshot ? loadBinarySnapshot() : loadTextSnapshot();
+
+            replayJournal();
+
+            if(!snapshotExists){
+                loadInitialData();
+            }
+        } finally {
+            LOAD_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Citeste products.txt (memory-mapped, un singur pas, fara String.split pe fiecare rand).
+     * @return true daca snapshot-ul exista.
+     */
+    private boolean loadTextSnapshot() {
         File file = new File(FILE_NAME);
-        if(file.exists() && file.length()>0){
-            try (Scanner scanner = new Scanner(file)) {
-                int lineNumber = 0;
-                while (scanner.hasNextLine()) {
-                    String line = scanner.nextLine();
-                    lineNumber++;
-                    String[] parts = line.split(separator);
-
-                    // Validare de baza a numarului de campuri
-                    if (parts.length != 6) {
-                        throw new DataProcessingException("Invalid line at row " + lineNumber + ": incorrect number of fields (expected 6).");
-                    }
-
-                    // Parsarea obiectului
-                    try {
-                        int id = Integer.parseInt(parts[0].trim());
-                        float price = Float.parseFloat(parts[2].trim());
-                        int stock = Integer.parseInt(parts[3].trim());
-                        ProductType type = ProductType.valueOf(parts[4].trim()); // Convertire String -> Enum
-
-                        // Crearea obiectului Product
-                        Product p = new Product(id, parts[1].trim(), price, type, stock, parts[5].trim());
-                        products.put(id, p);
-                    } catch (IllegalArgumentException e) {
-                        // Prinde erorile de parsare (NumberFormatException, erori Enum.valueOf)
-                        throw new DataProcessingException("Parsing error at row " + lineNumber + ": invalid data type for product field.", e);
-                    }
+        if (!file.exists() || file.length() == 0) {
+            return false;
+        }
+        try (MappedRowReader reader = new MappedRowReader(file.toPath())) {
+            while (reader.nextRow()) {
+                Product p = parseProduct(reader);
+                products.put(p.getId(), p);
+            }
+        } catch (IOException e) {
+            throw new DataProcessingException("Product data file could not be read.", e);
+        }
+        return true;
+    }
+
+    /**
+     * Pastreaza un singur snapshot, in formatul activ. Compactarea scrie doar fisierul formatului activ,
+     * deci un snapshot in celalalt format ramas de la o rulare anterioara ar fi invechit la urmatoarea
+     * schimbare de format. Daca celalalt fisier este mai nou (ultima compactare a rulat in celalalt format),
+     * este convertit in formatul activ; apoi este sters. O conversie esuata lasa ambele fisiere neatinse.
+     * @throws DataProcessingException Daca snapshot-ul mai nou nu poate fi convertit.
+     */
+    private void reconcileSnapshots() {
+        File active = new File(binarySnapshot ? BINARY_FILE_NAME : FILE_NAME);
+        File other = new File(binarySnapshot ? FILE_NAME : BINARY_FILE_NAME);
+        if (!other.exists()) {
+            return;
+        }
+        if (other.length() > 0 && (!active.exists() || other.lastModified() >= active.lastModified())) {
+            int count = binarySnapshot
+                    ? ProductBinaryFile.convertFromText(other.toPath(), active.toPath())
+                    : ProductBinaryFile.convertToText(other.toPath(), active.toPath());
+            System.out.println("INFO: Converted " + count + " products from " + other.getName() + " to " + active.getName() + ".");
+        }
+        if (!other.delete()) {
+            throw new DataProcessingException("Cannot delete stale product snapshot " + other + ".");
+        }
+    }
+
+    /**
+     * Citeste products.bin printr-o singura mapare in memorie.
+     * @return true daca snapshot-ul exista.
+     */
+    private boolean loadBinarySnapshot() {
+        File binaryFile = new File(BINARY_FILE_NAME);
+        if (!binaryFile.exists() || binaryFile.length() == 0) {
+            return false;
+        }
+        try {
+            for (Product p : ProductBinaryFile.read(binaryFile.toPath())) {
+                products.put(p.getId(), p);
+            }
+        } catch (IOException e) {
+            throw new DataProcessingException("Product data file could not be read.", e);
+        }
+        return true;
+    }
+
+    /**
+     * Reaplica peste colectia din memorie modificarile din jurnal care nu au fost inca
+     * incluse in snapshot-ul products.txt.
+     * @throws DataProcessingException Daca o inregistrare din jurnal este invalida (pornirea esueaza, vezi {@link Journal#replay}).
+     */
+    private void replayJournal() {
+        journal.replay(new Journal.RecordHandler() {
+            @Override
+            public void onSave(String row, int recordNumber) {
+                Product p = parseProduct(row, "journal record " + recordNumber);
+                products.put(p.getId(), p);
+            }
+
+            @Override
+            public void onDelete(String id, int recordNumber) {
+                try {
+                    products.remove(Integer.parseInt(id));
+                } catch (NumberFormatException e) {
+                    throw new DataProcessingException("Parsing error at journal record " + recordNumber + ": invalid product ID.", e);
                 }
-            } catch (FileNotFoundException e) {
-                throw new DataProcessingException("Product data file not found.", e);
-            } catch (DataProcessingException e) {
-                System.err.println(e.getMessage());
             }
+        });
+    }
+
+    /**
+     * Compacteaza jurnalul: rescrie snapshot-ul (products.txt sau products.bin) cu starea curenta si elimina jurnalul vechi.
+     * Ruleaza pe firul de fundal al jurnalului, fara a bloca scrierile concurente.
+     */
+    private void compact() {
+        // Snapshot "fuzzy": jurnalul se roteste inainte de parcurgere, deci orice modificare
+        // care lipseste din snapshot se afla in jurnalul nou si este reaplicata la incarcare
+        journal.rotate();
+        if (binarySnapshot) {
+            journal.completeCompaction(BINARY_FILE_NAME, out -> ProductBinaryFile.write(products.values(), out));
+            return;
+        }
+        journal.completeCompaction(FILE_NAME, out -> writeTextSnapshot(products.values(), out));
+    }
+
+    /**
+     * Scrie produsele in formatul products.txt, cate un rand per produs.
+     * @param products Produsele de scris.
+     * @param out Fluxul de iesire (nu este inchis).
+     * @throws IOException Daca scrierea esueaza.
+     */
+    static void writeTextSnapshot(Collection<Product> products, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        for (Product product : products) {
+            writer.write(serialize(product));
+            writer.write(System.lineSeparator());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Serializarea datelor in format text (ID;Nume;Pret;Stoc;Tip;Descriere).
+     * @param product Produsul de serializat.
+     * @return Randul text.
+     */
+    private static String serialize(Product product) {
+        return product.getId() + separator +
+                product.getName() + separator +
+                product.getPrice() + separator +
+                product.getStockQuantity() + separator +
+                product.getProductType() + separator +
+                product.getDescription();
+    }
+
+    /**
+     * Parseaza randul curent al cititorului memory-mapped si reconstruieste obiectul Product.
+     * @param reader Cititorul pozitionat pe rand.
+     * @return Produsul reconstruit.
+     * @throws DataProcessingException Daca randul este invalid.
+     */
+    static Product parseProduct(MappedRowReader reader) {
+        int lineNumber = reader.rowNumber();
+
+        // Validare de baza a numarului de campuri
+        if (reader.fieldCount() != 6) {
+            throw new DataProcessingException("Invalid line at row " + lineNumber + ": incorrect number of fields (expected 6).");
+        }
+
+        try {
+            int id = reader.readInt();
+            String name = reader.readString();
+            float price = reader.readFloat();
+            int stock = reader.readInt();
+            ProductType type = reader.readEnum(PRODUCT_TYPES);
+            String description = reader.readString();
+            return new Product(id, name, price, type, stock, description);
+        } catch (IllegalArgumentException e) {
+            throw new DataProcessingException("Parsing error at row " + lineNumber + ": invalid data type for product field.", e);
+        }
+    }
+
+    /**
+     * Parseaza un rand text si reconstruieste obiectul Product (folosit la reaplicarea jurnalului).
+     * @param line Randul citit.
+     * @param location Pozitia randului (pentru mesajele de eroare).
+     * @return Produsul reconstruit.
+     * @throws DataProcessingException Daca randul este invalid.
+     */
+    private Product parseProduct(String line, String location) {
+        String[] parts = line.split(separator);
+
+        // Validare de baza a numarului de campuri
+        if (parts.length != 6) {
+            throw new DataProcessingException("Invalid line at " + location + ": incorrect number of fields (expected 6).");
         }
-        else{
-            loadInitialData();
+
+        // Parsarea obiectului
+        try {
+            int id = Integer.parseInt(parts[0].trim());
+            float price = Float.parseFloat(parts[2].trim());
+            int stock = Integer.parseInt(parts[3].trim());
+            ProductType type = ProductType.valueOf(parts[4].trim()); // Convertire String -> Enum
+
+            // Crearea obiectului Product
+            return new Product(id, parts[1].trim(), price, type, stock, parts[5].trim());
+        } catch (IllegalArgumentException e) {
+            // Prinde erorile de parsare (NumberFormatException, erori Enum.valueOf)
+            throw new DataProcessingException("Parsing error at " + location + ": invalid data type for product field.", e);
         }
     }
 
@@ -139,9 +435,9 @@ public class RepositoryProduct implements IRepository<Product, Integer> {
      */
     private void loadInitialData() {
         if (products.isEmpty()) {
-            products.put(1, new Product(1, "Laptop Basic", 3200.0f, ProductType.ELECTRONIC, 10, "Ideal pentru munca."));
-            products.put(2, new Product(2, "Carte POO", 65.50f, ProductType.BOOKS, 25, "Manual academic."));
-            products.put(3, new Product(3, "Bluza Casual", 150.0f, ProductType.CLOTHING, 20, "100% bumbac."));
+            save(new Product(1, "Laptop Basic", 3200.0f, ProductType.ELECTRONIC, 10, "Ideal pentru munca."));
+            save(new Product(2, "Carte POO", 65.50f, ProductType.BOOKS, 25, "Manual academic."));
+            save(new Product(3, "Bluza Casual", 150.0f, ProductType.CLOTHING, 20, "100% bumbac."));
             System.out.println("INFO: Fisierul nu a fost gasit. Colectia initializata cu date de test.");
         }
     }
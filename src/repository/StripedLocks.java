@@ -0,0 +1,87 @@
+package repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Set fix de lock-uri (stripe-uri) selectate dupa ID-ul entitatii.
+ * Operatiile pe ID-uri diferite ruleaza in paralel in majoritatea cazurilor, iar cele pe
+ * acelasi ID sunt serializate, fara un lock global pe intreaga colectie.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * Constructor. Numarul de stripe-uri este rotunjit la urmatoarea putere a lui 2.
+     * @param stripeCount Numarul minim de stripe-uri.
+     */
+    public StripedLocks(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returneaza lock-ul asociat unui ID. Acelasi ID primeste intotdeauna acelasi lock.
+     * @param id ID-ul entitatii.
+     * @return Lock-ul stripe-ului.
+     */
+    public ReentrantLock lockFor(int id) {
+        return stripes[stripeIndex(id)];
+    }
+
+    /**
+     * Blocheaza stripe-urile tuturor ID-urilor, in ordinea crescatoare a indexului de stripe.
+     * Ordinea fixa exclude deadlock-ul intre fire care blocheaza seturi suprapuse de ID-uri;
+     * un stripe comun mai multor ID-uri este blocat o singura data.
+     * @param ids ID-urile entitatilor.
+     * @return Lock-urile obtinute, de eliberat cu {@link #unlockAll(List)}.
+     */
+    public List<ReentrantLock> lockAll(Collection<Integer> ids) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Integer id : ids) {
+            indexes.add(stripeIndex(id));
+        }
+        List<ReentrantLock> acquired = new ArrayList<>(indexes.size());
+        try {
+            for (Integer index : indexes) {
+                ReentrantLock lock = stripes[index];
+                lock.lock();
+                acquired.add(lock);
+            }
+        } catch (RuntimeException | Error e) {
+            unlockAll(acquired);
+            throw e;
+        }
+        return acquired;
+    }
+
+    /**
+     * Elibereaza lock-urile obtinute cu {@link #lockAll(Collection)}, in ordine inversa.
+     * @param acquired Lock-urile de eliberat.
+     */
+    public void unlockAll(List<ReentrantLock> acquired) {
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            acquired.get(i).unlock();
+        }
+    }
+
+    /**
+     * Returneaza indexul stripe-ului pentru un ID (amestecare a bitilor, ca ID-urile
+     * consecutive sa nu ajunga pe stripe-uri vecine cu tipare previzibile).
+     * @param id ID-ul entitatii.
+     * @return Indexul stripe-ului, intre 0 si numarul de stripe-uri - 1.
+     */
+    public int stripeIndex(int id) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
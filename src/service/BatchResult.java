@@ -0,0 +1,120 @@
+package service;
+
+import model.Order;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rezultatul unui lot de comenzi plasat cu {@link ServiceOrder#placeOrders}: pentru fiecare cerere,
+ * in ordinea din lot, fie comanda creata, fie motivul respingerii.
+ */
+public final class BatchResult {
+
+    private final Order[] orders;
+    private final String[] errors;
+    private final int placedCount;
+    private final long durationNanos;
+
+    /**
+     * Constructor.
+     * @param orders Comanda creata pentru fiecare cerere (null daca cererea a fost respinsa).
+     * @param errors Motivul respingerii pentru fiecare cerere (null daca a fost plasata).
+     * @param durationNanos Durata procesarii lotului, in nanosecunde.
+     */
+    BatchResult(Order[] orders, String[] errors, long durationNanos) {
+        this.orders = orders;
+        this.errors = errors;
+        this.durationNanos = durationNanos;
+        int placed = 0;
+        for (Order order : orders) {
+            if (order != null) {
+                placed++;
+            }
+        }
+        this.placedCount = placed;
+    }
+
+    /**
+     * Returneaza numarul de cereri din lot.
+     * @return Dimensiunea lotului.
+     */
+    public int size() {
+        return orders.length;
+    }
+
+    /**
+     * Verifica daca cererea de pe o pozitie a fost plasata.
+     * @param index Pozitia in lot.
+     * @return true daca s-a creat o comanda.
+     */
+    public boolean isPlaced(int index) {
+        return orders[index] != null;
+    }
+
+    /**
+     * Returneaza comanda creata pentru o cerere.
+     * @param index Pozitia in lot.
+     * @return Comanda sau null daca cererea a fost respinsa.
+     */
+    public Order getOrder(int index) {
+        return orders[index];
+    }
+
+    /**
+     * Returneaza motivul respingerii unei cereri (mesajul pe care l-ar fi avut InvalidDataException la placeOrder).
+     * @param index Pozitia in lot.
+     * @return Mesajul sau null daca cererea a fost plasata.
+     */
+    public String getError(int index) {
+        return errors[index];
+    }
+
+    /**
+     * Returneaza numarul de comenzi plasate.
+     * @return Numarul de comenzi create.
+     */
+    public int getPlacedCount() {
+        return placedCount;
+    }
+
+    /**
+     * Returneaza numarul de cereri respinse.
+     * @return Numarul de erori.
+     */
+    public int getFailedCount() {
+        return orders.length - placedCount;
+    }
+
+    /**
+     * Returneaza comenzile create, in ordinea din lot.
+     * @return Lista comenzilor plasate.
+     */
+    public List<Order> getPlacedOrders() {
+        List<Order> placed = new ArrayList<>(placedCount);
+        for (Order order : orders) {
+            if (order != null) {
+                placed.add(order);
+            }
+        }
+        return Collections.unmodifiableList(placed);
+    }
+
+    /**
+     * Returneaza durata procesarii lotului.
+     * @return Durata, in milisecunde.
+     */
+    public double getDurationMillis() {
+        return durationNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returneaza debitul lotului: cereri procesate (plasate sau respinse) pe secunda.
+     * @return Cereri pe secunda.
+     */
+    public double getOrdersPerSecond() {
+        return durationNanos == 0 ? 0 : orders.length * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos;
+    }
+}
@@ -0,0 +1,84 @@
+package service;
+
+import model.Product;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Versiune a catalogului de produse, publicata de ServiceProduct.
+ * Contine produsele ordonate dupa ID; lista nu se schimba dupa publicare, deci poate fi
+ * parcursa de oricate fire fara lock-uri. Produsele sunt instantele din Repository: o modificare
+ * de nume, pret sau descriere inlocuieste instanta (vezi ServiceProduct.saveOrUpdateProduct)
+ * si publica o versiune noua, deci aceste campuri nu se schimba pentru cititorii unei versiuni.
+ * Stocul este singurul camp modificat pe loc: este citit direct din produs (camp volatile),
+ * astfel incat comenzile nu invalideaza catalogul.
+ */
+public final class CatalogSnapshot {
+
+    private static final Comparator<Product> BY_ID = Comparator.comparingInt(Product::getId);
+
+    private final long version;
+    private final Product[] products;
+    private final List<Product> view;
+
+    /**
+     * Constructor. Copiaza si sorteaza produsele dupa ID.
+     * @param version Versiunea catalogului.
+     * @param products Produsele catalogului.
+     */
+    CatalogSnapshot(long version, Product[] products) {
+        this.version = version;
+        this.products = products.clone();
+        Arrays.sort(this.products, BY_ID);
+        this.view = Collections.unmodifiableList(Arrays.asList(this.products));
+    }
+
+    /**
+     * Returneaza versiunea catalogului (creste la fiecare adaugare, modificare sau stergere de produs).
+     * @return Versiunea.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returneaza produsele, ordonate dupa ID, ca lista nemodificabila.
+     * @return Lista de produse.
+     */
+    public List<Product> getProducts() {
+        return view;
+    }
+
+    /**
+     * Returneaza numarul de produse din catalog.
+     * @return Numarul de produse.
+     */
+    public int size() {
+        return products.length;
+    }
+
+    /**
+     * Cauta un produs dupa ID (cautare binara).
+     * @param id ID-ul produsului.
+     * @return Produsul sau null daca nu exista in aceasta versiune.
+     */
+    public Product findById(int id) {
+        int low = 0;
+        int high = products.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = products[mid].getId();
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return products[mid];
+            }
+        }
+        return null;
+    }
+}
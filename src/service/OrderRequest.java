@@ -0,0 +1,41 @@
+package service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * O comanda dintr-un lot primit de la o integrare externa: clientul si cantitatea ceruta
+ * pentru fiecare ID de produs. Obiect imutabil, folosit de {@link ServiceOrder#placeOrders}.
+ */
+public final class OrderRequest {
+
+    private final int clientId;
+    private final Map<Integer, Integer> quantities;
+
+    /**
+     * Constructor. Copiaza cantitatile (ordinea liniilor este pastrata).
+     * @param clientId ID-ul clientului.
+     * @param quantities Cantitatea ceruta pentru fiecare ID de produs.
+     */
+    public OrderRequest(int clientId, Map<Integer, Integer> quantities) {
+        this.clientId = clientId;
+        this.quantities = Collections.unmodifiableMap(new LinkedHashMap<>(quantities));
+    }
+
+    /**
+     * Returneaza ID-ul clientului.
+     * @return ID-ul clientului.
+     */
+    public int getClientId() {
+        return clientId;
+    }
+
+    /**
+     * Returneaza cantitatile cerute (nemodificabile).
+     * @return ID produs -> cantitate.
+     */
+    public Map<Integer, Integer> getQuantities() {
+        return quantities;
+    }
+}
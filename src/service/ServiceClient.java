@@ -1,25 +1,36 @@
 package service;
 
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 import model.Client;
-import repository.IRepository;
+import repository.IClientRepository;
+import repository.IdSequence;
 import java.util.List;
 import java.util.Optional; // Import nou pentru metoda authenticate
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Clasa ServiceClient contine logica de business pentru entitatea Client.
  * Gestioneaza validarea datelor, autentificarea si coordoneaza operatiunile CRUD.
  */
 public class ServiceClient {
+    private static final LatencyHistogram AUTHENTICATE_LATENCY = MetricsRegistry.getDefault()
+            .histogram("store_authenticate_seconds", "Duration of ServiceClient.authenticate calls.");
+    private static final Counter AUTHENTICATE_FAILURES = MetricsRegistry.getDefault()
+            .counter("store_authenticate_failures_total", "Login attempts with an unknown email or a wrong password.");
 
-    private final IRepository<Client, Integer> clientRepository;
+    private final IClientRepository clientRepository;
     private static AtomicInteger nextId = new AtomicInteger(1);
+    // Secventa persistenta de ID-uri; daca lipseste, se foloseste contorul din memorie
+    private static volatile IdSequence idSequence;
 
     /**
-     * Constructor care injecteaza dependenta IRepository.
+     * Constructor care injecteaza dependenta IClientRepository.
      * @param clientRepository Repository-ul de Clienti.
      */
-    public ServiceClient(IRepository<Client, Integer> clientRepository) {
+    public ServiceClient(IClientRepository clientRepository) {
         this.clientRepository = clientRepository;
     }
 
@@ -33,6 +44,20 @@ public class ServiceClient {
         }
     }
 
+    /**
+     * Seteaza secventa persistenta din care se aloca ID-urile noi (inlocuieste contorul din memorie).
+     * @param sequence Secventa de ID-uri (ex: data/clients.seq).
+     */
+    public static void setIdSequence(IdSequence sequence) {
+        idSequence = sequence;
+    }
+
+    // Aloca un ID nou: din secventa persistenta, daca este configurata
+    private static int allocateId() {
+        IdSequence sequence = idSequence;
+        return sequence != null ? sequence.nextId() : nextId.getAndIncrement();
+    }
+
 
     /**
      * Valideaza datele unui obiect Client (Regula de Business).
@@ -49,6 +74,12 @@ public class ServiceClient {
         if (client.getName() == null || client.getName().trim().isEmpty()) {
             throw new InvalidDataException("Client name cannot be empty.");
         }
+        // Toate campurile text ajung in randurile din jurnal si din clients.txt
+        StoredText.check("Client name", client.getName());
+        StoredText.check("Client email", client.getEmail());
+        StoredText.check("Client password", client.getPassword());
+        StoredText.check("Client delivery address", client.getDeliveryAddress());
+        StoredText.check("Client phone number", client.getPhoneNumber());
     }
 
     // --- Metode CRUD ---
@@ -57,18 +88,29 @@ public class ServiceClient {
      * Salveaza sau actualizeaza un client (Register).
      * Aplica validarea si atribuie un ID nou daca este o inregistrare noua.
      * @param client Clientul de salvat/actualizat.
-     * @throws InvalidDataException Daca datele clientului nu sunt valide.
+     * @throws InvalidDataException Daca datele clientului nu sunt valide sau email-ul este deja folosit.
      */
     public void saveOrUpdateClient(Client client) throws InvalidDataException {
         validateClient(client);
 
-        if (client.getId() <= 0) {
+        // Unicitatea email-ului (cautare O(1) in indexul Repository-ului)
+        Client existing = clientRepository.findByEmail(client.getEmail());
+        if (existing != null && existing.getId() != client.getId()) {
+            throw new InvalidDataException("A client with email '" + client.getEmail() + "' is already registered.");
+        }
+
+        boolean created = client.getId() <= 0;
+        if (created) {
             // Salvare (Creare) - Atribuie un ID nou
-            client.setId(nextId.getAndIncrement());
-            clientRepository.save(client);
-        } else {
-            // Actualizare (Update)
-            clientRepository.save(client);
+            client.setId(allocateId());
+        }
+        // Verificarea de mai sus nu este atomica: Repository-ul rezerva email-ul la salvare,
+        // deci din doua inregistrari concurente cu acelasi email reuseste doar una
+        if (!clientRepository.saveIfEmailAvailable(client)) {
+            if (created) {
+                client.setId(0);
+            }
+            throw new InvalidDataException("A client with email '" + client.getEmail() + "' is already registered.");
         }
     }
 
@@ -89,6 +131,14 @@ public class ServiceClient {
         return clientRepository.findAll();
     }
 
+    /**
+     * Parcurge toti clientii direct din Repository, fara a construi o lista intermediara.
+     * @param action Actiunea aplicata fiecarui client.
+     */
+    public void forEachClient(Consumer<? super Client> action) {
+        clientRepository.forEach(action);
+    }
+
     /**
      * Sterge un client dupa ID.
      * @param id ID-ul clientului de sters.
@@ -104,18 +154,21 @@ public class ServiceClient {
 
     /**
      * Autentifica un client pe baza email-ului si parolei (Login).
+     * Clientul este gasit prin indexul dupa email al Repository-ului (O(1)), fara a parcurge toti clientii.
      * @param email Email-ul introdus.
      * @param password Parola introdusa.
      * @return Optional<Client> care contine clientul gasit sau este gol.
      */
     public Optional<Client> authenticate(String email, String password) {
-
-        for (Client c : clientRepository.findAll()) {
-            // Compara email-ul (insensibil la majuscule) si parola (sensibila)
-            if (c.getEmail().equalsIgnoreCase(email) && c.getPassword().equals(password)) {
-                return Optional.of(c);
-            }
+        long start = System.nanoTime();
+        // Email-ul este comparat insensibil la majuscule (prin index), parola este sensibila
+        Client c = clientRepository.findByEmail(email);
+        boolean authenticated = c != null && c.getPassword().equals(password);
+        AUTHENTICATE_LATENCY.recordSince(start);
+        if (authenticated) {
+            return Optional.of(c);
         }
+        AUTHENTICATE_FAILURES.increment();
         return Optional.empty();
     }
 
@@ -125,6 +178,8 @@ public class ServiceClient {
      * Salveaza toate datele clientilor in fisier inainte de oprirea aplicatiei.
      */
     public void shutdownApplicationAndSaveData() {
-        clientRepository.saveAllData();
+        if (clientRepository.hasUnsavedChanges()) {
+            clientRepository.saveAllData();
+        }
     }
 }
\ No newline at end of file
@@ -1,32 +1,64 @@
 package service;
 
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.Client;
 import model.Order;
+import model.OrderLines;
 import model.OrderStatus;
 import model.Product;
-import repository.IRepository;
+import repository.IOrderRepository;
+import repository.IdSequence;
+import repository.StripedLocks;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service Class pentru entitatea Order.
  * Contine logica de tranzactie (plasare comanda), raportare si coordonarea stocurilor.
  */
 public class ServiceOrder {
-    private final IRepository<Order, Integer> orderRepository;
+    // Metrici pe calea critica (in locul mesajelor pe stdout, sincronizate, pentru fiecare comanda)
+    private static final LatencyHistogram PLACE_ORDER_LATENCY = MetricsRegistry.getDefault()
+            .histogram("store_place_order_seconds", "Duration of ServiceOrder.placeOrder calls.");
+    private static final Counter ORDERS_PLACED = MetricsRegistry.getDefault()
+            .counter("store_orders_placed_total", "Orders placed successfully.");
+    private static final Counter PLACE_ORDER_FAILURES = MetricsRegistry.getDefault()
+            .counter("store_place_order_failures_total", "placeOrder calls rejected or failed (stock left unchanged).");
+    private static final LatencyHistogram PLACE_ORDERS_BATCH_LATENCY = MetricsRegistry.getDefault()
+            .histogram("store_place_orders_batch_seconds", "Duration of ServiceOrder.placeOrders batches.");
+    private static final Counter ORDERS_DELETED = MetricsRegistry.getDefault()
+            .counter("store_orders_deleted_total", "deleteOrder calls.");
+
+    private final IOrderRepository orderRepository;
     private final ServiceProduct serviceProduct;
 
     private static AtomicInteger nextId = new AtomicInteger(1);
+    // Secventa persistenta de ID-uri; daca lipseste, se foloseste contorul din memorie
+    private static volatile IdSequence idSequence;
+
+    // Agregat incremental pentru raportul de vanzari: ID produs -> unitati vandute
+    private final Map<Integer, Integer> unitsSoldByProduct = new ConcurrentHashMap<>();
+    // Agregatul se construieste la primul raport sau la prima modificare, nu la pornire
+    private final Object salesLock = new Object();
+    private volatile boolean salesReady;
+    // Lock-uri pe ID-ul comenzii: o comanda stearsa de doua ori este scazuta o singura data din agregat
+    private final StripedLocks orderLocks = new StripedLocks(64);
 
     /**
      * Constructor cu Injectie de Dependenta.
      * @param orderRepository Repository-ul de Comenzi.
      * @param serviceProduct Service-ul de Produse (pentru modificarea stocului).
      */
-    public ServiceOrder(IRepository<Order, Integer> orderRepository, ServiceProduct serviceProduct) {
+    public ServiceOrder(IOrderRepository orderRepository, ServiceProduct serviceProduct) {
         this.orderRepository = orderRepository;
         this.serviceProduct = serviceProduct;
     }
@@ -42,6 +74,26 @@ public class ServiceOrder {
         }
     }
 
+    /**
+     * Seteaza secventa persistenta din care se aloca ID-urile noi (inlocuieste contorul din memorie).
+     * @param sequence Secventa de ID-uri (ex: data/orders.seq).
+     */
+    public static void setIdSequence(IdSequence sequence) {
+        idSequence = sequence;
+    }
+
+    // Aloca un ID nou: din secventa persistenta, daca este configurata
+    private static int allocateId() {
+        IdSequence sequence = idSequence;
+        return sequence != null ? sequence.nextId() : nextId.getAndIncrement();
+    }
+
+    // Aloca un interval de ID-uri consecutive si returneaza primul ID
+    private static int allocateIds(int count) {
+        IdSequence sequence = idSequence;
+        return sequence != null ? sequence.nextIds(count) : nextId.getAndAdd(count);
+    }
+
     /**
      * Returneaza lista tuturor comenzilor din memorie.
      * @return Lista de obiecte Order.
@@ -50,6 +102,14 @@ public class ServiceOrder {
         return orderRepository.findAll();
     }
 
+    /**
+     * Returneaza numarul total de comenzi, fara a copia colectia.
+     * @return Numarul de comenzi.
+     */
+    public int countOrders() {
+        return orderRepository.count();
+    }
+
     /**
      * Cauta o comanda dupa ID.
      * @param id ID-ul comenzii.
@@ -59,13 +119,44 @@ public class ServiceOrder {
         return orderRepository.findById(id);
     }
 
+    /**
+     * Returneaza o pagina din istoricul de comenzi al unui client (ordonat crescator dupa ID).
+     * Costul este O(k) in numarul de comenzi ale clientului, nu in numarul total de comenzi.
+     * @param clientId ID-ul clientului.
+     * @param offset Numarul de comenzi sarite de la inceput.
+     * @param limit Numarul maxim de comenzi returnate.
+     * @return Lista de comenzi din pagina.
+     */
+    public List<Order> findOrdersByClient(int clientId, int offset, int limit) {
+        return orderRepository.findByClientId(clientId, offset, limit);
+    }
+
+    /**
+     * Populeaza istoricul de comenzi (orderHistory) al unui client din indexul Repository-ului.
+     * @param client Clientul al carui istoric se incarca.
+     */
+    public void loadOrderHistory(Client client) {
+        client.setOrderHistory(orderRepository.findByClientId(client.getId(), 0, Integer.MAX_VALUE));
+    }
+
     /**
      * Sterge o comanda dupa ID.
      * @param id ID-ul comenzii de sters.
      */
     public void deleteOrder(int id) {
-        orderRepository.delete(id);
-        System.out.println("SERVICE: Order " + id + " deleted successfully.");
+        ensureSalesAggregate();
+        ReentrantLock lock = orderLocks.lockFor(id);
+        lock.lock();
+        try {
+            Order existing = orderRepository.findById(id);
+            orderRepository.delete(id);
+            if (existing != null) {
+                addToSales(existing, -1);
+            }
+        } finally {
+            lock.unlock();
+        }
+        ORDERS_DELETED.increment();
     }
 
     // Metoda ajutatoare pentru a gasi detaliile Produsului REAL folosind ServiceProduct.
@@ -75,91 +166,221 @@ public class ServiceOrder {
 
     /**
      * Calculeaza numarul total de unitati comandate pentru fiecare produs (Cerinta 1).
+     * Raspunsul vine din agregatul mentinut incremental, in O(numar de produse vandute);
+     * numele sunt rezolvate la citire, deci reflecta redenumirile produselor.
      * @return Map<String, Integer> unde cheia este numele produsului, iar valoarea este totalul unitatilor vandute.
      */
     public Map<String, Integer> getUnitsSoldPerProduct() {
+        ensureSalesAggregate();
         Map<String, Integer> salesReport = new HashMap<>();
-        List<Order> allOrders = orderRepository.findAll();
 
-        for (Order order : allOrders) {
-            for (Map.Entry<Product, Integer> item : order.getProducts().entrySet()) {
+        unitsSoldByProduct.forEach((productId, quantitySold) -> {
+            // Folosim ServiceProduct pentru a gasi numele corect din stocul activ
+            Product realProduct = findRealProductDetails(productId);
 
-                int productId = item.getKey().getId();
-                // Folosim ServiceProduct pentru a gasi numele corect din stocul activ
-                Product realProduct = findRealProductDetails(productId);
+            if (realProduct != null) {
+                salesReport.merge(realProduct.getName(), quantitySold, Integer::sum);
+            }
+        });
+        return salesReport;
+    }
 
-                if (realProduct != null) {
-                    String productName = realProduct.getName();
-                    int quantitySold = item.getValue();
-                    salesReport.put(productName, salesReport.getOrDefault(productName, 0) + quantitySold);
-                }
+    /**
+     * Construieste agregatul de vanzari dintr-o parcurgere a comenzilor, o singura data.
+     * Se apeleaza inaintea oricarei salvari sau stergeri, deci nicio comanda nu este numarata de doua ori:
+     * comenzile salvate ulterior sunt adaugate doar incremental.
+     */
+    private void ensureSalesAggregate() {
+        if (salesReady) {
+            return;
+        }
+        synchronized (salesLock) {
+            if (!salesReady) {
+                orderRepository.forEach(order -> addToSales(order, 1));
+                salesReady = true;
             }
         }
-        return salesReport;
+    }
+
+    // Adauga (sign = 1) sau scade (sign = -1) liniile comenzii din agregatul de vanzari
+    private void addToSales(Order order, int sign) {
+        OrderLines lines = order.getLines();
+        for (int i = 0; i < lines.size(); i++) {
+            unitsSoldByProduct.merge(lines.productIdAt(i), sign * lines.quantityAt(i),
+                    (current, delta) -> current + delta == 0 ? null : current + delta);
+        }
     }
 
 
     /**
-     * Finalizeaza o comanda: calculeaza totalul, scade stocul si salveaza.
-     * Implementeaza logica de tranzactie.
+     * Finalizeaza o comanda: rezerva stocul tuturor liniilor (totul-sau-nimic), calculeaza totalul si salveaza.
+     * Implementeaza logica de tranzactie; comenzile pe produse diferite ruleaza in paralel.
      * @param clientId ID-ul clientului care plaseaza comanda.
      * @param productsInCart Map<Product, Integer> cu produsele si cantitatea dorita.
      * @return Obiectul Order nou creat.
-     * @throws InvalidDataException Daca stocul este insuficient.
+     * @throws InvalidDataException Daca stocul este insuficient pentru cel putin o linie (stocul ramane neschimbat).
      */
     public Order placeOrder(int clientId, Map<Product, Integer> productsInCart) throws InvalidDataException{
-        // 1. Pre-validarea stocului
-        for(Map.Entry<Product, Integer> entry : productsInCart.entrySet()){
-            Product product = entry.getKey();
-            int requestedQuantity = entry.getValue();
+        long start = System.nanoTime();
+        boolean placed = false;
+        try {
+            Order order = placeOrderUnmetered(clientId, productsInCart);
+            placed = true;
+            return order;
+        } finally {
+            PLACE_ORDER_LATENCY.recordSince(start);
+            (placed ? ORDERS_PLACED : PLACE_ORDER_FAILURES).increment();
+        }
+    }
 
-            if(product.getStockQuantity() < requestedQuantity){
-                throw new InvalidDataException("Insufficient stock for product: " + product.getName() +
-                        ". Available: " + product.getStockQuantity() + ", Requested: " + requestedQuantity);
-            }
+    // Logica placeOrder, fara masurare
+    private Order placeOrderUnmetered(int clientId, Map<Product, Integer> productsInCart) throws InvalidDataException{
+        ensureSalesAggregate();
+        // 1. Liniile comenzii, cate una per ID de produs (copie a cosului: apelantul, ex: GUI, isi goleste cosul)
+        OrderLines lines = new OrderLines(productsInCart.size());
+        for(Map.Entry<Product, Integer> entry : productsInCart.entrySet()){
+            lines.merge(entry.getKey(), entry.getValue(), Integer::sum);
         }
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for(int i = 0; i < lines.size(); i++){
+            quantities.put(lines.productIdAt(i), lines.quantityAt(i));
+        }
+
+        // 2. Rezervarea atomica a stocului pentru toate liniile (Coordonarea cu ServiceProduct)
+        serviceProduct.reserveStock(quantities);
 
-        // 2. Calcul
-        float totalAmount = calculateTotal(productsInCart);
+        // 3. Calcul
+        float totalAmount = calculateTotal(lines);
 
-        // 3. Creare Order
-        int orderId = nextId.getAndIncrement();
+        // 4. Creare Order
+        int orderId = allocateId();
 
         Order newOrder = new Order(
                 orderId,
                 clientId,
-                productsInCart,
+                lines,
                 LocalDateTime.now(),
                 OrderStatus.PENDING,
                 totalAmount
         );
 
-        orderRepository.save(newOrder);
+        // 5. Comanda se salveaza doar dupa ce toate liniile au fost rezervate
+        try {
+            orderRepository.save(newOrder);
+        } catch (RuntimeException e) {
+            serviceProduct.releaseStock(quantities);
+            throw e;
+        }
+        addToSales(newOrder, 1);
+        return newOrder;
+    }
+
+    /**
+     * Plaseaza un lot de comenzi (ex: un fisier primit de la o integrare). Stocul intregului lot este
+     * verificat intr-o singura trecere si scazut o singura data per produs, ID-urile sunt alocate ca un
+     * interval consecutiv, iar comenzile sunt salvate impreuna (o singura sincronizare a jurnalului).
+     * Fiecare comanda este acceptata sau respinsa individual (totul-sau-nimic pe liniile ei), in ordinea din lot.
+     * @param requests Comenzile de plasat.
+     * @return Comanda creata sau motivul respingerii, pentru fiecare cerere.
+     * @throws repository.DataProcessingException Daca salvarea esueaza (stocul rezervat este eliberat si nicio comanda nu este raportata ca plasata).
+     */
+    public BatchResult placeOrders(List<OrderRequest> requests) {
+        long start = System.nanoTime();
+        ensureSalesAggregate();
+        int size = requests.size();
+        String[] errors = new String[size];
+        OrderLines[] lines = new OrderLines[size];
+        List<Map<Integer, Integer>> demands = new ArrayList<>(size);
+
+        // 1. Liniile fiecarei comenzi; produsele necunoscute si cosurile goale sunt respinse inainte de rezervare
+        for (int i = 0; i < size; i++) {
+            Map<Integer, Integer> quantities = requests.get(i).getQuantities();
+            demands.add(quantities);
+            if (quantities.isEmpty()) {
+                errors[i] = "Order has no products.";
+                continue;
+            }
+            OrderLines orderLines = new OrderLines(quantities.size());
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                Product product = findRealProductDetails(entry.getKey());
+                if (product == null) {
+                    errors[i] = "Product with ID " + entry.getKey() + " was not found.";
+                    break;
+                }
+                orderLines.merge(product, entry.getValue(), Integer::sum);
+            }
+            lines[i] = orderLines;
+        }
+
+        // 2. Rezervarea stocului pentru tot lotul
+        serviceProduct.reserveStockBatch(demands, errors);
+
+        // 3. ID-uri consecutive pentru comenzile acceptate
+        Order[] orders = new Order[size];
+        List<Order> accepted = new ArrayList<>();
+        int count = 0;
+        for (String error : errors) {
+            if (error == null) {
+                count++;
+            }
+        }
+        if (count > 0) {
+            int orderId = allocateIds(count);
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < size; i++) {
+                if (errors[i] == null) {
+                    orders[i] = new Order(orderId++, requests.get(i).getClientId(), lines[i], now,
+                            OrderStatus.PENDING, calculateTotal(lines[i]));
+                    accepted.add(orders[i]);
+                }
+            }
 
-        // 4. Scadere Stoc (Coordonarea cu ServiceProduct)
-        for(Map.Entry<Product, Integer> entry: productsInCart.entrySet()){
-            serviceProduct.decreaseStock(entry.getKey().getId(),entry.getValue());
+            // 4. Salvarea impreuna; la eroare, stocul rezervat pentru lot este eliberat
+            try {
+                orderRepository.saveAll(accepted);
+            } catch (RuntimeException e) {
+                Map<Integer, Integer> reserved = new HashMap<>();
+                for (int i = 0; i < size; i++) {
+                    if (errors[i] == null) {
+                        demands.get(i).forEach((productId, quantity) -> reserved.merge(productId, quantity, Integer::sum));
+                    }
+                }
+                serviceProduct.releaseStock(reserved);
+                PLACE_ORDER_FAILURES.add(size);
+                throw e;
+            }
+            for (Order order : accepted) {
+                addToSales(order, 1);
+            }
         }
 
-        System.out.println("SERVICE: Order " + orderId + " placed successfully. Total: " + totalAmount);
-        return newOrder;
+        ORDERS_PLACED.add(count);
+        PLACE_ORDER_FAILURES.add(size - count);
+        long duration = System.nanoTime() - start;
+        PLACE_ORDERS_BATCH_LATENCY.record(duration);
+        return new BatchResult(orders, errors, duration);
     }
 
     /**
      * Metoda privata pentru a calcula valoarea totala a produselor din cos.
      */
-    private float calculateTotal(Map<Product, Integer> products) {
+    private float calculateTotal(OrderLines lines) {
         float total = 0;
-        for (Map.Entry<Product, Integer> entry : products.entrySet()) {
-            total += entry.getKey().getPrice() * entry.getValue();
+        for (int i = 0; i < lines.size(); i++) {
+            total += lines.productAt(i).getPrice() * lines.quantityAt(i);
         }
         return total;
     }
 
     /**
      * Salveaza toate datele comenzilor in fisier inainte de oprirea aplicatiei.
+     * Daca nu exista modificari nesalvate, fisierele nu sunt atinse.
      */
     public void shutdownApplicationAndSaveData() {
+        if (!orderRepository.hasUnsavedChanges()) {
+            System.out.println("SERVICE: Order data unchanged, nothing to save.");
+            return;
+        }
         orderRepository.saveAllData();
         System.out.println("SERVICE: Order data saved successfully.");
     }
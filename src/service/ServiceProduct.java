@@ -1,19 +1,61 @@
 package service;
 
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 import model.Product;
 import repository.IRepository;
+import repository.IdSequence;
+import repository.StripedLocks;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * Clasa ServiceProduct contine logica de business pentru entitatea Product.
  * Gestioneaza validarea datelor, calculeaza rapoarte si coordoneaza operatiunile CRUD.
  */
 public class ServiceProduct {
+    private static final LatencyHistogram DECREASE_STOCK_LATENCY = MetricsRegistry.getDefault()
+            .histogram("store_stock_update_seconds", "Duration of stock updates, including the wait for product locks.", "operation", "decrease");
+    private static final LatencyHistogram RESERVE_STOCK_LATENCY = MetricsRegistry.getDefault()
+            .histogram("store_stock_update_seconds", "Duration of stock updates, including the wait for product locks.", "operation", "reserve");
+    private static final Counter DECREASE_STOCK_REJECTIONS = MetricsRegistry.getDefault()
+            .counter("store_stock_rejections_total", "Stock updates rejected (unknown product, invalid quantity or insufficient stock).", "operation", "decrease");
+    private static final Counter RESERVE_STOCK_REJECTIONS = MetricsRegistry.getDefault()
+            .counter("store_stock_rejections_total", "Stock updates rejected (unknown product, invalid quantity or insufficient stock).", "operation", "reserve");
+    private static final LatencyHistogram RESERVE_BATCH_LATENCY = MetricsRegistry.getDefault()
+            .histogram("store_stock_update_seconds", "Duration of stock updates, including the wait for product locks.", "operation", "reserve_batch");
+    private static final Counter RESERVE_BATCH_REJECTIONS = MetricsRegistry.getDefault()
+            .counter("store_stock_rejections_total", "Stock updates rejected (unknown product, invalid quantity or insufficient stock).", "operation", "reserve_batch");
+
     private final IRepository<Product,Integer> productRepository;
 
     private static AtomicInteger nextId = new AtomicInteger(1);
+    // Secventa persistenta de ID-uri; daca lipseste, se foloseste contorul din memorie
+    private static volatile IdSequence idSequence;
+
+    // Lock-uri pe ID-ul produsului: verificarea si scaderea stocului sunt atomice per produs
+    private final StripedLocks stockLocks = new StripedLocks(64);
+
+    // Valoarea totala a stocului in bani (long, exact), mentinuta incremental la fiecare modificare
+    private final AtomicLong totalStockValueCents = new AtomicLong();
+    // Contributia curenta (in bani) a fiecarui produs la total, pentru calculul diferentei
+    private final Map<Integer, Long> stockValueCentsByProduct = new ConcurrentHashMap<>();
+
+    // Catalogul publicat (copy-on-write) si versiunea curenta a descrierilor de produse
+    private volatile CatalogSnapshot catalog;
+    private final AtomicLong catalogVersion = new AtomicLong();
 
     /**
      * Constructor care injecteaza dependenta IRepository.
@@ -21,6 +63,7 @@ public class ServiceProduct {
      */
     public ServiceProduct(IRepository<Product, Integer> productRepository) {
         this.productRepository = productRepository;
+        productRepository.forEach(this::recordStockValue);
     }
 
     /**
@@ -33,9 +76,26 @@ public class ServiceProduct {
         }
     }
 
+    /**
+     * Seteaza secventa persistenta din care se aloca ID-urile noi (inlocuieste contorul din memorie).
+     * @param sequence Secventa de ID-uri (ex: data/products.seq).
+     */
+    public static void setIdSequence(IdSequence sequence) {
+        idSequence = sequence;
+    }
+
+    // Aloca un ID nou: din secventa persistenta, daca este configurata
+    private static int allocateId() {
+        IdSequence sequence = idSequence;
+        return sequence != null ? sequence.nextId() : nextId.getAndIncrement();
+    }
+
 
     /**
      * Adauga sau actualizeaza un produs, aplicand regulile de validare.
+     * La actualizare, stocul din p este ignorat: se pastreaza stocul curent al produsului
+     * (stocul unui produs existent se schimba prin {@link #adjustStock(int, int)} sau prin comenzi).
+     * In Repository se salveaza o copie a lui p; modificarile ulterioare ale lui p nu sunt vizibile.
      * Implementeaza Cerinta 5 (Validare).
      * @param p Produsul de salvat.
      * @throws InvalidDataException Daca pretul sau alte campuri esentiale sunt invalide.
@@ -48,6 +108,9 @@ public class ServiceProduct {
         if (p.getName() == null || p.getName().trim().length() < 3) {
             throw new InvalidDataException("Product name is mandatory and must have at least 3 characters.");
         }
+        // Separatorul ';' sau o linie noua ar corupe randurile text din jurnal si din products.txt
+        StoredText.check("Product name", p.getName());
+        StoredText.check("Product description", p.getDescription());
         if (p.getStockQuantity() < 0) {
             throw new InvalidDataException("Stock quantity cannot be negative for product '" + p.getName() + "'.");
         }
@@ -55,11 +118,64 @@ public class ServiceProduct {
         // 2. Logica de atribuire a ID-ului
         if (p.getId() <= 0) {
             // Daca ID-ul este 0 (nou), atribuie un ID unic inainte de salvare.
-            p.setId(nextId.getAndIncrement());
+            p.setId(allocateId());
         }
 
-        // 3. Salvare (Update sau Creare)
-        productRepository.save(p);
+        // 3. Salvare (Update sau Creare), sub lock-ul de stoc al produsului. Stocul unui produs existent se
+        // modifica doar prin adjust/decrease/reserve/release: p poate fi o copie (ex: formular) cu un stoc vechi,
+        // deci stocul curent este preluat din Repository, altfel salvarea ar anula o scadere concurenta.
+        // Se salveaza o instanta noua: numele, pretul, tipul si descrierea produsului publicat nu se modifica
+        // pe loc, deci cititorii concurenti vad fie versiunea veche, fie pe cea noua (vezi CatalogSnapshot)
+        ReentrantLock lock = stockLocks.lockFor(p.getId());
+        lock.lock();
+        try {
+            Product current = productRepository.findById(p.getId());
+            Product stored = new Product(p.getId(), p.getName(), p.getPrice(), p.getProductType(),
+                    current != null ? current.getStockQuantity() : p.getStockQuantity(), p.getDescription());
+            productRepository.save(stored);
+            recordStockValue(stored);
+        } finally {
+            lock.unlock();
+        }
+        // Descrierea produsului s-a schimbat: urmatorul cititor publica o versiune noua a catalogului
+        catalogVersion.incrementAndGet();
+    }
+
+    /**
+     * Modifica stocul unui produs existent cu o diferenta (reaprovizionare sau corectie de inventar).
+     * Ca la comenzi, stocul este modificat pe loc, sub lock-ul produsului; o salvare esuata il readuce la valoarea anterioara.
+     * @param productId ID-ul produsului.
+     * @param delta Cantitatea adaugata in stoc (negativa pentru a scoate din stoc).
+     * @return Stocul rezultat.
+     * @throws InvalidDataException Daca produsul nu exista sau stocul rezultat ar fi negativ ori prea mare.
+     */
+    public int adjustStock(int productId, int delta) throws InvalidDataException {
+        ReentrantLock lock = stockLocks.lockFor(productId);
+        lock.lock();
+        try {
+            Product p = productRepository.findById(productId);
+            if (p == null) {
+                throw new InvalidDataException("Product with ID " + productId + " was not found.");
+            }
+            int previous = p.getStockQuantity();
+            long stock = (long) previous + delta;
+            if (stock < 0 || stock > Integer.MAX_VALUE) {
+                throw new InvalidDataException("Stock for product '" + p.getName() + "' cannot be adjusted by " + delta
+                        + ". Current stock: " + previous);
+            }
+            p.setStockQuantity((int) stock);
+            try {
+                productRepository.save(p);
+            } catch (RuntimeException e) {
+                p.setStockQuantity(previous);
+                saveQuietly(p);
+                throw e;
+            }
+            recordStockValue(p);
+            return (int) stock;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -67,25 +183,244 @@ public class ServiceProduct {
      * Demonstreaza o logica de tranzactie complexa si coordonarea Service-urilor.
      * @param productId ID-ul produsului al carui stoc trebuie scazut.
      * @param quantity Cantitatea de scazut.
-     * @throws InvalidDataException Daca stocul este insuficient sau produsul nu exista.
+     * @throws InvalidDataException Daca produsul nu exista, cantitatea nu este strict pozitiva sau stocul este insuficient.
+     * @throws repository.DataProcessingException Daca salvarea esueaza (stocul ramane neschimbat).
      */
     public void decreaseStock(int productId, int quantity) throws InvalidDataException {
-        Product p = productRepository.findById(productId);
+        long start = System.nanoTime();
+        // Citire-verificare-scriere sub lock-ul produsului: doi cumparatori nu pot consuma acelasi stoc
+        ReentrantLock lock = stockLocks.lockFor(productId);
+        lock.lock();
+        try {
+            Product p = productRepository.findById(productId);
+
+            if (p == null) {
+                DECREASE_STOCK_REJECTIONS.increment();
+                throw new InvalidDataException("Product with ID " + productId + " was not found.");
+            }
+
+            // O cantitate negativa ar mari stocul
+            if (quantity <= 0) {
+                DECREASE_STOCK_REJECTIONS.increment();
+                throw new InvalidDataException("Quantity for product '" + p.getName() + "' must be strictly positive.");
+            }
+
+            // Validare stoc insuficient (Cerinta 5)
+            if (p.getStockQuantity() < quantity) {
+                DECREASE_STOCK_REJECTIONS.increment();
+                throw new InvalidDataException("Insufficient stock for product '" + p.getName() + "'. Current stock: " + p.getStockQuantity());
+            }
+
+            // Modificarea in memorie; la o eroare de persistenta stocul revine la valoarea anterioara
+            int previous = p.getStockQuantity();
+            p.setStockQuantity(previous - quantity);
+            try {
+                productRepository.save(p);
+            } catch (RuntimeException e) {
+                p.setStockQuantity(previous);
+                saveQuietly(p);
+                throw e;
+            }
+            recordStockValue(p);
+        } finally {
+            lock.unlock();
+            DECREASE_STOCK_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Rezerva stocul pentru toate liniile unei comenzi, totul-sau-nimic.
+     * Lock-urile produselor sunt luate intr-o ordine fixa, stocul curent (nu cel din cos) este
+     * verificat pentru toate liniile si abia apoi scazut. Daca o linie nu poate fi rezervata,
+     * niciun stoc nu este modificat.
+     * @param quantities Cantitatea ceruta pentru fiecare ID de produs.
+     * @throws InvalidDataException Daca un produs nu exista, cantitatea este invalida sau stocul este insuficient.
+     */
+    public void reserveStock(Map<Integer, Integer> quantities) throws InvalidDataException {
+        long start = System.nanoTime();
+        List<ReentrantLock> acquired = stockLocks.lockAll(quantities.keySet());
+        try {
+            // 1. Validare pe starea curenta, fara modificari
+            List<Product> products = new ArrayList<>(quantities.size());
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                Product p = productRepository.findById(entry.getKey());
+                int quantity = entry.getValue();
+                if (p == null) {
+                    RESERVE_STOCK_REJECTIONS.increment();
+                    throw new InvalidDataException("Product with ID " + entry.getKey() + " was not found.");
+                }
+                if (quantity <= 0) {
+                    RESERVE_STOCK_REJECTIONS.increment();
+                    throw new InvalidDataException("Ordered quantity for product '" + p.getName() + "' must be strictly positive.");
+                }
+                if (p.getStockQuantity() < quantity) {
+                    RESERVE_STOCK_REJECTIONS.increment();
+                    throw new InvalidDataException("Insufficient stock for product: " + p.getName() +
+                            ". Available: " + p.getStockQuantity() + ", Requested: " + quantity);
+                }
+                products.add(p);
+            }
+
+            // 2. Scaderea stocului; la o eroare de persistenta se revine asupra liniilor deja scazute
+            int applied = 0;
+            try {
+                for (Product p : products) {
+                    p.setStockQuantity(p.getStockQuantity() - quantities.get(p.getId()));
+                    applied++;
+                    productRepository.save(p);
+                    recordStockValue(p);
+                }
+            } catch (RuntimeException e) {
+                for (int i = 0; i < applied; i++) {
+                    Product p = products.get(i);
+                    p.setStockQuantity(p.getStockQuantity() + quantities.get(p.getId()));
+                    saveQuietly(p);
+                }
+                throw e;
+            }
+        } finally {
+            stockLocks.unlockAll(acquired);
+            RESERVE_STOCK_LATENCY.recordSince(start);
+        }
+    }
 
-        if (p == null) {
-            throw new InvalidDataException("Product with ID " + productId + " was not found.");
+    /**
+     * Rezerva stocul pentru un lot de comenzi, intr-o singura trecere. Lock-urile tuturor produselor din lot
+     * sunt luate o data (in ordine fixa); comenzile sunt verificate in ordinea din lot, fiecare totul-sau-nimic,
+     * fata de stocul ramas dupa comenzile anterioare. Cererea totala per produs este apoi scazuta
+     * o singura data, iar produsele modificate sunt salvate impreuna (o singura sincronizare a jurnalului).
+     * @param demands Cantitatea ceruta pentru fiecare ID de produs, per comanda.
+     * @param errors Motivul respingerii, per comanda: comenzile cu o eroare deja completata sunt sarite,
+     *               iar celor care nu pot fi rezervate li se completeaza mesajul.
+     * @throws repository.DataProcessingException Daca salvarea stocului esueaza (stocul ramane neschimbat).
+     */
+    public void reserveStockBatch(List<Map<Integer, Integer>> demands, String[] errors) {
+        long start = System.nanoTime();
+        Set<Integer> productIds = new HashSet<>();
+        for (int i = 0; i < demands.size(); i++) {
+            if (errors[i] == null) {
+                productIds.addAll(demands.get(i).keySet());
+            }
+        }
+        List<ReentrantLock> acquired = stockLocks.lockAll(productIds);
+        try {
+            // 1. Stocul ramas per produs, consumat pe rand de comenzile acceptate
+            Map<Integer, Product> products = new HashMap<>();
+            Map<Integer, Integer> remaining = new HashMap<>();
+            for (Integer id : productIds) {
+                Product p = productRepository.findById(id);
+                if (p != null) {
+                    products.put(id, p);
+                    remaining.put(id, p.getStockQuantity());
+                }
+            }
+            for (int i = 0; i < demands.size(); i++) {
+                if (errors[i] != null) {
+                    continue;
+                }
+                errors[i] = checkDemand(demands.get(i), products, remaining);
+                if (errors[i] != null) {
+                    RESERVE_BATCH_REJECTIONS.increment();
+                    continue;
+                }
+                for (Map.Entry<Integer, Integer> line : demands.get(i).entrySet()) {
+                    remaining.merge(line.getKey(), -line.getValue(), Integer::sum);
+                }
+            }
+
+            // 2. O singura scadere (si o singura salvare) per produs
+            List<Product> changed = new ArrayList<>();
+            for (Map.Entry<Integer, Product> entry : products.entrySet()) {
+                Product p = entry.getValue();
+                int newStock = remaining.get(entry.getKey());
+                if (newStock != p.getStockQuantity()) {
+                    remaining.put(entry.getKey(), p.getStockQuantity());
+                    p.setStockQuantity(newStock);
+                    changed.add(p);
+                }
+            }
+            try {
+                productRepository.saveAll(changed);
+            } catch (RuntimeException e) {
+                // remaining contine acum stocul initial al produselor modificate
+                for (Product p : changed) {
+                    p.setStockQuantity(remaining.get(p.getId()));
+                    saveQuietly(p);
+                }
+                throw e;
+            }
+            for (Product p : changed) {
+                recordStockValue(p);
+            }
+        } finally {
+            stockLocks.unlockAll(acquired);
+            RESERVE_BATCH_LATENCY.recordSince(start);
+        }
+    }
+
+    // Verifica o comanda din lot fata de stocul ramas; returneaza motivul respingerii sau null
+    private static String checkDemand(Map<Integer, Integer> demand, Map<Integer, Product> products, Map<Integer, Integer> remaining) {
+        for (Map.Entry<Integer, Integer> line : demand.entrySet()) {
+            Product p = products.get(line.getKey());
+            int quantity = line.getValue();
+            if (p == null) {
+                return "Product with ID " + line.getKey() + " was not found.";
+            }
+            if (quantity <= 0) {
+                return "Ordered quantity for product '" + p.getName() + "' must be strictly positive.";
+            }
+            int available = remaining.get(line.getKey());
+            if (available < quantity) {
+                return "Insufficient stock for product: " + p.getName() + ". Available: " + available + ", Requested: " + quantity;
+            }
         }
+        return null;
+    }
 
-        // Validare stoc insuficient (Cerinta 5)
-        if (p.getStockQuantity() < quantity) {
-            throw new InvalidDataException("Insufficient stock for product '" + p.getName() + "'. Current stock: " + p.getStockQuantity());
+    /**
+     * Anuleaza o rezervare facuta cu {@link #reserveStock(Map)} (ex: comanda nu a putut fi salvata).
+     * Produsele sterse intre timp sunt ignorate.
+     * @param quantities Cantitatea rezervata pentru fiecare ID de produs.
+     */
+    public void releaseStock(Map<Integer, Integer> quantities) {
+        List<ReentrantLock> acquired = stockLocks.lockAll(quantities.keySet());
+        try {
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                Product p = productRepository.findById(entry.getKey());
+                if (p != null) {
+                    p.setStockQuantity(p.getStockQuantity() + entry.getValue());
+                    saveQuietly(p);
+                }
+            }
+        } finally {
+            stockLocks.unlockAll(acquired);
         }
+    }
+
+    // Salvare folosita la revenirea asupra stocului: o eroare nu trebuie sa ascunda eroarea initiala
+    private void saveQuietly(Product p) {
+        try {
+            productRepository.save(p);
+            recordStockValue(p);
+        } catch (RuntimeException e) {
+            System.err.println("PERSISTENCE ERROR: " + e.getMessage());
+        }
+    }
 
-        // Modificarea in memorie
-        p.setStockQuantity(p.getStockQuantity() - quantity);
+    /**
+     * Actualizeaza contributia produsului la valoarea totala a stocului (pret in bani * stoc).
+     * Se apeleaza sub lock-ul produsului, dupa salvare, deci actualizarile aceluiasi produs nu se intercaleaza.
+     * @param p Produsul modificat.
+     */
+    private void recordStockValue(Product p) {
+        long cents = toCents(p.getPrice()) * p.getStockQuantity();
+        Long previous = stockValueCentsByProduct.put(p.getId(), cents);
+        totalStockValueCents.addAndGet(cents - (previous == null ? 0 : previous));
+    }
 
-        // Salvarea modificarilor
-        productRepository.save(p);
+    // Rotunjeste pretul (float) la cel mai apropiat ban
+    private static long toCents(float price) {
+        return Math.round((double) price * 100);
     }
 
     /**
@@ -106,26 +441,54 @@ public class ServiceProduct {
     }
 
     /**
-     * Calculeaza valoarea monetara totala a intregului stoc de produse.
-     * Implementeaza logica pentru Rapoarte (Cerinta 1).
-     * @return Valoarea totala a stocului (Pret * Stoc).
+     * Parcurge toate produsele (ordonate dupa ID) din catalogul publicat, fara lock-uri si fara copiere.
+     * @param action Actiunea aplicata fiecarui produs.
      */
-    public float calculateTotalStockValue() {
-        float total = 0.0f;
+    public void forEachProduct(Consumer<? super Product> action) {
+        getCatalog().getProducts().forEach(action);
+    }
 
-        for (Product p : productRepository.findAll()) {
-            total += p.getPrice() * p.getStockQuantity();
+    /**
+     * Returneaza versiunea curenta a catalogului, fara lock-uri in cazul obisnuit.
+     * O versiune noua se construieste o singura data dupa fiecare modificare de produs
+     * (adaugare/actualizare); scaderile de stoc din comenzi nu invalideaza catalogul.
+     * @return Catalogul publicat, ordonat dupa ID.
+     */
+    public CatalogSnapshot getCatalog() {
+        CatalogSnapshot current = catalog;
+        long version = catalogVersion.get();
+        if (current != null && current.getVersion() == version) {
+            return current;
+        }
+        synchronized (catalogVersion) {
+            current = catalog;
+            version = catalogVersion.get();
+            if (current == null || current.getVersion() != version) {
+                // Versiunea este citita inaintea parcurgerii: o modificare concurenta forteaza o noua reconstruire
+                current = new CatalogSnapshot(version, productRepository.stream().toArray(Product[]::new));
+                catalog = current;
+            }
+            return current;
         }
-
-        return total;
     }
 
+    /**
+     * Returneaza valoarea monetara totala a intregului stoc de produse, in O(1).
+     * Totalul este mentinut incremental, in bani (long), la fiecare modificare de pret sau stoc.
+     * Implementeaza logica pentru Rapoarte (Cerinta 1).
+     * @return Valoarea totala a stocului (Pret * Stoc), exacta, cu doua zecimale.
+     */
+    public BigDecimal calculateTotalStockValue() {
+        return BigDecimal.valueOf(totalStockValueCents.get(), 2);
+    }
 
     /**
      * Salveaza toate datele din memoria colectiei de produse in fisier.
      * Implementeaza Cerinta 2 (Salvare la inchidere).
      */
     public void shutdownApplicationAndSaveData() {
-        productRepository.saveAllData();
+        if (productRepository.hasUnsavedChanges()) {
+            productRepository.saveAllData();
+        }
     }
 }
\ No newline at end of file
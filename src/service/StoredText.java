@@ -0,0 +1,29 @@
+package service;
+
+/**
+ * Regula comuna pentru campurile text persistate: randurile din jurnale si din fisierele .txt
+ * sunt separate prin ';' si terminate prin linie noua, deci aceste caractere nu pot aparea in valori.
+ */
+final class StoredText {
+
+    private StoredText() {
+    }
+
+    /**
+     * Verifica un camp text inainte de salvare.
+     * @param field Numele campului (pentru mesajul de eroare).
+     * @param value Valoarea (null este acceptat; obligativitatea se verifica separat).
+     * @throws InvalidDataException Daca valoarea contine ';', '\r' sau '\n'.
+     */
+    static void check(String field, String value) throws InvalidDataException {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ';' || c == '\r' || c == '\n') {
+                throw new InvalidDataException(field + " cannot contain ';' or line breaks.");
+            }
+        }
+    }
+}
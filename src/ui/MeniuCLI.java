@@ -90,7 +90,7 @@ public class MeniuCLI {
      */
     private void handleProductMenu() throws InvalidDataException {
         System.out.println("\n--- Product Management ---");
-        serviceProduct.findAllProducts().forEach(System.out::println);
+        serviceProduct.forEachProduct(System.out::println);
 
         System.out.print("Do you want to add a new product? (y/n): ");
         if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
@@ -122,7 +122,7 @@ public class MeniuCLI {
         String choice = scanner.nextLine();
 
         if (choice.equals("1")) {
-            serviceClient.findAllClients().forEach(System.out::println);
+            serviceClient.forEachClient(System.out::println);
         } else if (choice.equals("2")) {
             handleLogin();
         } else if (choice.equals("3")) {
@@ -144,6 +144,7 @@ public class MeniuCLI {
 
         if (clientOpt.isPresent()) {
             currentUser = clientOpt.get();
+            serviceOrder.loadOrderHistory(currentUser);
             System.out.println("Login successful. Welcome, " + currentUser.getName() + "!");
         } else {
             System.out.println("Login failed. Invalid email or password.");
@@ -209,7 +210,8 @@ public class MeniuCLI {
 
         // Apelarea ServiceOrder pentru tranzactie (se ocupa de validarea stocului)
         if (!cart.isEmpty()) {
-            serviceOrder.placeOrder(currentUser.getId(), cart);
+            Order order = serviceOrder.placeOrder(currentUser.getId(), cart);
+            currentUser.addOrder(order);
             System.out.println("ORDER PLACED: Transaction successful!");
         } else {
             System.out.println("Cart is empty. Order cancelled.");
@@ -223,10 +225,10 @@ public class MeniuCLI {
         System.out.println("\n--- Reports & Statistics ---");
 
         // Raport 1: Valoarea totala a stocului
-        System.out.println("1. Total value of current stock: " + serviceProduct.calculateTotalStockValue() + " RON");
+        System.out.println("1. Total value of current stock: " + serviceProduct.calculateTotalStockValue().toPlainString() + " RON");
 
         // Raport 2: Numarul de comenzi plasate
-        System.out.println("2. Total number of orders placed: " + serviceOrder.findAllOrders().size());
+        System.out.println("2. Total number of orders placed: " + serviceOrder.countOrders());
 
         // Raport 3: Unitati vandute per produs (detaliat)
         System.out.println("\n--- Detailed Sales Report ---");
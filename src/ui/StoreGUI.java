@@ -15,8 +15,8 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.math.BigDecimal;
 import java.util.*;
-import java.util.List;
 import javax.swing.event.ListSelectionListener;
 import javax.swing.event.ListSelectionEvent;
 
@@ -138,6 +138,8 @@ public class StoreGUI extends JFrame {
             loggedInUser = serviceClient.authenticate(email, password);
 
             if (loggedInUser.isPresent()) {
+                // Istoricul de comenzi se incarca din indexul pe client (fara a parcurge toate comenzile)
+                serviceOrder.loadOrderHistory(loggedInUser.get());
                 clientStatusLabel.setText("Status: Logged in as " + loggedInUser.get().getName() + " (ID: " + loggedInUser.get().getId() + ")");
                 JOptionPane.showMessageDialog(this, "Login successful!");
             } else {
@@ -219,14 +221,12 @@ public class StoreGUI extends JFrame {
 
     private void loadProductData() {
         productTableModel.setRowCount(0);
-        List<Product> products = serviceProduct.findAllProducts();
-
-        for (Product p : products) {
+        serviceProduct.forEachProduct(p -> {
             Object[] row = new Object[]{
                     p.getId(), p.getName(), p.getPrice(), p.getStockQuantity(), p.getProductType()
             };
             productTableModel.addRow(row);
-        }
+        });
     }
 
     private void showAddProductDialog() {
@@ -375,7 +375,8 @@ public class StoreGUI extends JFrame {
 
             try {
                 // Apeleaza ServiceOrder cu produsele din cosul temporar
-                serviceOrder.placeOrder(loggedInUser.get().getId(), temporaryCart);
+                Order order = serviceOrder.placeOrder(loggedInUser.get().getId(), temporaryCart);
+                loggedInUser.get().addOrder(order);
 
                 JOptionPane.showMessageDialog(this, "Order placed successfully! Stock updated.", "Success", JOptionPane.INFORMATION_MESSAGE);
                 temporaryCart.clear();
@@ -431,8 +432,8 @@ public class StoreGUI extends JFrame {
         panel.setBorder(new EmptyBorder(15, 15, 15, 15)); // Padding consistent
 
         // 1. Calcul Statistici Agregate
-        float totalValue = serviceProduct.calculateTotalStockValue();
-        int totalOrders = serviceOrder.findAllOrders().size();
+        BigDecimal totalValue = serviceProduct.calculateTotalStockValue();
+        int totalOrders = serviceOrder.countOrders();
 
         // 2. Obtine raportul detaliat pe produse
         Map<String, Integer> salesData = serviceOrder.getUnitsSoldPerProduct();
@@ -459,7 +460,7 @@ public class StoreGUI extends JFrame {
         JLabel titleLabel = new JLabel("Application Statistics Summary", SwingConstants.LEFT);
         titleLabel.setFont(HEADER_FONT.deriveFont(Font.BOLD, 18));
 
-        JLabel valueLabel = new JLabel("Total Stock Value: " + String.format("%.2f RON", totalValue));
+        JLabel valueLabel = new JLabel("Total Stock Value: " + totalValue.toPlainString() + " RON");
         valueLabel.setFont(HEADER_FONT);
 
         JLabel ordersLabel = new JLabel("Total Orders Placed: " + totalOrders);
@@ -0,0 +1,155 @@
+package web;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sesiunile front-end-ului HTTP: token -> client autentificat.
+ * Un token expira dupa o perioada de inactivitate, iar un client are cel mult un numar fix de sesiuni
+ * (la depasire se elimina cea mai veche). Sesiunile expirate sunt eliminate la folosire si, cel mult
+ * o data pe minut, printr-o parcurgere declansata de autentificari, fara un fir dedicat.
+ */
+final class SessionStore {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final class Session {
+        private final int clientId;
+        private final long issuedNanos;
+        private volatile long lastUsedNanos;
+
+        private Session(int clientId, long now) {
+            this.clientId = clientId;
+            this.issuedNanos = now;
+            this.lastUsedNanos = now;
+        }
+    }
+
+    private final long idleTimeoutNanos;
+    private final int maxSessionsPerClient;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Tokenurile fiecarui client, in ordinea emiterii (fiecare coada este protejata de propriul monitor)
+    private final Map<Integer, Deque<String>> tokensByClient = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+
+    /**
+     * Constructor.
+     * @param idleTimeoutMillis Durata de inactivitate dupa care un token expira.
+     * @param maxSessionsPerClient Numarul maxim de sesiuni active ale unui client.
+     */
+    SessionStore(long idleTimeoutMillis, int maxSessionsPerClient) {
+        if (idleTimeoutMillis <= 0 || maxSessionsPerClient <= 0) {
+            throw new IllegalArgumentException("Session timeout and limit must be strictly positive.");
+        }
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.maxSessionsPerClient = maxSessionsPerClient;
+    }
+
+    /**
+     * Deschide o sesiune noua; daca clientul are deja numarul maxim de sesiuni, cea mai veche este inchisa.
+     * @param clientId ID-ul clientului autentificat.
+     * @return Tokenul sesiunii.
+     */
+    String create(int clientId) {
+        long now = System.nanoTime();
+        sweepIfDue(now);
+        String token = UUID.randomUUID().toString();
+        while (true) {
+            Deque<String> tokens = tokensByClient.computeIfAbsent(clientId, id -> new ArrayDeque<>());
+            synchronized (tokens) {
+                // Coada goala a fost eliminata intre timp de parcurgere: se reia cu una noua
+                if (tokensByClient.get(clientId) != tokens) {
+                    continue;
+                }
+                sessions.put(token, new Session(clientId, now));
+                tokens.addLast(token);
+                while (tokens.size() > maxSessionsPerClient) {
+                    sessions.remove(tokens.pollFirst());
+                }
+                return token;
+            }
+        }
+    }
+
+    /**
+     * Returneaza clientul unei sesiuni active si ii reinnoieste perioada de inactivitate.
+     * @param token Tokenul (poate fi null).
+     * @return ID-ul clientului sau null daca tokenul nu exista sau a expirat.
+     */
+    Integer clientFor(String token) {
+        Session session = token == null ? null : sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        if (now - session.lastUsedNanos > idleTimeoutNanos) {
+            remove(token);
+            return null;
+        }
+        session.lastUsedNanos = now;
+        return session.clientId;
+    }
+
+    /**
+     * Inchide o sesiune (logout).
+     * @param token Tokenul (poate fi null).
+     */
+    void remove(String token) {
+        Session session = token == null ? null : sessions.remove(token);
+        if (session == null) {
+            return;
+        }
+        Deque<String> tokens = tokensByClient.get(session.clientId);
+        if (tokens != null) {
+            synchronized (tokens) {
+                tokens.remove(token);
+            }
+        }
+    }
+
+    /**
+     * Returneaza numarul de sesiuni (inclusiv cele expirate, dar inca neeliminate).
+     * @return Numarul de sesiuni.
+     */
+    int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Returneaza varsta celei mai vechi sesiuni, in secunde (pentru metrici).
+     * @return Varsta sau 0 fara sesiuni.
+     */
+    double oldestSessionAgeSeconds() {
+        long now = System.nanoTime();
+        long oldest = 0;
+        for (Session session : sessions.values()) {
+            oldest = Math.max(oldest, now - session.issuedNanos);
+        }
+        return oldest / 1e9;
+    }
+
+    // Elimina sesiunile expirate, de cel mult o data pe interval (un singur fir castiga parcurgerea)
+    private void sweepIfDue(long now) {
+        long due = nextSweepNanos.get();
+        if (now - due < 0 || !nextSweepNanos.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        sessions.forEach((token, session) -> {
+            if (now - session.lastUsedNanos > idleTimeoutNanos) {
+                remove(token);
+            }
+        });
+        for (Integer clientId : tokensByClient.keySet()) {
+            tokensByClient.computeIfPresent(clientId, (id, tokens) -> {
+                synchronized (tokens) {
+                    return tokens.isEmpty() ? null : tokens;
+                }
+            });
+        }
+    }
+}
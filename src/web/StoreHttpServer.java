@@ -0,0 +1,507 @@
+package web;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.Client;
+import model.Order;
+import model.OrderLines;
+import model.Product;
+import service.InvalidDataException;
+import service.ServiceClient;
+import service.ServiceOrder;
+import service.ServiceProduct;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Front-end HTTP/JSON pentru stratul de Service-uri, pe serverul HTTP din JDK (com.sun.net.httpserver).
+ * Fiecare cerere ruleaza pe propriul fir virtual (Java 21+), deci o cerere blocata pe un lock de stoc
+ * sau pe sincronizarea jurnalului nu ocupa un fir de platforma. Service-urile sunt deja sigure la acces
+ * concurent (lock-uri pe produs, catalog publicat fara lock-uri), deci serverul nu adauga sincronizare proprie.
+ *
+ * Endpoint-uri:
+ * GET /products?offset=&limit=, GET /products/{id}, POST /login, POST /logout,
+ * POST /orders (cos), GET /orders?offset=&limit= (comenzile clientului autentificat),
+ * GET /reports/units-sold, GET /reports/stock-value, GET /metrics.
+ * Comenzile cer antetul "Authorization: Bearer &lt;token&gt;", tokenul fiind obtinut prin /login;
+ * tokenurile expira dupa o perioada de inactivitate, iar numarul de sesiuni per client este limitat.
+ */
+public class StoreHttpServer implements AutoCloseable {
+
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final String PROMETHEUS_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int BACKLOG = 1024;
+    private static final long DEFAULT_SESSION_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final int DEFAULT_MAX_SESSIONS_PER_CLIENT = 32;
+
+    private static final Counter SERVER_ERRORS = MetricsRegistry.getDefault()
+            .counter("store_http_server_errors_total", "HTTP requests answered with a 5xx status.");
+
+    private final ServiceProduct productService;
+    private final ServiceClient clientService;
+    private final ServiceOrder orderService;
+    private final SessionStore sessions;
+    private final Map<String, LatencyHistogram> routeLatency = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    // Raspunsul unei cereri: status si corp JSON (sau text, pentru /metrics)
+    private static final class Response {
+        private final int status;
+        private final String body;
+        private final String contentType;
+
+        private Response(int status, String body, String contentType) {
+            this.status = status;
+            this.body = body;
+            this.contentType = contentType;
+        }
+
+        private static Response json(int status, CharSequence body) {
+            return new Response(status, body.toString(), JSON_TYPE);
+        }
+
+        private static Response error(int status, String message) {
+            return json(status, Json.quote(new StringBuilder("{\"error\":"), message).append('}'));
+        }
+    }
+
+    // Eroare care se transforma direct intr-un raspuns cu statusul dat
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Constructor (Injectia de Dependente), cu limitele implicite ale sesiunilor.
+     * @param productService Service-ul de produse.
+     * @param clientService Service-ul de clienti.
+     * @param orderService Service-ul de comenzi.
+     */
+    public StoreHttpServer(ServiceProduct productService, ServiceClient clientService, ServiceOrder orderService) {
+        this(productService, clientService, orderService, DEFAULT_SESSION_IDLE_MILLIS, DEFAULT_MAX_SESSIONS_PER_CLIENT);
+    }
+
+    /**
+     * Constructor (Injectia de Dependente).
+     * @param productService Service-ul de produse.
+     * @param clientService Service-ul de clienti.
+     * @param orderService Service-ul de comenzi.
+     * @param sessionIdleMillis Durata de inactivitate dupa care un token de sesiune expira.
+     * @param maxSessionsPerClient Numarul maxim de sesiuni active ale unui client (la depasire, cea mai veche este inchisa).
+     */
+    public StoreHttpServer(ServiceProduct productService, ServiceClient clientService, ServiceOrder orderService,
+                           long sessionIdleMillis, int maxSessionsPerClient) {
+        this.productService = productService;
+        this.clientService = clientService;
+        this.orderService = orderService;
+        this.sessions = new SessionStore(sessionIdleMillis, maxSessionsPerClient);
+        MetricsRegistry.getDefault().gauge("store_http_sessions", "Open HTTP sessions (expired ones are removed lazily).", sessions::size);
+        MetricsRegistry.getDefault().gauge("store_http_oldest_session_age_seconds", "Age of the oldest open HTTP session.",
+                sessions::oldestSessionAgeSeconds);
+    }
+
+    /**
+     * Porneste serverul.
+     * @param host Adresa pe care asculta (ex: 127.0.0.1 sau 0.0.0.0).
+     * @param port Portul (0 = ales de sistem, vezi {@link #getPort()}).
+     * @throws IOException Daca portul nu poate fi deschis.
+     */
+    public synchronized void start(String host, int port) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("HTTP server is already running.");
+        }
+        HttpServer created = HttpServer.create(new InetSocketAddress(host, port), BACKLOG);
+        created.createContext("/", this::handle);
+        executor = VirtualThreads.newPerTaskExecutor("store-http");
+        created.setExecutor(executor);
+        created.start();
+        server = created;
+    }
+
+    /**
+     * Returneaza portul pe care asculta serverul.
+     * @return Portul sau -1 daca serverul nu este pornit.
+     */
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    /**
+     * Opreste serverul; cererile in curs au cel mult o secunda sa se termine.
+     */
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdown();
+            server = null;
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        String route = "unknown";
+        Response response;
+        try {
+            String[] path = splitPath(exchange.getRequestURI().getPath());
+            route = routeName(path);
+            response = dispatch(exchange, path);
+        } catch (HttpError e) {
+            response = Response.error(e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            response = Response.error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("HTTP ERROR: " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed: " + e);
+            response = Response.error(500, "Internal server error.");
+        }
+        try {
+            send(exchange, response);
+        } finally {
+            exchange.close();
+            if (response.status >= 500) {
+                SERVER_ERRORS.increment();
+            }
+            latency(route).recordSince(start);
+        }
+    }
+
+    private Response dispatch(HttpExchange exchange, String[] path) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (path.length == 0) {
+            throw new HttpError(404, "Not found.");
+        }
+        switch (path[0]) {
+            case "products":
+                requireMethod(method, "GET");
+                if (path.length == 1) {
+                    return listProducts(queryParameters(exchange.getRequestURI()));
+                }
+                if (path.length == 2) {
+                    return getProduct(path[1]);
+                }
+                break;
+            case "login":
+                requireMethod(method, "POST");
+                return login(readJsonObject(exchange));
+            case "logout":
+                requireMethod(method, "POST");
+                sessions.remove(bearerToken(exchange));
+                return Response.json(200, "{}");
+            case "orders":
+                if (path.length == 1 && "POST".equals(method)) {
+                    return checkout(authenticatedClient(exchange), readJsonObject(exchange));
+                }
+                if (path.length == 1) {
+                    requireMethod(method, "GET");
+                    return listOrders(authenticatedClient(exchange), queryParameters(exchange.getRequestURI()));
+                }
+                break;
+            case "reports":
+                requireMethod(method, "GET");
+                if (path.length == 2 && "units-sold".equals(path[1])) {
+                    return unitsSoldReport();
+                }
+                if (path.length == 2 && "stock-value".equals(path[1])) {
+                    return Response.json(200, "{\"totalStockValue\":" + productService.calculateTotalStockValue().toPlainString() + "}");
+                }
+                break;
+            case "metrics":
+                requireMethod(method, "GET");
+                return new Response(200, MetricsRegistry.getDefault().toPrometheusText(), PROMETHEUS_TYPE);
+            default:
+                break;
+        }
+        throw new HttpError(404, "Not found.");
+    }
+
+    // --- Endpoint-uri ---
+
+    private Response listProducts(Map<String, String> query) {
+        List<Product> products = productService.getCatalog().getProducts();
+        int offset = Math.min(intParameter(query, "offset", 0), products.size());
+        int limit = Math.min(intParameter(query, "limit", DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE);
+        List<Product> page = products.subList(offset, Math.min(products.size(), offset + limit));
+
+        StringBuilder out = new StringBuilder(64 + page.size() * 128);
+        out.append("{\"total\":").append(products.size()).append(",\"offset\":").append(offset).append(",\"products\":[");
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            appendProduct(out, page.get(i));
+        }
+        return Response.json(200, out.append("]}"));
+    }
+
+    private Response getProduct(String id) {
+        Product product = productService.getCatalog().findById(parseId(id));
+        if (product == null) {
+            throw new HttpError(404, "Product " + id + " does not exist.");
+        }
+        return Response.json(200, appendProduct(new StringBuilder(128), product));
+    }
+
+    private Response login(Map<String, Object> body) {
+        Optional<Client> client = clientService.authenticate(stringField(body, "email"), stringField(body, "password"));
+        if (client.isEmpty()) {
+            throw new HttpError(401, "Invalid email or password.");
+        }
+        String token = sessions.create(client.get().getId());
+        StringBuilder out = new StringBuilder("{\"token\":\"").append(token).append("\",\"clientId\":").append(client.get().getId()).append(",\"name\":");
+        return Response.json(200, Json.quote(out, client.get().getName()).append('}'));
+    }
+
+    private Response checkout(int clientId, Map<String, Object> body) {
+        if (!(body.get("items") instanceof List) || ((List<?>) body.get("items")).isEmpty()) {
+            throw new IllegalArgumentException("Field 'items' must be a non-empty array.");
+        }
+        // Cosul, cu produsele din catalogul curent (aceeasi cale ca in GUI)
+        Map<Product, Integer> cart = new LinkedHashMap<>();
+        for (Object item : (List<?>) body.get("items")) {
+            if (!(item instanceof Map)) {
+                throw new IllegalArgumentException("Each item must be an object.");
+            }
+            Map<?, ?> line = (Map<?, ?>) item;
+            int productId = intField(line, "productId");
+            int quantity = intField(line, "quantity");
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("Quantity must be strictly positive.");
+            }
+            Product product = productService.findProductById(productId);
+            if (product == null) {
+                throw new HttpError(404, "Product " + productId + " does not exist.");
+            }
+            cart.merge(product, quantity, Integer::sum);
+        }
+        try {
+            Order order = orderService.placeOrder(clientId, cart);
+            return Response.json(201, appendOrder(new StringBuilder(256), order));
+        } catch (InvalidDataException e) {
+            throw new HttpError(409, e.getMessage());
+        }
+    }
+
+    private Response listOrders(int clientId, Map<String, String> query) {
+        int offset = intParameter(query, "offset", 0);
+        int limit = Math.min(intParameter(query, "limit", DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE);
+        List<Order> orders = orderService.findOrdersByClient(clientId, offset, limit);
+        StringBuilder out = new StringBuilder(32 + orders.size() * 256).append("{\"orders\":[");
+        for (int i = 0; i < orders.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            appendOrder(out, orders.get(i));
+        }
+        return Response.json(200, out.append("]}"));
+    }
+
+    private Response unitsSoldReport() {
+        StringBuilder out = new StringBuilder("{");
+        boolean first = true;
+        for (Map.Entry<String, Integer> entry : new TreeMap<>(orderService.getUnitsSoldPerProduct()).entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            Json.quote(out, entry.getKey()).append(':').append(entry.getValue());
+        }
+        return Response.json(200, out.append('}'));
+    }
+
+    // --- Serializare ---
+
+    private static StringBuilder appendProduct(StringBuilder out, Product product) {
+        out.append("{\"id\":").append(product.getId()).append(",\"name\":");
+        Json.quote(out, product.getName()).append(",\"price\":").append(product.getPrice()).append(",\"type\":");
+        Json.quote(out, product.getProductType() == null ? null : product.getProductType().name());
+        out.append(",\"stock\":").append(product.getStockQuantity()).append(",\"description\":");
+        return Json.quote(out, product.getDescription()).append('}');
+    }
+
+    private static StringBuilder appendOrder(StringBuilder out, Order order) {
+        out.append("{\"id\":").append(order.getId()).append(",\"clientId\":").append(order.getClientId()).append(",\"date\":");
+        Json.quote(out, order.getOrderDate() == null ? null : order.getOrderDate().toString()).append(",\"status\":");
+        Json.quote(out, order.getStatus() == null ? null : order.getStatus().name());
+        out.append(",\"totalAmount\":").append(order.getTotalAmount()).append(",\"lines\":[");
+        OrderLines lines = order.getLines();
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append("{\"productId\":").append(lines.productIdAt(i)).append(",\"quantity\":").append(lines.quantityAt(i)).append('}');
+        }
+        return out.append("]}");
+    }
+
+    // --- Cerere / raspuns ---
+
+    private int authenticatedClient(HttpExchange exchange) {
+        String token = bearerToken(exchange);
+        Integer clientId = sessions.clientFor(token);
+        if (clientId == null) {
+            throw new HttpError(401, "Missing or unknown session token.");
+        }
+        return clientId;
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        return header.substring(7).trim();
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!expected.equals(method)) {
+            throw new HttpError(405, "Method " + method + " is not allowed here.");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readJsonObject(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (body.size() + read > MAX_BODY_BYTES) {
+                    throw new HttpError(413, "Request body is larger than " + MAX_BODY_BYTES + " bytes.");
+                }
+                body.write(buffer, 0, read);
+            }
+        }
+        Object parsed = Json.parse(body.toString(StandardCharsets.UTF_8));
+        if (!(parsed instanceof Map)) {
+            throw new IllegalArgumentException("Request body must be a JSON object.");
+        }
+        return (Map<String, Object>) parsed;
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", response.contentType);
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String stringField(Map<?, ?> object, String name) {
+        Object value = object.get(name);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a string.");
+        }
+        return (String) value;
+    }
+
+    private static int intField(Map<?, ?> object, String name) {
+        Object value = object.get(name);
+        if (!(value instanceof Double) || ((Double) value) != Math.rint((Double) value)
+                || Math.abs((Double) value) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Field '" + name + "' must be an integer.");
+        }
+        return ((Double) value).intValue();
+    }
+
+    private static int parseId(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new HttpError(404, "Not found.");
+        }
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) {
+                throw new NumberFormatException();
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter '" + name + "' must be a non-negative integer.");
+        }
+    }
+
+    private static Map<String, String> queryParameters(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = uri.getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static String[] splitPath(String path) {
+        String trimmed = path.replaceAll("^/+|/+$", "");
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/+");
+    }
+
+    // Numele rutei pentru metrici: ID-urile sunt inlocuite, deci numarul de serii ramane mic
+    private static String routeName(String[] path) {
+        if (path.length == 0) {
+            return "unknown";
+        }
+        switch (path[0]) {
+            case "products":
+                return path.length == 1 ? "products" : "product";
+            case "reports":
+                return path.length == 2 && ("units-sold".equals(path[1]) || "stock-value".equals(path[1]))
+                        ? "reports_" + path[1].replace('-', '_') : "unknown";
+            case "login":
+            case "logout":
+            case "orders":
+            case "metrics":
+                return path[0];
+            default:
+                return "unknown";
+        }
+    }
+
+    private LatencyHistogram latency(String route) {
+        return routeLatency.computeIfAbsent(route, r -> MetricsRegistry.getDefault()
+                .histogram("store_http_request_seconds", "Duration of HTTP requests, by route.", "route", r));
+    }
+}
@@ -0,0 +1,49 @@
+package web;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creeaza executorul "un fir virtual per cerere" (Java 21+). Proiectul se compileaza pentru Java 17,
+ * deci executorul este obtinut prin reflectie; pe un JVM fara fire virtuale se foloseste un pool fix
+ * de fire daemon, dimensionat pentru cereri care asteapta dupa lock-uri si I/O.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Verifica daca JVM-ul curent suporta fire virtuale.
+     * @return true pe Java 21+.
+     */
+    public static boolean isAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returneaza un executor care porneste cate un fir virtual pentru fiecare sarcina
+     * sau, pe Java 17, un pool fix de max(16, 8 * nuclee) fire daemon.
+     * @param name Prefixul numelor firelor din pool-ul de rezerva.
+     * @return Executorul.
+     */
+    public static ExecutorService newPerTaskExecutor(String name) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.max(16, Runtime.getRuntime().availableProcessors() * 8);
+            AtomicInteger index = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, name + "-" + index.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Teste pentru {@link BPlusTree}: divizarea frunzelor si a nodurilor interne la pozitiile extreme,
+ * parcurgerea intervalelor peste mai multe frunze si redeschiderea arborelui de pe disc.
+ */
+class BPlusTreeTest {
+
+    private static final long MISSING = Long.MIN_VALUE;
+    // Destule chei cat radacina interna sa se divida (arbore cu cel putin trei niveluri) in toate ordinile
+    private static final int MANY_KEYS = 2 * BPlusTree.LEAF_CAPACITY * (BPlusTree.INTERNAL_CAPACITY + 1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void splitLeafAtEveryPosition() throws IOException {
+        // Frunza plina cu cheile 10, 20, ...; a LEAF_CAPACITY + 1-a cheie ajunge la inceput, la mijloc sau la final
+        long[] extraKeys = {5, 10L * (BPlusTree.LEAF_CAPACITY / 2) + 5, 10L * (BPlusTree.LEAF_CAPACITY + 1)};
+        for (long extra : extraKeys) {
+            try (PageFile file = new PageFile(dir.resolve("leaf-" + extra + ".idx"), PageFile.MIN_CACHE_PAGES)) {
+                BPlusTree tree = BPlusTree.create(file);
+                List<Long> expected = new ArrayList<>();
+                for (int i = 1; i <= BPlusTree.LEAF_CAPACITY; i++) {
+                    tree.put(10L * i, i);
+                    expected.add(10L * i);
+                }
+                int leafRoot = tree.rootPage();
+                assertTrue(tree.put(extra, -extra));
+                expected.add(extra);
+                Collections.sort(expected);
+
+                assertNotEquals(leafRoot, tree.rootPage(), "root should have split at key " + extra);
+                assertEquals(-extra, tree.get(extra, MISSING));
+                assertEquals(expected, scan(tree, Long.MIN_VALUE, Long.MAX_VALUE));
+            }
+        }
+    }
+
+    @Test
+    void splitInternalWithAscendingKeys() throws IOException {
+        checkInsertOrder("ascending", LongStream.range(0, MANY_KEYS).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    void splitInternalWithDescendingKeys() throws IOException {
+        checkInsertOrder("descending", LongStream.range(0, MANY_KEYS).map(i -> MANY_KEYS - 1 - i).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    void splitInternalWithRandomKeys() throws IOException {
+        List<Long> keys = LongStream.range(0, MANY_KEYS).boxed().collect(Collectors.toList());
+        Collections.shuffle(keys, new Random(42));
+        checkInsertOrder("random", keys);
+    }
+
+    @Test
+    void putReplacesExistingValue() throws IOException {
+        try (PageFile file = new PageFile(dir.resolve("replace.idx"), PageFile.MIN_CACHE_PAGES)) {
+            BPlusTree tree = BPlusTree.create(file);
+            assertTrue(tree.put(7, 1));
+            assertFalse(tree.put(7, 2));
+            assertEquals(2, tree.get(7, MISSING));
+            assertEquals(List.of(7L), scan(tree, Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void scanCrossesLeavesAndSkipsEmptyOnes() throws IOException {
+        try (PageFile file = new PageFile(dir.resolve("scan.idx"), PageFile.MIN_CACHE_PAGES)) {
+            BPlusTree tree = BPlusTree.create(file);
+            int keys = 10 * BPlusTree.LEAF_CAPACITY;
+            for (long key = 0; key < keys; key++) {
+                tree.put(2 * key, key);
+            }
+            // Golirea completa a celei de-a doua frunze (cheile sunt adaugate crescator, deci frunzele sunt pline)
+            for (long key = BPlusTree.LEAF_CAPACITY; key < 2L * BPlusTree.LEAF_CAPACITY; key++) {
+                assertTrue(tree.remove(2 * key));
+            }
+            assertFalse(tree.remove(1));
+
+            // Capetele intervalului nu exista in arbore (chei impare)
+            long from = 2L * (BPlusTree.LEAF_CAPACITY / 2) + 1;
+            long to = 2L * (4 * BPlusTree.LEAF_CAPACITY) + 1;
+            List<Long> expected = new ArrayList<>();
+            for (long key = from + 1; key <= to; key += 2) {
+                long index = key / 2;
+                if (index < BPlusTree.LEAF_CAPACITY || index >= 2L * BPlusTree.LEAF_CAPACITY) {
+                    expected.add(key);
+                }
+            }
+            assertEquals(expected, scan(tree, from, to));
+            assertEquals(List.of(), scan(tree, 2L * keys, Long.MAX_VALUE));
+
+            // Vizitatorul opreste parcurgerea
+            List<Long> firstThree = new ArrayList<>();
+            tree.scan(from, to, (key, value) -> {
+                firstThree.add(key);
+                return firstThree.size() < 3;
+            });
+            assertEquals(expected.subList(0, 3), firstThree);
+        }
+    }
+
+    // Insereaza cheile in ordinea data (valoarea = -cheia), apoi verifica arborele inainte si dupa redeschidere
+    private void checkInsertOrder(String name, List<Long> keys) throws IOException {
+        Path path = dir.resolve(name + ".idx");
+        int rootPage;
+        try (PageFile file = new PageFile(path, PageFile.MIN_CACHE_PAGES)) {
+            BPlusTree tree = BPlusTree.create(file);
+            for (long key : keys) {
+                assertTrue(tree.put(key, -key));
+            }
+            verify(tree, keys.size());
+            rootPage = tree.rootPage();
+            file.flush();
+        }
+        try (PageFile file = new PageFile(path, PageFile.MIN_CACHE_PAGES)) {
+            verify(BPlusTree.open(file, rootPage), keys.size());
+        }
+    }
+
+    private static void verify(BPlusTree tree, int size) throws IOException {
+        for (long key = 0; key < size; key++) {
+            assertEquals(-key, tree.get(key, MISSING), "key " + key);
+        }
+        assertEquals(MISSING, tree.get(size, MISSING));
+        long[] next = {0};
+        tree.scan(Long.MIN_VALUE, Long.MAX_VALUE, (key, value) -> {
+            assertEquals(next[0], key);
+            assertEquals(-key, value);
+            next[0]++;
+            return true;
+        });
+        assertEquals(size, next[0]);
+    }
+
+    private static List<Long> scan(BPlusTree tree, long from, long to) throws IOException {
+        List<Long> keys = new ArrayList<>();
+        tree.scan(from, to, (key, value) -> keys.add(key));
+        return keys;
+    }
+}
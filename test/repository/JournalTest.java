@@ -0,0 +1,93 @@
+package repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Teste pentru {@link Journal}: reaplicarea jurnalului rotit inaintea celui curent,
+ * eliminarea unei linii incomplete de la final si oprirea la o inregistrare corupta.
+ */
+class JournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysRotatedJournalBeforeCurrentOne() {
+        String file = dir.resolve("products.journal").toString();
+        Journal journal = open(file);
+        journal.append(Journal.saveRecord("1;Laptop"));
+        journal.awaitCommit(journal.append(Journal.saveRecord("2;Mouse")));
+        // Compactare neterminata: inregistrarile de mai sus raman in jurnalul rotit
+        journal.rotate();
+        journal.append(Journal.deleteRecord(1));
+        journal.awaitCommit(journal.append(Journal.saveRecord("3;Monitor")));
+        assertTrue(Files.exists(dir.resolve("products.journal.old")));
+
+        assertEquals(List.of("S 1;Laptop #1", "S 2;Mouse #2", "D 1 #3", "S 3;Monitor #4"), replay(open(file)));
+    }
+
+    @Test
+    void truncatesIncompleteLastRecordOnOpen() throws IOException {
+        Path file = dir.resolve("clients.journal");
+        Files.write(file, "S;1;Ana\nS;2;Dan\nS;3;Io".getBytes(StandardCharsets.UTF_8));
+
+        Journal journal = open(file.toString());
+        assertEquals("S;1;Ana\nS;2;Dan\n", Files.readString(file));
+        assertEquals(List.of("S 1;Ana #1", "S 2;Dan #2"), replay(journal));
+
+        // Urmatoarea inregistrare incepe pe o linie noua, nu lipita de fragmentul eliminat
+        journal.awaitCommit(journal.append(Journal.saveRecord("4;Radu")));
+        assertEquals("S;1;Ana\nS;2;Dan\nS;4;Radu\n", Files.readString(file));
+    }
+
+    @Test
+    void corruptRecordStopsReplayAndLeavesFileUntouched() throws IOException {
+        Path file = dir.resolve("orders.journal");
+        byte[] content = "S;1;a\nX;corrupt\nS;2;b\n".getBytes(StandardCharsets.UTF_8);
+        Files.write(file, content);
+
+        Journal journal = open(file.toString());
+        List<String> applied = new ArrayList<>();
+        assertThrows(DataProcessingException.class, () -> journal.replay(collector(applied)));
+        assertEquals(List.of("S 1;a #1"), applied);
+        assertArrayEquals(content, Files.readAllBytes(file));
+    }
+
+    // Pragul maxim: compactarea nu porneste in timpul testelor
+    private static Journal open(String file) {
+        return new Journal(file, () -> { }, Long.MAX_VALUE);
+    }
+
+    private static List<String> replay(Journal journal) {
+        List<String> records = new ArrayList<>();
+        journal.replay(collector(records));
+        return records;
+    }
+
+    private static Journal.RecordHandler collector(List<String> records) {
+        return new Journal.RecordHandler() {
+            @Override
+            public void onSave(String row, int recordNumber) {
+                records.add("S " + row + " #" + recordNumber);
+            }
+
+            @Override
+            public void onDelete(String id, int recordNumber) {
+                records.add("D " + id + " #" + recordNumber);
+            }
+        };
+    }
+}
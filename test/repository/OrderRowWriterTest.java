@@ -0,0 +1,152 @@
+package repository;
+
+import model.Order;
+import model.OrderLines;
+import model.OrderStatus;
+import model.Product;
+import model.ProductType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Teste pentru {@link OrderRowWriter}: randurile scrise sunt citite inapoi de incarcarea lui
+ * orders.txt din {@link RepositoryOrder} in aceleasi valori, inclusiv totalurile si datele la limita.
+ */
+class OrderRowWriterTest {
+
+    private static final Product LAPTOP = new Product(1, "Laptop", 3500.0f, ProductType.ELECTRONIC, 10, "Laptop de test");
+    private static final Product MOUSE = new Product(2, "Mouse", 45.5f, ProductType.ELECTRONIC, 10, "Mouse de test");
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 15, 9, 30, 5);
+
+    private static final float[] TOTALS = {
+            0.0f, -0.0f, 0.01f, -0.01f, 0.1f, 0.5f, 19.99f, 3500.0f,
+            1234567.9f, -1234567.9f, 9999999.0f, 9999999.5f, Math.nextDown(1e7f), 1e7f, Math.nextUp(1e7f), -1e7f,
+            123456.78f, Float.MIN_VALUE, Float.MAX_VALUE, Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY
+    };
+
+    private static final LocalDateTime[] DATES = {
+            DATE,
+            DATE.withNano(120_000_000),
+            DATE.withNano(100_000),
+            DATE.withNano(100),
+            DATE.withNano(999_999_990),
+            DATE.withNano(999_999_999),
+            DATE.withSecond(0),
+            LocalDateTime.of(0, 1, 1, 0, 0),
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_000_000),
+            LocalDateTime.of(-1, 6, 1, 8, 0, 0, 500_000_000),
+            LocalDateTime.of(-2024, 2, 29, 12, 0),
+            LocalDateTime.of(10000, 1, 1, 0, 0, 0, 10),
+            LocalDateTime.of(123456, 7, 8, 9, 10, 11, 120_000_000)
+    };
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void restoreDataDirectory() {
+        System.clearProperty(DataDirectory.PROPERTY);
+    }
+
+    @Test
+    void boundaryTotalsRoundTrip() throws IOException {
+        List<Order> orders = new ArrayList<>();
+        for (float total : TOTALS) {
+            orders.add(order(orders.size() + 1, DATE, total));
+        }
+        assertRoundTrip(orders);
+    }
+
+    @Test
+    void trimmedNanosAndWideYearsRoundTrip() throws IOException {
+        List<Order> orders = new ArrayList<>();
+        for (LocalDateTime date : DATES) {
+            orders.add(order(orders.size() + 1, date, 19.99f));
+        }
+        assertRoundTrip(orders);
+    }
+
+    @Test
+    void shortTotalDiffersFromFloatToStringButParsesBack() throws IOException {
+        // Forma cu doua zecimale nu este cea a lui Float.toString, dar desemneaza acelasi float
+        String total = lastField(row(order(1, DATE, 1234567.9f)));
+        assertEquals("1234567.88", total);
+        assertNotEquals(Float.toString(1234567.9f), total);
+        assertEquals(1234567.9f, Float.parseFloat(total));
+
+        String date = row(order(1, DATE.withNano(120_000_000), 0.01f)).split(";")[3];
+        assertEquals("2024-03-15T09:30:05.12", date);
+    }
+
+    // Scrie comenzile in orders.txt, le reincarca printr-un RepositoryOrder nou si compara camp cu camp
+    private void assertRoundTrip(List<Order> orders) throws IOException {
+        Files.createDirectories(dir);
+        try (OutputStream out = Files.newOutputStream(dir.resolve("orders.txt"))) {
+            OrderRowWriter writer = new OrderRowWriter(out);
+            for (Order order : orders) {
+                writer.write(order);
+            }
+            writer.flush();
+        }
+
+        System.setProperty(DataDirectory.PROPERTY, dir.toString());
+        RepositoryOrder repository = new RepositoryOrder(null, false);
+        assertEquals(orders.size(), repository.count());
+        for (Order expected : orders) {
+            Order actual = repository.findById(expected.getId());
+            assertNotNull(actual, "order " + expected.getId());
+            String context = "order " + expected.getId() + " written as " + row(expected);
+            assertEquals(expected.getClientId(), actual.getClientId(), context);
+            assertEquals(lines(expected.getLines()), lines(actual.getLines()), context);
+            assertEquals(expected.getOrderDate(), actual.getOrderDate(), context);
+            assertEquals(expected.getStatus(), actual.getStatus(), context);
+            // assertEquals(float, float) compara bitii: NaN este egal cu NaN, iar -0.0 difera de 0.0
+            assertEquals(expected.getTotalAmount(), actual.getTotalAmount(), context);
+        }
+    }
+
+    private static String row(Order order) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OrderRowWriter writer = new OrderRowWriter(out);
+        writer.write(order);
+        writer.flush();
+        return out.toString(StandardCharsets.UTF_8).trim();
+    }
+
+    private static String lastField(String row) {
+        return row.substring(row.lastIndexOf(';') + 1);
+    }
+
+    // Produsele reincarcate sunt rezolvate doar dupa ID, deci se compara perechile ID -> cantitate
+    private static Map<Integer, Integer> lines(OrderLines lines) {
+        Map<Integer, Integer> pairs = new LinkedHashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            pairs.put(lines.productIdAt(i), lines.quantityAt(i));
+        }
+        return pairs;
+    }
+
+    private static Order order(int id, LocalDateTime date, float total) {
+        Map<Product, Integer> products = new LinkedHashMap<>();
+        products.put(LAPTOP, 1);
+        products.put(MOUSE, 3);
+        return new Order(id, 1 + id % 5, products, date, OrderStatus.values()[id % OrderStatus.values().length], total);
+    }
+}
@@ -0,0 +1,146 @@
+package repository;
+
+import model.Order;
+import model.OrderStatus;
+import model.Product;
+import model.ProductType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Teste pentru {@link RepositoryOrderDisk}: reconstruirea indexului dupa o oprire fara saveAllData()
+ * si eliminarea unei inregistrari incomplete de la finalul heap-ului, plus anularea unui lot esuat.
+ */
+class RepositoryOrderDiskTest {
+
+    private static final int ORDERS = 2000;
+    private static final int CLIENTS = 7;
+    private static final Product LAPTOP = new Product(1, "Laptop", 3500.0f, ProductType.ELECTRONIC, 10, "Laptop de test");
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void useTempDataDirectory() {
+        System.setProperty(DataDirectory.PROPERTY, dir.toString());
+    }
+
+    @AfterEach
+    void restoreDataDirectory() {
+        System.clearProperty(DataDirectory.PROPERTY);
+    }
+
+    @Test
+    void rebuildsIndexAfterUncleanShutdown() throws IOException {
+        RepositoryOrderDisk crashed = new RepositoryOrderDisk(null, PageFile.MIN_CACHE_PAGES);
+        List<Order> orders = new ArrayList<>();
+        for (int id = 1; id <= ORDERS; id++) {
+            orders.add(order(id, 1 + id % CLIENTS));
+        }
+        crashed.saveAll(orders);
+        crashed.save(order(5, 99));
+        crashed.delete(10);
+        crashed.delete(11);
+        // Fara saveAllData(): antetul indexului ramane marcat "necurat", ca dupa o cadere
+
+        Path heap = dir.resolve("orders.heap");
+        long heapSize = Files.size(heap);
+        // Inregistrare scrisa pe jumatate: antetul anunta 100 de bytes, dar urmeaza doar 3
+        ByteBuffer torn = ByteBuffer.allocate(2 * Integer.BYTES + 3).putInt(100).putInt(0);
+        Files.write(heap, torn.array(), StandardOpenOption.APPEND);
+
+        RepositoryOrderDisk reopened = new RepositoryOrderDisk(null, PageFile.MIN_CACHE_PAGES);
+        assertEquals(heapSize, Files.size(heap));
+        assertFalse(reopened.hasUnsavedChanges());
+        assertEquals(ORDERS - 2, reopened.count());
+        assertEquals(ORDERS, reopened.findMaxId());
+        assertNull(reopened.findById(10));
+        assertNull(reopened.findById(11));
+        assertEquals(99, reopened.findById(5).getClientId());
+        assertEquals(1, reopened.findById(ORDERS).getLines().get(LAPTOP));
+        assertEquals(List.of(5), ids(reopened.findByClientId(99, 0, 10)));
+
+        int client = 1 + 5 % CLIENTS;
+        List<Integer> expected = new ArrayList<>();
+        for (int id = 1; id <= ORDERS; id++) {
+            if (1 + id % CLIENTS == client && id != 5 && id != 10 && id != 11) {
+                expected.add(id);
+            }
+        }
+        assertEquals(expected.size(), reopened.countByClientId(client));
+        assertEquals(expected.subList(3, 13), ids(reopened.findByClientId(client, 3, 10)));
+        assertEquals(ORDERS - 2, reopened.stream().count());
+    }
+
+    @Test
+    void reopensCleanlyClosedIndex() {
+        RepositoryOrderDisk repository = new RepositoryOrderDisk(null, PageFile.MIN_CACHE_PAGES);
+        for (int id = 1; id <= ORDERS; id++) {
+            repository.save(order(id, 1 + id % CLIENTS));
+        }
+        repository.delete(ORDERS);
+        repository.saveAllData();
+        assertFalse(repository.hasUnsavedChanges());
+
+        RepositoryOrderDisk reopened = new RepositoryOrderDisk(null, PageFile.MIN_CACHE_PAGES);
+        assertEquals(ORDERS - 1, reopened.count());
+        assertEquals(ORDERS, reopened.findMaxId());
+        assertNull(reopened.findById(ORDERS));
+        assertEquals(ORDERS - 1, reopened.findById(ORDERS - 1).getId());
+    }
+
+    @Test
+    void failedBatchLeavesNoOrderIndexed() throws IOException {
+        RepositoryOrderDisk repository = new RepositoryOrderDisk(null, PageFile.MIN_CACHE_PAGES);
+        repository.save(order(1, 3));
+        Path heap = dir.resolve("orders.heap");
+        long heapSize = Files.size(heap);
+
+        // A treia comanda nu poate fi codificata (fara data): lotul esueaza dupa ce primele doua au fost indexate
+        Order invalid = order(3, 4);
+        invalid.setOrderDate(null);
+        assertThrows(DataProcessingException.class, () -> repository.saveAll(List.of(order(1, 5), order(2, 4), invalid)));
+
+        assertEquals(heapSize, Files.size(heap));
+        assertEquals(1, repository.count());
+        assertNull(repository.findById(2));
+        assertEquals(3, repository.findById(1).getClientId());
+        assertEquals(List.of(1), ids(repository.findByClientId(3, 0, 10)));
+        assertEquals(0, repository.countByClientId(5));
+        assertEquals(0, repository.countByClientId(4));
+
+        // Heap-ul si indexul raman consistente: comenzile noi se salveaza si dupa reconstruire
+        repository.save(order(2, 4));
+        RepositoryOrderDisk reopened = new RepositoryOrderDisk(null, PageFile.MIN_CACHE_PAGES);
+        assertEquals(2, reopened.count());
+        assertEquals(3, reopened.findById(1).getClientId());
+        assertEquals(List.of(2), ids(reopened.findByClientId(4, 0, 10)));
+    }
+
+    private static Order order(int id, int clientId) {
+        return new Order(id, clientId, Map.of(LAPTOP, 1), LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(id),
+                OrderStatus.PENDING, LAPTOP.getPrice());
+    }
+
+    private static List<Integer> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,93 @@
+package repository;
+
+import model.Order;
+import model.OrderStatus;
+import model.Product;
+import model.ProductType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Teste pentru antetul orders.meta al {@link RepositoryOrder} (pornirea lenesa): antetul descrie
+ * un anumit orders.txt si este ignorat daca fisierul a fost inlocuit.
+ */
+class RepositoryOrderTest {
+
+    private static final Product LAPTOP = new Product(1, "Laptop", 3500.0f, ProductType.ELECTRONIC, 10, "Laptop de test");
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void restoreDataDirectory() {
+        System.clearProperty(DataDirectory.PROPERTY);
+    }
+
+    @Test
+    void headerFollowsCompactionOfOrdersFile() throws IOException {
+        Path data = writeOrders("data", 3);
+        // Antetul scris la inchidere, apoi o compactare care rescrie orders.txt
+        useDataDirectory(data);
+        RepositoryOrder repository = new RepositoryOrder(null, false);
+        repository.save(order(4));
+        repository.saveAllData();
+        repository.checkpoint();
+
+        File snapshot = data.resolve("orders.txt").toFile();
+        String[] header = Files.readString(data.resolve("orders.meta"), StandardCharsets.UTF_8).trim().split(";");
+        assertEquals(String.valueOf(snapshot.length()), header[2]);
+        assertEquals(String.valueOf(snapshot.lastModified()), header[3]);
+
+        RepositoryOrder lazy = new RepositoryOrder(null, true);
+        assertEquals(4, lazy.count());
+        assertEquals(4, lazy.findMaxId());
+    }
+
+    @Test
+    void ignoresHeaderOfReplacedOrdersFile() throws IOException {
+        Path data = writeOrders("data", 3);
+        Path backup = writeOrders("backup", 5);
+
+        // orders.txt restaurat dintr-o copie, cu antetul vechi inca pe disc
+        Files.copy(backup.resolve("orders.txt"), data.resolve("orders.txt"), StandardCopyOption.REPLACE_EXISTING);
+        useDataDirectory(data);
+        RepositoryOrder lazy = new RepositoryOrder(null, true);
+        assertEquals(5, lazy.count());
+        assertEquals(5, lazy.findMaxId());
+        assertEquals(5, lazy.findById(5).getId());
+    }
+
+    // Creeaza un director de date cu 'count' comenzi in orders.txt si un antet valid
+    private Path writeOrders(String name, int count) {
+        Path data = dir.resolve(name);
+        useDataDirectory(data);
+        RepositoryOrder repository = new RepositoryOrder(null, false);
+        for (int id = 1; id <= count; id++) {
+            repository.save(order(id));
+        }
+        repository.checkpoint();
+        repository.saveAllData();
+        return data;
+    }
+
+    private static void useDataDirectory(Path data) {
+        System.setProperty(DataDirectory.PROPERTY, data.toString());
+    }
+
+    private static Order order(int id) {
+        return new Order(id, 1, Map.of(LAPTOP, 1), LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(id),
+                OrderStatus.PENDING, LAPTOP.getPrice());
+    }
+}